@@ -175,6 +175,7 @@ public class VMActuator implements Actuator2 {
 
         VM.play(program, OperationRegistry.getTable());
         result = program.getResult();
+        program.releaseMemory();
 
         if (TrxType.TRX_CONTRACT_CREATION_TYPE == trxType && !result.isRevert()) {
           byte[] code = program.getResult().getHReturn();
@@ -382,7 +383,7 @@ public class VMActuator implements Actuator2 {
       long vmShouldEndInUs = vmStartInUs + thisTxCPULimitInUs;
       ProgramInvoke programInvoke = ProgramInvokeFactory
           .createProgramInvoke(TrxType.TRX_CONTRACT_CREATION_TYPE, executorType, trx,
-              tokenValue, tokenId, blockCap.getInstance(), rootRepository, vmStartInUs,
+              tokenValue, tokenId, getHeaderOnlyBlock(), rootRepository, vmStartInUs,
               vmShouldEndInUs, energyLimit);
       if (isConstantCall) {
         programInvoke.setConstantCall();
@@ -497,7 +498,7 @@ public class VMActuator implements Actuator2 {
       long vmShouldEndInUs = vmStartInUs + thisTxCPULimitInUs;
       ProgramInvoke programInvoke = ProgramInvokeFactory
           .createProgramInvoke(TrxType.TRX_CONTRACT_CALL_TYPE, executorType, trx,
-              tokenValue, tokenId, blockCap.getInstance(), rootRepository, vmStartInUs,
+              tokenValue, tokenId, getHeaderOnlyBlock(), rootRepository, vmStartInUs,
               vmShouldEndInUs, energyLimit);
       if (isConstantCall) {
         programInvoke.setConstantCall();
@@ -718,8 +719,15 @@ public class VMActuator implements Actuator2 {
   }
 
   private boolean isCheckTransaction() {
-    return this.blockCap != null && !this.blockCap.getInstance().getBlockHeader()
-        .getWitnessSignature().isEmpty();
+    return this.blockCap != null && this.blockCap.hasWitnessSignature();
+  }
+
+  /**
+   * The VM only reads the block header, so avoid materializing the transaction list of a
+   * block that is still being assembled.
+   */
+  private Block getHeaderOnlyBlock() {
+    return Block.newBuilder().setBlockHeader(blockCap.getBlockHeader()).build();
   }
 
 }
@@ -12,10 +12,16 @@ import org.tron.core.vm.program.Program.TransferException;
 @Slf4j(topic = "VM")
 public class VM {
 
+  // the clock is read at control flow ops and at least once per this many instructions
+  private static final int CPU_TIME_CHECK_INTERVAL = 64;
+
   public static void play(Program program, JumpTable jumpTable) {
+    final boolean vmTrace = VMConfig.vmTrace();
+    final boolean fullTrace = program.isFullTraceEnabled();
+    int sinceTimeCheck = 0;
     try {
       while (!program.isStopped()) {
-        if (VMConfig.vmTrace()) {
+        if (vmTrace) {
           program.saveOpTrace();
         }
 
@@ -24,23 +30,26 @@ public class VM {
           if (!op.isEnabled()) {
             throw Program.Exception.invalidOpCode(program.getCurrentOp());
           }
-          program.setLastOp((byte) op.getOpcode());
+          int opcode = op.getOpcode();
+          program.setLastOp((byte) opcode);
 
           /* stack underflow/overflow check */
           program.verifyStackSize(op.getRequire());
           program.verifyStackOverflow(op.getRequire(), op.getRet());
 
-          String opName = Op.getNameOf(op.getOpcode());
           /* spend energy before execution */
-          program.spendEnergy(op.getEnergyCost(program), opName);
+          program.spendEnergy(op.getEnergyCost(program), opcode);
 
           /* check if cpu time out */
-          program.checkCPUTimeLimit(opName);
+          if (++sinceTimeCheck >= CPU_TIME_CHECK_INTERVAL || isTimeCheckPoint(opcode)) {
+            sinceTimeCheck = 0;
+            program.checkCPUTimeLimit(Op.getNameOf(opcode));
+          }
 
           /* exec op action */
           op.execute(program);
 
-          program.setPreviouslyExecutedOp((byte) op.getOpcode());
+          program.setPreviouslyExecutedOp((byte) opcode);
         } catch (RuntimeException e) {
           logger.info("VM halted: [{}]", e.getMessage());
           if (!(e instanceof TransferException)) {
@@ -50,7 +59,9 @@ public class VM {
           program.stop();
           throw e;
         } finally {
-          program.fullTrace();
+          if (fullTrace) {
+            program.fullTrace();
+          }
         }
       }
     } catch (JVMStackOverFlowException | OutOfTimeException e) {
@@ -68,4 +79,24 @@ public class VM {
       throw new JVMStackOverFlowException();
     }
   }
+
+  /**
+   * Basic block boundaries and ops that start a nested execution, every loop passes one of them.
+   */
+  private static boolean isTimeCheckPoint(int opcode) {
+    switch (opcode) {
+      case Op.JUMP:
+      case Op.JUMPI:
+      case Op.JUMPDEST:
+      case Op.CALL:
+      case Op.CALLCODE:
+      case Op.DELEGATECALL:
+      case Op.STATICCALL:
+      case Op.CREATE:
+      case Op.CREATE2:
+        return true;
+      default:
+        return false;
+    }
+  }
 }
@@ -6,7 +6,10 @@ import static java.lang.String.format;
 import static org.tron.common.utils.ByteUtil.EMPTY_BYTE_ARRAY;
 import static org.tron.common.utils.ByteUtil.oneByteToHexString;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.core.vm.program.listener.ProgramListener;
@@ -16,8 +19,15 @@ public class Memory implements ProgramListenerAware {
 
   private static final int CHUNK_SIZE = 1024;
   private static final int WORD_SIZE = 32;
+  private static final int INITIAL_CHUNKS = 4;
+  // at most 1 MB of released chunks is kept per thread
+  private static final int MAX_POOLED_CHUNKS = 1024;
 
-  private List<byte[]> chunks = new LinkedList<>();
+  private static final ThreadLocal<Deque<byte[]>> CHUNK_POOL =
+      ThreadLocal.withInitial(ArrayDeque::new);
+
+  private byte[][] chunks = new byte[INITIAL_CHUNKS][];
+  private int chunkCount;
   private int softSize;
   private ProgramListener programListener;
 
@@ -131,7 +141,7 @@ public class Memory implements ProgramListenerAware {
     int chunkIndex = address / CHUNK_SIZE;
     int chunkOffset = address % CHUNK_SIZE;
 
-    byte[] chunk = chunks.get(chunkIndex);
+    byte[] chunk = chunks[chunkIndex];
 
     return chunk[chunkOffset];
   }
@@ -174,16 +184,33 @@ public class Memory implements ProgramListenerAware {
   }
 
   public int internalSize() {
-    return chunks.size() * CHUNK_SIZE;
+    return chunkCount * CHUNK_SIZE;
   }
 
   public List<byte[]> getChunks() {
-    return new LinkedList<>(chunks);
+    return new ArrayList<>(Arrays.asList(chunks).subList(0, chunkCount));
+  }
+
+  /**
+   * Hands the chunks back to the pool of the current thread so that the next program executed
+   * by it does not have to allocate them again. The memory is empty afterwards.
+   */
+  public void release() {
+    Deque<byte[]> pool = CHUNK_POOL.get();
+    for (int i = 0; i < chunkCount; ++i) {
+      if (pool.size() < MAX_POOLED_CHUNKS) {
+        Arrays.fill(chunks[i], (byte) 0);
+        pool.push(chunks[i]);
+      }
+      chunks[i] = null;
+    }
+    chunkCount = 0;
+    softSize = 0;
   }
 
   private int captureMax(int chunkIndex, int chunkOffset, int size, byte[] src, int srcPos) {
 
-    byte[] chunk = chunks.get(chunkIndex);
+    byte[] chunk = chunks[chunkIndex];
     int toCapture = min(size, chunk.length - chunkOffset);
 
     System.arraycopy(src, srcPos, chunk, chunkOffset, toCapture);
@@ -192,7 +219,7 @@ public class Memory implements ProgramListenerAware {
 
   private int grabMax(int chunkIndex, int chunkOffset, int size, byte[] dest, int destPos) {
 
-    byte[] chunk = chunks.get(chunkIndex);
+    byte[] chunk = chunks[chunkIndex];
     int toGrab = min(size, chunk.length - chunkOffset);
 
     System.arraycopy(chunk, chunkOffset, dest, destPos, toGrab);
@@ -201,8 +228,15 @@ public class Memory implements ProgramListenerAware {
   }
 
   private void addChunks(int num) {
-    for (int i = 0; i < num; ++i) {
-      chunks.add(new byte[CHUNK_SIZE]);
+    int newCount = Math.addExact(chunkCount, num);
+    if (newCount > chunks.length) {
+      chunks = Arrays.copyOf(chunks, Math.max(newCount, chunks.length * 2));
+    }
+    Deque<byte[]> pool = CHUNK_POOL.get();
+    for (int i = chunkCount; i < newCount; ++i) {
+      byte[] chunk = pool.poll();
+      chunks[i] = chunk != null ? chunk : new byte[CHUNK_SIZE];
     }
+    chunkCount = newCount;
   }
 }
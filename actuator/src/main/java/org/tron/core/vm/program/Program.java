@@ -17,7 +17,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.bouncycastle.util.encoders.Hex;
@@ -86,9 +85,6 @@ public class Program {
   private static final String INVALID_TOKEN_ID_MSG = "not valid token id";
   private static final String REFUND_ENERGY_FROM_MESSAGE_CALL = "refund energy from message call";
   private static final String CALL_PRE_COMPILED = "call pre-compiled";
-  private static final int lruCacheSize = CommonParameter.getInstance().getSafeLruCacheSize();
-  private static final LRUMap<Key, ProgramPrecompile> programPrecompileLRUMap
-      = new LRUMap<>(lruCacheSize);
   private long nonce;
   private byte[] rootTransactionId;
   private InternalTransaction internalTransaction;
@@ -170,20 +166,8 @@ public class Program {
   }
 
   public ProgramPrecompile getProgramPrecompile() {
-    if (isConstantCall()) {
-      if (programPrecompile == null) {
-        programPrecompile = ProgramPrecompile.compile(ops);
-      }
-      return programPrecompile;
-    }
     if (programPrecompile == null) {
-      Key key = getJumpDestAnalysisCacheKey();
-      if (programPrecompileLRUMap.containsKey(key)) {
-        programPrecompile = programPrecompileLRUMap.get(key);
-      } else {
-        programPrecompile = ProgramPrecompile.compile(ops);
-        programPrecompileLRUMap.put(key, programPrecompile);
-      }
+      programPrecompile = ProgramPrecompile.getOrCompile(getJumpDestAnalysisCacheKey(), ops);
     }
     return programPrecompile;
   }
@@ -658,6 +642,7 @@ public class Program {
       }
       VM.play(program, OperationRegistry.getTable());
       createResult = program.getResult();
+      program.releaseMemory();
       getTrace().merge(program.getTrace());
       // always commit nonce
       this.nonce = program.nonce;
@@ -890,6 +875,7 @@ public class Program {
       }
       VM.play(program, OperationRegistry.getTable());
       callResult = program.getResult();
+      program.releaseMemory();
 
       getTrace().merge(program.getTrace());
       getResult().merge(callResult);
@@ -970,6 +956,18 @@ public class Program {
     getResult().spendEnergy(energyValue);
   }
 
+  /**
+   * Same as {@link #spendEnergy(long, String)}, the op name is only resolved when it is needed
+   * for the error message.
+   */
+  public void spendEnergy(long energyValue, int opcode) {
+    if (getEnergylimitLeftLong() < energyValue) {
+      spendEnergy(energyValue, Op.getNameOf(opcode));
+      return;
+    }
+    getResult().spendEnergy(energyValue);
+  }
+
   public void checkCPUTimeLimit(String opName) {
 
     if (CommonParameter.getInstance().isDebug()) {
@@ -1232,8 +1230,12 @@ public class Program {
     return memory.toString();
   }
 
+  public boolean isFullTraceEnabled() {
+    return logger.isTraceEnabled() || listener != null;
+  }
+
   public void fullTrace() {
-    if (logger.isTraceEnabled() || listener != null) {
+    if (isFullTraceEnabled()) {
 
       StringBuilder stackData = new StringBuilder();
       for (int i = 0; i < stack.size(); ++i) {
@@ -1584,6 +1586,13 @@ public class Program {
     return memory.read(0, memory.size());
   }
 
+  /**
+   * Returns the memory chunks to the per-thread pool once the program has finished.
+   */
+  public void releaseMemory() {
+    memory.release();
+  }
+
   /**
    * . used mostly for testing reasons
    */
@@ -1,24 +1,40 @@
 package org.tron.core.vm.program;
 
-import java.util.HashSet;
-import java.util.Set;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.BitSet;
 import lombok.extern.slf4j.Slf4j;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.core.vm.Op;
 import org.tron.core.vm.config.VMConfig;
+import org.tron.core.vm.repository.Key;
 
 @Slf4j(topic = "VM")
 public class ProgramPrecompile {
 
-  private final Set<Integer> jumpDest = new HashSet<>();
+  // keyed by contract address + code hash, shared by all executing threads
+  private static final Cache<Key, ProgramPrecompile> cache = CacheBuilder.newBuilder()
+      .maximumSize(CommonParameter.getInstance().getSafeLruCacheSize())
+      .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+      .build();
+
+  private final BitSet jumpDest;
+
+  private ProgramPrecompile(int codeSize) {
+    this.jumpDest = new BitSet(codeSize);
+  }
 
   public static ProgramPrecompile compile(byte[] ops) {
-    ProgramPrecompile ret = new ProgramPrecompile();
+    ProgramPrecompile ret = new ProgramPrecompile(ops.length);
     for (int i = 0; i < ops.length; ++i) {
       int op = ops[i] & 0xff;
 
       if (op == Op.JUMPDEST) {
-        ret.jumpDest.add(i);
+        ret.jumpDest.set(i);
       }
 
       if (op >= Op.PUSH1 && op <= Op.PUSH32) {
@@ -28,6 +44,51 @@ public class ProgramPrecompile {
     return ret;
   }
 
+  /**
+   * Returns the cached JUMPDEST analysis of the code identified by key, compiling it on a miss.
+   */
+  public static ProgramPrecompile getOrCompile(Key key, byte[] ops) {
+    ProgramPrecompile precompile = cache.getIfPresent(key);
+    if (precompile != null) {
+      Metrics.counterInc(MetricKeys.Counter.JUMPDEST_CACHE, 1,
+          MetricLabels.Counter.JUMPDEST_CACHE_HIT);
+      return precompile;
+    }
+    Metrics.counterInc(MetricKeys.Counter.JUMPDEST_CACHE, 1,
+        MetricLabels.Counter.JUMPDEST_CACHE_MISS);
+    precompile = compile(ops);
+    cache.put(key, precompile);
+    Metrics.gaugeSet(MetricKeys.Gauge.JUMPDEST_CACHE_SIZE, cache.size());
+    return precompile;
+  }
+
+  /**
+   * Drops every cached analysis of the contract at the given address.
+   */
+  public static void invalidate(byte[] address) {
+    if (address == null || address.length == 0) {
+      return;
+    }
+    cache.asMap().keySet().removeIf(key -> startsWith(key.getData(), address));
+    Metrics.gaugeSet(MetricKeys.Gauge.JUMPDEST_CACHE_SIZE, cache.size());
+  }
+
+  public static long cacheSize() {
+    return cache.size();
+  }
+
+  private static boolean startsWith(byte[] data, byte[] prefix) {
+    if (data.length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (data[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public static byte[] getCode(byte[] ops) {
     for (int i = 0; i < ops.length; ++i) {
 
@@ -54,6 +115,6 @@ public class ProgramPrecompile {
   }
 
   public boolean hasJumpDest(int pc) {
-    return jumpDest.contains(pc);
+    return pc >= 0 && jumpDest.get(pc);
   }
 }
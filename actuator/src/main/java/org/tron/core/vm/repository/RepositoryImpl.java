@@ -54,6 +54,7 @@ import org.tron.core.store.VotesStore;
 import org.tron.core.store.WitnessStore;
 import org.tron.core.vm.config.VMConfig;
 import org.tron.core.vm.program.Program.IllegalOperationException;
+import org.tron.core.vm.program.ProgramPrecompile;
 import org.tron.core.vm.program.Storage;
 import org.tron.protos.Protocol;
 import org.tron.protos.Protocol.Account;
@@ -118,6 +119,7 @@ public class RepositoryImpl implements Repository {
   private final HashMap<Key, Value<byte[]>> delegationCache = new HashMap<>();
 
   public static void removeLruCache(byte[] address) {
+    ProgramPrecompile.invalidate(address);
   }
 
   public RepositoryImpl(StoreFactory storeFactory, RepositoryImpl repository) {
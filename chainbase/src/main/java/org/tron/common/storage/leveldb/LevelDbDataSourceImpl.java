@@ -46,6 +46,7 @@ import org.iq80.leveldb.DB;
 import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
 import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
 import org.iq80.leveldb.WriteBatch;
 import org.iq80.leveldb.WriteOptions;
 import org.tron.common.parameter.CommonParameter;
@@ -216,6 +217,29 @@ public class LevelDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
     }
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getData(List<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keys.size() << 1);
+    if (keys.isEmpty()) {
+      return result;
+    }
+    resetDbLock.readLock().lock();
+    try (Snapshot snapshot = database.getSnapshot()) {
+      ReadOptions readOptions = new ReadOptions().snapshot(snapshot);
+      for (byte[] key : keys) {
+        byte[] value = database.get(key, readOptions);
+        if (value != null) {
+          result.put(WrappedByteArray.of(key), value);
+        }
+      }
+      return result;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
   @Override
   public void putData(byte[] key, byte[] value) {
     resetDbLock.readLock().lock();
@@ -295,6 +295,27 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
     }
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getData(List<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keys.size() << 1);
+    if (keys.isEmpty() || quitIfNotAlive()) {
+      return result;
+    }
+    resetDbLock.readLock().lock();
+    try {
+      database.multiGet(keys).forEach((k, v) -> {
+        if (v != null) {
+          result.put(WrappedByteArray.of(k), v);
+        }
+      });
+      return result;
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
   @Override
   public void deleteData(byte[] key) {
     if (quitIfNotAlive()) {
@@ -51,6 +51,13 @@ public class StorageUtils {
     return CommonParameter.getInstance().getOutputDirectory();
   }
 
+  public static int getReadCacheSizeByDbName(String dbName) {
+    if (hasProperty(dbName)) {
+      return getProperty(dbName).getReadCacheSize();
+    }
+    return 0;
+  }
+
   public static Options getOptionsByDbName(String dbName) {
     if (hasProperty(dbName)) {
       return getProperty(dbName).getDbOptions();
@@ -18,12 +18,14 @@ package org.tron.core.capsule;
 import com.google.common.primitives.Longs;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.security.SignatureException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -55,7 +57,11 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   private BlockId blockId = new BlockId(Sha256Hash.ZERO_HASH, 0);
 
   private Block block;
+  // mutable block used while transactions are appended one by one, see addTransaction
+  private Block.Builder blockBuilder;
+  private long serializedSize;
   private List<TransactionCapsule> transactions = new ArrayList<>();
+  private volatile WitnessSigner witnessSigner;
   private StringBuilder toStringBuff = new StringBuilder();
   private boolean isSwitch;
   @Getter
@@ -138,11 +144,49 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     }
   }
 
+  /**
+   * Appends a transaction to a block under assembly. The protobuf block is not rebuilt here,
+   * it is materialized once when {@link #getInstance()} is called, e.g. by setMerkleRoot.
+   */
   public void addTransaction(TransactionCapsule pendingTrx) {
-    this.block = this.block.toBuilder().addTransactions(pendingTrx.getInstance()).build();
+    if (blockBuilder == null) {
+      blockBuilder = this.block.toBuilder();
+      serializedSize = this.block.getSerializedSize();
+    }
+    blockBuilder.addTransactions(pendingTrx.getInstance());
+    serializedSize += CodedOutputStream.computeMessageSize(Block.TRANSACTIONS_FIELD_NUMBER,
+        pendingTrx.getInstance());
     getTransactions().add(pendingTrx);
   }
 
+  /**
+   * Serialized size of the block, tracked incrementally while the block is being assembled.
+   */
+  public long getSerializedSize() {
+    if (blockBuilder != null) {
+      return serializedSize;
+    }
+    return this.block.getSerializedSize();
+  }
+
+  public BlockHeader getBlockHeader() {
+    if (blockBuilder != null) {
+      return blockBuilder.getBlockHeader();
+    }
+    return this.block.getBlockHeader();
+  }
+
+  private void setBlockHeader(BlockHeader blockHeader) {
+    if (blockBuilder != null) {
+      serializedSize += CodedOutputStream.computeMessageSize(Block.BLOCK_HEADER_FIELD_NUMBER,
+          blockHeader) - CodedOutputStream.computeMessageSize(Block.BLOCK_HEADER_FIELD_NUMBER,
+          blockBuilder.getBlockHeader());
+      blockBuilder.setBlockHeader(blockHeader);
+    } else {
+      this.block = this.block.toBuilder().setBlockHeader(blockHeader).build();
+    }
+  }
+
   public List<TransactionCapsule> getTransactions() {
     return transactions;
   }
@@ -160,26 +204,38 @@ public class BlockCapsule implements ProtoCapsule<Block> {
 
     ByteString sig = ByteString.copyFrom(ecKeyEngine.Base64toBytes(ecKeyEngine.signHash(getRawHash()
         .getBytes())));
-    BlockHeader blockHeader = this.block.getBlockHeader().toBuilder().setWitnessSignature(sig)
-        .build();
-
-    this.block = this.block.toBuilder().setBlockHeader(blockHeader).build();
-
+    setBlockHeader(getBlockHeader().toBuilder().setWitnessSignature(sig).build());
   }
 
   private Sha256Hash getRawHash() {
     return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
-        this.block.getBlockHeader().getRawData().toByteArray());
+        getBlockHeader().getRawData().toByteArray());
+  }
+
+  /**
+   * recovers the address that signed the header. It does not depend on any state, so it can be
+   * done ahead of {@link #validateSignature}, which then reuses it while the header is unchanged.
+   */
+  public byte[] recoverWitnessSignature() throws SignatureException {
+    BlockHeader header = getBlockHeader();
+    WitnessSigner cached = witnessSigner;
+    if (cached != null && cached.header == header) {
+      return cached.address;
+    }
+    byte[] address = SignUtils.signatureToAddress(
+        Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
+            header.getRawData().toByteArray()).getBytes(),
+        TransactionCapsule.getBase64FromByteString(header.getWitnessSignature()),
+        CommonParameter.getInstance().isECKeyCryptoEngine());
+    witnessSigner = new WitnessSigner(header, address);
+    return address;
   }
 
   public boolean validateSignature(DynamicPropertiesStore dynamicPropertiesStore,
       AccountStore accountStore) throws ValidateSignatureException {
     try {
-      byte[] sigAddress = SignUtils.signatureToAddress(getRawHash().getBytes(),
-          TransactionCapsule.getBase64FromByteString(
-              block.getBlockHeader().getWitnessSignature()),
-          CommonParameter.getInstance().isECKeyCryptoEngine());
-      byte[] witnessAccountAddress = block.getBlockHeader().getRawData().getWitnessAddress()
+      byte[] sigAddress = recoverWitnessSignature();
+      byte[] witnessAccountAddress = getBlockHeader().getRawData().getWitnessAddress()
           .toByteArray();
 
       if (dynamicPropertiesStore.getAllowMultiSign() != 1) {
@@ -199,86 +255,97 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     if (blockId.equals(Sha256Hash.ZERO_HASH)) {
       blockId =
           new BlockId(Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
-              this.block.getBlockHeader().getRawData().toByteArray()), getNum());
+              getBlockHeader().getRawData().toByteArray()), getNum());
     }
     return blockId;
   }
 
   public Sha256Hash calcMerkleRoot() {
-    List<Transaction> transactionsList = this.block.getTransactionsList();
+    List<Transaction> transactionsList = getInstance().getTransactionsList();
 
     if (CollectionUtils.isEmpty(transactionsList)) {
       return Sha256Hash.ZERO_HASH;
     }
 
-    ArrayList<Sha256Hash> ids = transactionsList.stream()
-        .map(TransactionCapsule::new)
-        .map(TransactionCapsule::getMerkleHash)
-        .collect(Collectors.toCollection(ArrayList::new));
+    // the capsules keep the hashes computed so far while they still hold the block's message
+    List<TransactionCapsule> capsules = getTransactions();
+    IntStream indexes = IntStream.range(0, transactionsList.size());
+    if (transactionsList.size() >= MerkleTree.PARALLEL_THRESHOLD) {
+      indexes = indexes.parallel();
+    }
+    List<Sha256Hash> ids = indexes
+        .mapToObj(i -> {
+          Transaction trx = transactionsList.get(i);
+          TransactionCapsule capsule = i < capsules.size() ? capsules.get(i) : null;
+          return capsule != null && capsule.getInstance() == trx
+              ? capsule.getMerkleHash() : new TransactionCapsule(trx).getMerkleHash();
+        })
+        .collect(Collectors.toList());
 
-    return MerkleTree.getInstance().createTree(ids).getRoot().getHash();
+    return MerkleTree.computeRoot(ids);
   }
 
   public void setMerkleRoot() {
     BlockHeader.raw blockHeaderRaw =
-        this.block.getBlockHeader().getRawData().toBuilder()
+        getBlockHeader().getRawData().toBuilder()
             .setTxTrieRoot(calcMerkleRoot().getByteString()).build();
 
-    this.block = this.block.toBuilder().setBlockHeader(
-        this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build();
+    setBlockHeader(getBlockHeader().toBuilder().setRawData(blockHeaderRaw).build());
   }
 
   public void setAccountStateRoot(byte[] root) {
     BlockHeader.raw blockHeaderRaw =
-        this.block.getBlockHeader().getRawData().toBuilder()
+        getBlockHeader().getRawData().toBuilder()
             .setAccountStateRoot(ByteString.copyFrom(root)).build();
 
-    this.block = this.block.toBuilder().setBlockHeader(
-        this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build();
+    setBlockHeader(getBlockHeader().toBuilder().setRawData(blockHeaderRaw).build());
   }
 
   /* only for genesis */
   public void setWitness(String witness) {
     BlockHeader.raw blockHeaderRaw =
-        this.block.getBlockHeader().getRawData().toBuilder().setWitnessAddress(
+        getBlockHeader().getRawData().toBuilder().setWitnessAddress(
             ByteString.copyFrom(witness.getBytes())).build();
 
-    this.block = this.block.toBuilder().setBlockHeader(
-        this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build();
+    setBlockHeader(getBlockHeader().toBuilder().setRawData(blockHeaderRaw).build());
   }
 
   public Sha256Hash getMerkleRoot() {
-    return Sha256Hash.wrap(this.block.getBlockHeader().getRawData().getTxTrieRoot());
+    return Sha256Hash.wrap(getBlockHeader().getRawData().getTxTrieRoot());
   }
 
   public Sha256Hash getAccountRoot() {
-    if (this.block.getBlockHeader().getRawData().getAccountStateRoot() != null
-        && !this.block.getBlockHeader().getRawData().getAccountStateRoot().isEmpty()) {
-      return Sha256Hash.wrap(this.block.getBlockHeader().getRawData().getAccountStateRoot());
+    if (getBlockHeader().getRawData().getAccountStateRoot() != null
+        && !getBlockHeader().getRawData().getAccountStateRoot().isEmpty()) {
+      return Sha256Hash.wrap(getBlockHeader().getRawData().getAccountStateRoot());
     }
     return Sha256Hash.ZERO_HASH;
   }
 
   public ByteString getWitnessAddress() {
-    return this.block.getBlockHeader().getRawData().getWitnessAddress();
+    return getBlockHeader().getRawData().getWitnessAddress();
   }
 
   public boolean isMerkleRootEmpty() {
-    return this.block.getBlockHeader().getRawData().getTxTrieRoot().toByteArray().length == 0;
+    return getBlockHeader().getRawData().getTxTrieRoot().toByteArray().length == 0;
   }
 
   @Override
   public byte[] getData() {
-    return this.block.toByteArray();
+    return getInstance().toByteArray();
   }
 
   @Override
   public Block getInstance() {
+    if (blockBuilder != null) {
+      this.block = blockBuilder.build();
+      blockBuilder = null;
+    }
     return this.block;
   }
 
   public Sha256Hash getParentHash() {
-    return Sha256Hash.wrap(this.block.getBlockHeader().getRawData().getParentHash());
+    return Sha256Hash.wrap(getBlockHeader().getRawData().getParentHash());
   }
 
   public BlockId getParentBlockId() {
@@ -286,19 +353,19 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   }
 
   public ByteString getParentHashStr() {
-    return this.block.getBlockHeader().getRawData().getParentHash();
+    return getBlockHeader().getRawData().getParentHash();
   }
 
   public long getNum() {
-    return this.block.getBlockHeader().getRawData().getNumber();
+    return getBlockHeader().getRawData().getNumber();
   }
 
   public long getTimeStamp() {
-    return this.block.getBlockHeader().getRawData().getTimestamp();
+    return getBlockHeader().getRawData().getTimestamp();
   }
 
   public boolean hasWitnessSignature() {
-    return !getInstance().getBlockHeader().getWitnessSignature().isEmpty();
+    return !getBlockHeader().getWitnessSignature().isEmpty();
   }
 
   @Override
@@ -325,6 +392,17 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     return toStringBuff.toString();
   }
 
+  private static class WitnessSigner {
+
+    private final BlockHeader header;
+    private final byte[] address;
+
+    private WitnessSigner(BlockHeader header, byte[] address) {
+      this.header = header;
+      this.address = address;
+    }
+  }
+
   public static class BlockId extends Sha256Hash {
 
     private long num;
@@ -89,6 +89,10 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   private static final String OWNER_ADDRESS = "ownerAddress_";
 
   private Transaction transaction;
+  // hashes are kept with the message they were computed from, a changed message misses
+  private volatile Hash rawHash;
+  private volatile Hash merkleHash;
+  private volatile Signers signers;
   @Setter
   private boolean isVerified = false;
   @Setter
@@ -201,6 +205,13 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public static long checkWeight(Permission permission, List<ByteString> sigs, byte[] hash,
       List<ByteString> approveList)
       throws SignatureException, PermissionException, SignatureFormatException {
+    return checkWeight(permission, sigs, hash, null, approveList);
+  }
+
+  // signers are the addresses already recovered from sigs, null to recover them here
+  private static long checkWeight(Permission permission, List<ByteString> sigs, byte[] hash,
+      List<byte[]> signers, List<ByteString> approveList)
+      throws SignatureException, PermissionException, SignatureFormatException {
     long currentWeight = 0;
     if (sigs.size() > permission.getKeysCount()) {
       throw new PermissionException(
@@ -208,13 +219,14 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
               + permission.getKeysCount());
     }
     HashMap addMap = new HashMap();
-    for (ByteString sig : sigs) {
+    for (int i = 0; i < sigs.size(); i++) {
+      ByteString sig = sigs.get(i);
       if (sig.size() < 65) {
         throw new SignatureFormatException(
             "Signature size is " + sig.size());
       }
       String base64 = TransactionCapsule.getBase64FromByteString(sig);
-      byte[] address = SignUtils
+      byte[] address = signers != null ? signers.get(i) : SignUtils
           .signatureToAddress(hash, base64, CommonParameter.getInstance().isECKeyCryptoEngine());
       long weight = getWeight(permission, address);
       if (weight == 0) {
@@ -435,6 +447,13 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public static boolean validateSignature(Transaction transaction,
       byte[] hash, AccountStore accountStore, DynamicPropertiesStore dynamicPropertiesStore)
       throws PermissionException, SignatureException, SignatureFormatException {
+    return validateSignature(transaction, hash, null, accountStore, dynamicPropertiesStore);
+  }
+
+  private static boolean validateSignature(Transaction transaction, byte[] hash,
+      List<byte[]> signers, AccountStore accountStore,
+      DynamicPropertiesStore dynamicPropertiesStore)
+      throws PermissionException, SignatureException, SignatureFormatException {
     Transaction.Contract contract = transaction.getRawData().getContractList().get(0);
     int permissionId = contract.getPermissionId();
     byte[] owner = getOwner(contract);
@@ -455,7 +474,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       throw new PermissionException("permission isn't exit");
     }
     checkPermission(permissionId, permission, contract);
-    long weight = checkWeight(permission, transaction.getSignatureList(), hash, null);
+    long weight = checkWeight(permission, transaction.getSignatureList(), hash, signers, null);
     if (weight >= permission.getThreshold()) {
       return true;
     }
@@ -522,14 +541,85 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   }
 
   public Sha256Hash getMerkleHash() {
-    byte[] transBytes = this.transaction.toByteArray();
-    return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
-        transBytes);
+    Transaction trx = this.transaction;
+    Hash cached = merkleHash;
+    if (cached != null && cached.source == trx) {
+      return cached.hash;
+    }
+    Sha256Hash hash = Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
+        trx.toByteArray());
+    merkleHash = new Hash(trx, hash);
+    return hash;
   }
 
   private Sha256Hash getRawHash() {
-    return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
-        this.transaction.getRawData().toByteArray());
+    // the raw data message is shared by copies that only change signatures or results
+    Transaction.raw rawData = this.transaction.getRawData();
+    Hash cached = rawHash;
+    if (cached != null && cached.source == rawData) {
+      return cached.hash;
+    }
+    Sha256Hash hash = Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
+        rawData.toByteArray());
+    rawHash = new Hash(rawData, hash);
+    return hash;
+  }
+
+  /**
+   * recovers the address behind every signature. It does not depend on any state, so it can be
+   * done ahead of validation, which then only checks the addresses against the permission.
+   */
+  public void recoverSigners() throws SignatureException, SignatureFormatException {
+    Transaction trx = this.transaction;
+    if (getRecoveredSigners() != null) {
+      return;
+    }
+    byte[] hash = getRawHash().getBytes();
+    List<byte[]> addresses = new ArrayList<>(trx.getSignatureCount());
+    for (ByteString sig : trx.getSignatureList()) {
+      if (sig.size() < 65) {
+        throw new SignatureFormatException("Signature size is " + sig.size());
+      }
+      addresses.add(SignUtils.signatureToAddress(hash, getBase64FromByteString(sig),
+          CommonParameter.getInstance().isECKeyCryptoEngine()));
+    }
+    signers = new Signers(trx.getRawData(), trx.getSignatureList(), addresses);
+  }
+
+  // the signers recovered for the current raw data and signatures, null if there are none
+  private List<byte[]> getRecoveredSigners() {
+    Transaction trx = this.transaction;
+    Signers cached = signers;
+    if (cached != null && cached.rawData == trx.getRawData()
+        && cached.signatures.equals(trx.getSignatureList())) {
+      return cached.addresses;
+    }
+    return null;
+  }
+
+  private static class Signers {
+
+    private final Transaction.raw rawData;
+    private final List<ByteString> signatures;
+    private final List<byte[]> addresses;
+
+    private Signers(Transaction.raw rawData, List<ByteString> signatures,
+        List<byte[]> addresses) {
+      this.rawData = rawData;
+      this.signatures = signatures;
+      this.addresses = addresses;
+    }
+  }
+
+  private static class Hash {
+
+    private final Object source;
+    private final Sha256Hash hash;
+
+    private Hash(Object source, Sha256Hash hash) {
+      this.source = source;
+      this.hash = hash;
+    }
   }
 
   public void sign(byte[] privateKey) {
@@ -608,7 +698,8 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       byte[] hash = this.getRawHash().getBytes();
 
       try {
-        if (!validateSignature(this.transaction, hash, accountStore, dynamicPropertiesStore)) {
+        if (!validateSignature(this.transaction, hash, getRecoveredSigners(), accountStore,
+            dynamicPropertiesStore)) {
           isVerified = false;
           throw new ValidateSignatureException("sig error");
         }
@@ -11,6 +11,9 @@ import org.tron.common.utils.Sha256Hash;
 @Getter
 public class MerkleTree {
 
+  // levels with at least this many parents are hashed on the fork-join pool
+  public static final int PARALLEL_THRESHOLD = 256;
+
   private static volatile MerkleTree instance;
   private List<Sha256Hash> hashList;
   private List<Leaf> leaves;
@@ -40,6 +43,27 @@ public class MerkleTree {
     return this;
   }
 
+  /**
+   * The root hash of the tree over the hashes, computed level by level without keeping the
+   * leaves. It equals {@code createTree(hashList).getRoot().getHash()}, and is thread safe.
+   */
+  public static Sha256Hash computeRoot(List<Sha256Hash> hashList) {
+    List<Sha256Hash> level = hashList;
+    while (level.size() > 1) {
+      List<Sha256Hash> children = level;
+      int len = children.size();
+      IntStream parents = IntStream.range(0, (len + 1) / 2);
+      if (len / 2 >= PARALLEL_THRESHOLD) {
+        parents = parents.parallel();
+      }
+      level = parents
+          .mapToObj(i -> 2 * i + 1 < len
+              ? computeHash(children.get(2 * i), children.get(2 * i + 1)) : children.get(2 * i))
+          .collect(Collectors.toList());
+    }
+    return level.get(0);
+  }
+
   private List<Leaf> createParentLeaves(List<Leaf> leaves) {
     int step = 2;
     int len = leaves.size();
@@ -80,7 +104,7 @@ public class MerkleTree {
     return leaf;
   }
 
-  private Sha256Hash computeHash(Sha256Hash leftHash, Sha256Hash rightHash) {
+  private static Sha256Hash computeHash(Sha256Hash leftHash, Sha256Hash rightHash) {
     return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
         leftHash.getByteString().concat(rightHash.getByteString()).toByteArray());
   }
@@ -2,10 +2,18 @@ package org.tron.core.db;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.bouncycastle.util.encoders.Hex;
+import org.tron.common.utils.JsonUtil;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 public class RecentTransactionItem {
+
+  // binary encoding: version(1) | num(8) | count(4) | count * (length(1) | id)
+  private static final byte VERSION = 1;
+
   @Getter
   @Setter
   private long num;
@@ -20,4 +28,40 @@ public class RecentTransactionItem {
     this.num = num;
     this.transactionIds = transactionIds;
   }
+
+  public byte[] toBytes() {
+    List<byte[]> ids = new ArrayList<>(transactionIds.size());
+    int size = 1 + 8 + 4;
+    for (String id : transactionIds) {
+      byte[] bytes = Hex.decode(id);
+      ids.add(bytes);
+      size += 1 + bytes.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.put(VERSION).putLong(num).putInt(ids.size());
+    ids.forEach(bytes -> buffer.put((byte) bytes.length).put(bytes));
+    return buffer.array();
+  }
+
+  /**
+   * Decodes both the binary encoding and the json one written by older versions.
+   */
+  public static RecentTransactionItem of(byte[] data) {
+    if (data == null || data.length == 0) {
+      return null;
+    }
+    if (data[0] != VERSION) {
+      return JsonUtil.json2Obj(new String(data), RecentTransactionItem.class);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(data, 1, data.length - 1);
+    long num = buffer.getLong();
+    int count = buffer.getInt();
+    List<String> ids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] bytes = new byte[buffer.get() & 0xFF];
+      buffer.get(bytes);
+      ids.add(Hex.toHexString(bytes));
+    }
+    return new RecentTransactionItem(num, ids);
+  }
 }
@@ -4,6 +4,7 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import javax.annotation.PostConstruct;
@@ -113,6 +114,10 @@ public abstract class TronDatabase<T> implements ITronChainBase<T> {
     return dbSource.prefixQuery(key);
   }
 
+  public Map<WrappedByteArray, byte[]> getData(List<byte[]> keys) {
+    return dbSource.getData(keys);
+  }
+
   public abstract boolean has(byte[] key);
 
   @Override
@@ -9,6 +9,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Paths;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import javax.annotation.PostConstruct;
@@ -29,6 +30,7 @@ import org.tron.core.db2.common.DB;
 import org.tron.core.db2.common.IRevokingDB;
 import org.tron.core.db2.common.LevelDB;
 import org.tron.core.db2.common.RocksDB;
+import org.tron.core.db2.common.WrappedByteArray;
 import org.tron.core.db2.core.Chainbase;
 import org.tron.core.db2.core.ITronChainBase;
 import org.tron.core.db2.core.RevokingDBWithCachingOldValue;
@@ -157,6 +159,23 @@ public abstract class TronStoreWithRevoking<T extends ProtoCapsule> implements I
     }
   }
 
+  /**
+   * Batched lookup returning the raw values of the keys present in the store.
+   */
+  public Map<WrappedByteArray, byte[]> getUnchecked(List<byte[]> keys) {
+    return revokingDB.getUnchecked(keys);
+  }
+
+  /**
+   * Root of the snapshot chain backing this store, null for the legacy revoking db.
+   */
+  public SnapshotRoot getSnapshotRoot() {
+    if (revokingDB instanceof Chainbase) {
+      return (SnapshotRoot) ((Chainbase) revokingDB).getHead().getRoot();
+    }
+    return null;
+  }
+
   @Override
   public T getFromRoot(byte[] key) throws ItemNotFoundException, BadItemException{
     return of(revokingDB.getFromRoot(key)) ;
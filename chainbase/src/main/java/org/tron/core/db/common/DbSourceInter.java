@@ -19,6 +19,7 @@ package org.tron.core.db.common;
 
 import org.tron.core.db2.common.WrappedByteArray;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -48,4 +49,10 @@ public interface DbSourceInter<V> extends BatchSourceInter<byte[], V>,
 
   Map<WrappedByteArray, byte[]> prefixQuery(byte[] key);
 
+  /**
+   * Reads several keys under a single lock acquisition and a consistent view of the db.
+   * Keys that are absent are left out of the result.
+   */
+  Map<WrappedByteArray, byte[]> getData(List<byte[]> keys);
+
 }
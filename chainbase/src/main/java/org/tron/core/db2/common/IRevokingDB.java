@@ -21,6 +21,8 @@ public interface IRevokingDB extends Iterable<Map.Entry<byte[], byte[]>> {
 
   byte[] getUnchecked(byte[] key);
 
+  Map<WrappedByteArray, byte[]> getUnchecked(List<byte[]> keys);
+
   void close();
 
   void reset();
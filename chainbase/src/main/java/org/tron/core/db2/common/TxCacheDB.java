@@ -3,7 +3,18 @@ package org.tron.core.db2.common;
 import com.google.common.hash.BloomFilter;
 import com.google.common.hash.Funnels;
 import com.google.common.primitives.Longs;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -17,7 +28,6 @@ import org.tron.common.prometheus.Metrics;
 import org.tron.common.storage.leveldb.LevelDbDataSourceImpl;
 import org.tron.common.storage.rocksdb.RocksDbDataSourceImpl;
 import org.tron.common.utils.ByteArray;
-import org.tron.common.utils.JsonUtil;
 import org.tron.common.utils.StorageUtils;
 import org.tron.core.capsule.BytesCapsule;
 import org.tron.core.db.RecentTransactionItem;
@@ -48,6 +58,16 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
   // record the last metric block to avoid duplication
   private long lastMetricBlock = 0;
 
+  // the filters are written to a binary file at shutdown and at flush checkpoints,
+  // a file matching the head of recent-transaction is mapped back in on start
+  private static final int FILTER_FILE_MAGIC = 0x54584346;
+  private static final int FILTER_FILE_VERSION = 1;
+  private static final long FILTER_SAVE_INTERVAL = 60 * 60 * 1000L;
+  private final Path filterFile;
+  // the newest block whose transactions are in the filters
+  private volatile long lastBlockNum = INVALID_BLOCK;
+  private long lastSaveTime = System.currentTimeMillis();
+
   private final String name;
 
   // add a persistent storage, the store name is: trans-cache
@@ -62,6 +82,8 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     this.TRANSACTION_COUNT =
         CommonParameter.getInstance().getStorage().getEstimatedBlockTransactions();
     this.recentTransactionStore = recentTransactionStore;
+    this.filterFile = Paths.get(StorageUtils.getOutputDirectoryByDbName(name),
+        CommonParameter.getInstance().getStorage().getDbDirectory(), name + ".filter");
     int dbVersion = CommonParameter.getInstance().getStorage().getDbVersion();
     String dbEngine = CommonParameter.getInstance().getStorage().getDbEngine();
     if (dbVersion == 2) {
@@ -107,6 +129,7 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
         return;
       }
       bloomFilters[1].put(entry.getKey());
+      lastBlockNum = Math.max(lastBlockNum, Longs.fromByteArray(entry.getValue()));
       persistentSize++;
     }
     logger.info("load transaction cache from persistentStore "
@@ -117,6 +140,9 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
   }
 
   private void init() {
+    if (loadFilters()) {
+      return;
+    }
     long size = recentTransactionStore.size();
     if (size != MAX_BLOCK_SIZE) {
       // 0. load from persistentStore
@@ -127,10 +153,10 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     long start = System.currentTimeMillis();
     for (Entry<byte[], BytesCapsule> bytesCapsuleEntry : recentTransactionStore) {
       byte[] data = bytesCapsuleEntry.getValue().getData();
-      RecentTransactionItem trx =
-          JsonUtil.json2Obj(new String(data), RecentTransactionItem.class);
+      RecentTransactionItem trx = RecentTransactionItem.of(data);
 
       trx.getTransactionIds().forEach(tid -> bloomFilters[1].put(Hex.decode(tid)));
+      lastBlockNum = Math.max(lastBlockNum, trx.getNum());
     }
 
     logger.info("load transaction cache from recentTransactionStore"
@@ -179,6 +205,9 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
               MAX_BLOCK_SIZE * TRANSACTION_COUNT);
     }
     bloomFilters[currentFilterIndex].put(key);
+    if (blockNum > lastBlockNum) {
+      lastBlockNum = blockNum;
+    }
 
     if (lastMetricBlock != blockNum) {
       lastMetricBlock = blockNum;
@@ -217,10 +246,14 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
   @Override
   public void flush(Map<WrappedByteArray, WrappedByteArray> batch) {
     batch.forEach((k, v) -> this.put(k.getBytes(), v.getBytes()));
+    if (System.currentTimeMillis() - lastSaveTime > FILTER_SAVE_INTERVAL) {
+      saveFilters();
+    }
   }
 
   @Override
   public void close() {
+    saveFilters();
     reset();
     bloomFilters[0] = null;
     bloomFilters[1] = null;
@@ -239,5 +272,114 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
   @Override
   public void stat() {
   }
+
+  private void saveFilters() {
+    if (lastBlockNum == INVALID_BLOCK || bloomFilters[0] == null) {
+      return;
+    }
+    long start = System.currentTimeMillis();
+    Path tmp = filterFile.resolveSibling(filterFile.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(filterFile.getParent());
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(FILTER_FILE_MAGIC);
+        out.writeInt(FILTER_FILE_VERSION);
+        out.writeLong(MAX_BLOCK_SIZE * TRANSACTION_COUNT);
+        out.writeLong(lastBlockNum);
+        out.writeLong(filterStartBlock);
+        out.writeInt(currentFilterIndex);
+        bloomFilters[0].writeTo(out);
+        bloomFilters[1].writeTo(out);
+      }
+      Files.move(tmp, filterFile, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      lastSaveTime = System.currentTimeMillis();
+      logger.info("save transaction cache filters at block {}, cost:{}ms",
+          lastBlockNum, lastSaveTime - start);
+    } catch (IOException e) {
+      logger.warn("save transaction cache filters failed: {}", e.getMessage());
+    }
+  }
+
+  private boolean loadFilters() {
+    if (!Files.exists(filterFile)) {
+      return false;
+    }
+    long start = System.currentTimeMillis();
+    try (FileChannel channel = FileChannel.open(filterFile, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != FILTER_FILE_MAGIC || buffer.getInt() != FILTER_FILE_VERSION
+          || buffer.getLong() != MAX_BLOCK_SIZE * TRANSACTION_COUNT) {
+        logger.info("transaction cache filters file {} is incompatible, rebuild", filterFile);
+        return false;
+      }
+      long blockNum = buffer.getLong();
+      long startBlock = buffer.getLong();
+      int index = buffer.getInt();
+      if (!isRecentHead(blockNum)) {
+        logger.info("transaction cache filters file at block {} is stale, rebuild", blockNum);
+        return false;
+      }
+      InputStream in = new ByteBufferInputStream(buffer);
+      BloomFilter<byte[]> filter0 = BloomFilter.readFrom(in, Funnels.byteArrayFunnel());
+      BloomFilter<byte[]> filter1 = BloomFilter.readFrom(in, Funnels.byteArrayFunnel());
+      bloomFilters[0] = filter0;
+      bloomFilters[1] = filter1;
+      filterStartBlock = startBlock;
+      currentFilterIndex = index;
+      lastBlockNum = blockNum;
+      logger.info("load transaction cache filters from {} at block {}, cost:{}ms",
+          filterFile, blockNum, System.currentTimeMillis() - start);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("load transaction cache filters failed, rebuild: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * recent-transaction holds one item per block in a ring of MAX_BLOCK_SIZE slots, the
+   * filters are current when their last block is the newest item of the ring.
+   */
+  private boolean isRecentHead(long blockNum) {
+    if (blockNum == INVALID_BLOCK) {
+      return false;
+    }
+    RecentTransactionItem head = getRecentItem(blockNum);
+    RecentTransactionItem next = getRecentItem(blockNum + 1);
+    return head != null && head.getNum() == blockNum
+        && (next == null || next.getNum() != blockNum + 1);
+  }
+
+  private RecentTransactionItem getRecentItem(long blockNum) {
+    BytesCapsule item = recentTransactionStore.getUnchecked(
+        ByteArray.subArray(ByteArray.fromLong(blockNum), 6, 8));
+    return item == null || item.getData() == null ? null : RecentTransactionItem.of(item.getData());
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+  }
 }
 
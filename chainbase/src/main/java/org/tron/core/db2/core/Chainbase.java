@@ -67,7 +67,7 @@ public class Chainbase implements IRevokingDB {
     }
   }
 
-  private Snapshot head() {
+  Snapshot head() {
     if (cursor.get() == null) {
       return head;
     }
@@ -100,6 +100,21 @@ public class Chainbase implements IRevokingDB {
     return head();
   }
 
+  /**
+   * the speculation of the current thread, only the head cursor is speculated on.
+   */
+  private Speculation speculation() {
+    Speculation speculation = Speculation.current();
+    return speculation != null && getCursor() == Cursor.HEAD ? speculation : null;
+  }
+
+  private void checkRange() {
+    Speculation speculation = speculation();
+    if (speculation != null) {
+      speculation.checkRange(this);
+    }
+  }
+
   public synchronized void setHead(Snapshot head) {
     this.head = head;
   }
@@ -121,11 +136,21 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public synchronized void put(byte[] key, byte[] value) {
+    Speculation speculation = speculation();
+    if (speculation != null) {
+      speculation.put(this, key, value);
+      return;
+    }
     head().put(key, value);
   }
 
   @Override
   public synchronized void delete(byte[] key) {
+    Speculation speculation = speculation();
+    if (speculation != null) {
+      speculation.put(this, key, null);
+      return;
+    }
     head().remove(key);
   }
 
@@ -150,9 +175,32 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public byte[] getUnchecked(byte[] key) {
+    Speculation speculation = speculation();
+    if (speculation != null) {
+      return speculation.get(this, key);
+    }
     return head().get(key);
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getUnchecked(List<byte[]> keys) {
+    if (speculation() != null) {
+      Map<WrappedByteArray, byte[]> result = new HashMap<>();
+      for (byte[] key : keys) {
+        byte[] value = getUnchecked(key);
+        if (value != null) {
+          result.put(WrappedByteArray.of(key), value);
+        }
+      }
+      return result;
+    }
+    Snapshot snapshot = head();
+    if (Snapshot.isImpl(snapshot)) {
+      return ((SnapshotImpl) snapshot).get(keys);
+    }
+    return ((SnapshotRoot) snapshot.getRoot()).get(keys);
+  }
+
   @Override
   public boolean has(byte[] key) {
     return getUnchecked(key) != null;
@@ -160,11 +208,13 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public synchronized Iterator<Map.Entry<byte[], byte[]>> iterator() {
+    checkRange();
     return head().iterator();
   }
 
   @Override
   public Set<byte[]> getValuesNext(byte[] key, long limit) {
+    checkRange();
     return getValuesNext(head(), key, limit);
   }
 
@@ -206,6 +256,7 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public List<byte[]> getKeysNext(byte[] key, long limit) {
+    checkRange();
     return getKeysNext(head(), key, limit);
   }
 
@@ -275,6 +326,7 @@ public class Chainbase implements IRevokingDB {
   // for blockstore
   @Override
   public Set<byte[]> getlatestValues(long limit) {
+    checkRange();
     return getlatestValues(head(), limit);
   }
 
@@ -311,6 +363,7 @@ public class Chainbase implements IRevokingDB {
   // for accout-trace
   @Override
   public Map<byte[], byte[]> getNext(byte[] key, long limit) {
+    checkRange();
     return getNext(head(), key, limit);
   }
 
@@ -350,6 +403,7 @@ public class Chainbase implements IRevokingDB {
   }
 
   public Map<WrappedByteArray, byte[]> prefixQuery(byte[] key) {
+    checkRange();
     Map<WrappedByteArray, byte[]> result = prefixQueryRoot(key);
     Map<WrappedByteArray, byte[]>  snapshot = prefixQuerySnapshot(key);
     result.putAll(snapshot);
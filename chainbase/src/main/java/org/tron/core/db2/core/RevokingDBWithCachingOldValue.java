@@ -107,6 +107,11 @@ public class RevokingDBWithCachingOldValue implements IRevokingDB {
     }
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getUnchecked(List<byte[]> keys) {
+    return dbSource.getData(keys);
+  }
+
   @Override
   public void close() {
     dbSource.closeDB();
@@ -5,9 +5,11 @@ import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
 import com.google.common.primitives.Bytes;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -22,9 +24,12 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
 
   @Getter
   protected Snapshot root;
+  // creation order within the chain, a layer always sits above the older ones
+  private final long seq;
 
   SnapshotImpl(Snapshot snapshot) {
     root = snapshot.getRoot();
+    seq = ((SnapshotRoot) root).nextLayerSeq();
     synchronized (this) {
       db = new HashDB(SnapshotImpl.class.getSimpleName() + ":" + root.getDbName());
     }
@@ -47,22 +52,74 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
     return get(this, key);
   }
 
+  /**
+   * Resolves the keys against the in-memory layers first, the keys that fall
+   * through every layer are read from the root in one batch.
+   */
+  public Map<WrappedByteArray, byte[]> get(List<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keys.size() << 1);
+    List<byte[]> missing = new ArrayList<>();
+    for (byte[] key : keys) {
+      Value value = isOptimized ? db.get(Key.of(key)) : lookup(key);
+      if (value == null) {
+        if (!isOptimized) {
+          missing.add(key);
+        }
+      } else if (value.getBytes() != null) {
+        result.put(WrappedByteArray.of(key), value.getBytes());
+      }
+    }
+    if (!missing.isEmpty()) {
+      result.putAll(((SnapshotRoot) getRoot()).get(missing));
+    }
+    return result;
+  }
+
   private byte[] get(Snapshot head, byte[] key) {
-    Snapshot snapshot = head;
     Value value;
     if (isOptimized) {
       value = db.get(Key.of(key));
       return value == null ? null: value.getBytes();
     }
+    value = ((SnapshotImpl) head).lookup(key);
+    return value == null ? root.get(key) : value.getBytes();
+  }
+
+  /**
+   * Newest value of the key in this layer or below it, null when no layer holds it.
+   * The index knows the newest layer of every key, it is the answer whenever that
+   * layer is not above this one; otherwise the chain is walked as before.
+   */
+  private Value lookup(byte[] key) {
+    Key k = Key.of(key);
+    SnapshotImpl layer = layers().get(WrappedByteArray.of(key));
+    if (layer == null) {
+      return null;
+    }
+    Value value;
+    if (layer.seq <= seq && (value = layer.db.get(k)) != null) {
+      return value;
+    }
+    Snapshot snapshot = this;
     while (Snapshot.isImpl(snapshot)) {
-      if ((value = ((SnapshotImpl) snapshot).db.get(Key.of(key))) != null) {
-        return value.getBytes();
+      if ((value = ((SnapshotImpl) snapshot).db.get(k)) != null) {
+        return value;
       }
-
       snapshot = snapshot.getPrevious();
     }
+    return null;
+  }
+
+  private Map<WrappedByteArray, SnapshotImpl> layers() {
+    return ((SnapshotRoot) root).layers;
+  }
 
-    return snapshot == null ? null : snapshot.get(key);
+  private void track(byte[] key) {
+    if (isOptimized) {
+      return;
+    }
+    layers().merge(WrappedByteArray.copyOf(key), this,
+        (older, newer) -> older.seq > newer.seq ? older : newer);
   }
 
   @Override
@@ -71,12 +128,14 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
     Preconditions.checkNotNull(value, "value in db is not null.");
 
     db.put(Key.copyOf(key), Value.copyOf(Value.Operator.PUT, value));
+    track(key);
   }
 
   @Override
   public void remove(byte[] key) {
     Preconditions.checkNotNull(key, "key in db is not null.");
     db.put(Key.of(key), Value.of(Value.Operator.DELETE, null));
+    track(key);
   }
 
   // we have a 3x3 matrix of all possibilities when merging previous snapshot and current snapshot :
@@ -94,11 +153,38 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
   @Override
   public void merge(Snapshot from) {
     SnapshotImpl fromImpl = (SnapshotImpl) from;
-    Streams.stream(fromImpl.db).forEach(e -> db.put(e.getKey(), e.getValue()));
+    Streams.stream(fromImpl.db).forEach(e -> {
+      db.put(e.getKey(), e.getValue());
+      if (!isOptimized) {
+        layers().replace(WrappedByteArray.of(e.getKey().getBytes()), fromImpl, this);
+      }
+    });
   }
 
+  /**
+   * The layer leaves the chain, the keys it was the newest layer for are pointed
+   * at the next older layer holding them, or dropped when none does.
+   */
   @Override
   public Snapshot retreat() {
+    if (!isOptimized) {
+      Map<WrappedByteArray, SnapshotImpl> layers = layers();
+      db.forEach(e -> {
+        WrappedByteArray key = WrappedByteArray.of(e.getKey().getBytes());
+        if (layers.get(key) != this) {
+          return;
+        }
+        Snapshot older = previous;
+        while (Snapshot.isImpl(older) && ((SnapshotImpl) older).db.get(e.getKey()) == null) {
+          older = older.getPrevious();
+        }
+        if (Snapshot.isImpl(older)) {
+          layers.replace(key, this, (SnapshotImpl) older);
+        } else {
+          layers.remove(key, this);
+        }
+      });
+    }
     return previous;
   }
 
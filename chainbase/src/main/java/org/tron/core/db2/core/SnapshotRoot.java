@@ -1,19 +1,31 @@
 package org.tron.core.db2.core;
 
 import ch.qos.logback.core.encoder.ByteArrayUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import lombok.Getter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
 import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.StorageUtils;
 import org.tron.core.ChainBaseManager;
 import org.tron.core.capsule.AccountCapsule;
 import org.tron.core.db2.common.DB;
 import org.tron.core.db2.common.Flusher;
+import org.tron.core.db2.common.LevelDB;
+import org.tron.core.db2.common.RocksDB;
 import org.tron.core.db2.common.WrappedByteArray;
 import org.tron.core.store.AccountAssetStore;
 
@@ -23,11 +35,39 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
   private Snapshot solidity;
   private boolean isAccountDB;
 
+  // raw values in front of the db, null when no readCacheSize is configured for this db
+  private final Cache<WrappedByteArray, byte[]> cache;
+  // values read ahead of block execution, only consulted while a prefetch window is open
+  private volatile Map<WrappedByteArray, byte[]> prefetched;
+  // bumped under the lock on every write, values read before a write are not kept
+  private final Object lock = new Object();
+  private volatile long generation;
+  private final AtomicLong prefetchReads = new AtomicLong();
+  private final AtomicLong prefetchHits = new AtomicLong();
+  // newest layer above this root holding each key, a key missing here is in no layer
+  final Map<WrappedByteArray, SnapshotImpl> layers = new ConcurrentHashMap<>();
+  private final AtomicLong layerSeq = new AtomicLong();
+
   public SnapshotRoot(DB<byte[], byte[]> db) {
     this.db = db;
     solidity = this;
     isOptimized = "properties".equalsIgnoreCase(db.getDbName());
     isAccountDB = "account".equalsIgnoreCase(db.getDbName());
+    cache = newCache(db.getDbName());
+  }
+
+  private static Cache<WrappedByteArray, byte[]> newCache(String dbName) {
+    int size = StorageUtils.getReadCacheSizeByDbName(dbName);
+    if (size <= 0) {
+      return null;
+    }
+    return CacheBuilder.newBuilder().maximumSize(size)
+        .<WrappedByteArray, byte[]>removalListener(n -> {
+          if (n.getCause() == RemovalCause.SIZE) {
+            Metrics.counterInc(MetricKeys.Counter.DB_CACHE, 1, dbName,
+                MetricLabels.Counter.DB_CACHE_EVICTION);
+          }
+        }).build();
   }
 
   private boolean needOptAsset() {
@@ -37,7 +77,85 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
 
   @Override
   public byte[] get(byte[] key) {
-    return db.get(key);
+    Map<WrappedByteArray, byte[]> warm = prefetched;
+    if (warm != null) {
+      prefetchReads.incrementAndGet();
+      byte[] value = warm.get(WrappedByteArray.of(key));
+      if (value != null) {
+        prefetchHits.incrementAndGet();
+        return value.clone();
+      }
+    }
+    if (cache == null) {
+      return db.get(key);
+    }
+    byte[] value = cache.getIfPresent(WrappedByteArray.of(key));
+    if (value != null) {
+      Metrics.counterInc(MetricKeys.Counter.DB_CACHE, 1, getDbName(),
+          MetricLabels.Counter.DB_CACHE_HIT);
+      return value.clone();
+    }
+    Metrics.counterInc(MetricKeys.Counter.DB_CACHE, 1, getDbName(),
+        MetricLabels.Counter.DB_CACHE_MISS);
+    long start = generation;
+    value = db.get(key);
+    if (value != null) {
+      synchronized (lock) {
+        if (start == generation) {
+          cache.put(WrappedByteArray.copyOf(key), value.clone());
+        }
+      }
+    }
+    return value;
+  }
+
+  public Map<WrappedByteArray, byte[]> get(List<byte[]> keys) {
+    if (cache == null) {
+      return getFromDb(keys);
+    }
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keys.size() << 1);
+    List<byte[]> missing = new ArrayList<>();
+    for (byte[] key : keys) {
+      byte[] value = cache.getIfPresent(WrappedByteArray.of(key));
+      if (value != null) {
+        result.put(WrappedByteArray.of(key), value.clone());
+      } else {
+        missing.add(key);
+      }
+    }
+    Metrics.counterInc(MetricKeys.Counter.DB_CACHE, result.size(), getDbName(),
+        MetricLabels.Counter.DB_CACHE_HIT);
+    if (missing.isEmpty()) {
+      return result;
+    }
+    Metrics.counterInc(MetricKeys.Counter.DB_CACHE, missing.size(), getDbName(),
+        MetricLabels.Counter.DB_CACHE_MISS);
+    long start = generation;
+    Map<WrappedByteArray, byte[]> loaded = getFromDb(missing);
+    synchronized (lock) {
+      if (start == generation) {
+        loaded.forEach((k, v) -> cache.put(WrappedByteArray.copyOf(k.getBytes()), v.clone()));
+      }
+    }
+    result.putAll(loaded);
+    return result;
+  }
+
+  private Map<WrappedByteArray, byte[]> getFromDb(List<byte[]> keys) {
+    if (db.getClass() == LevelDB.class) {
+      return ((LevelDB) db).getDb().getData(keys);
+    }
+    if (db.getClass() == RocksDB.class) {
+      return ((RocksDB) db).getDb().getData(keys);
+    }
+    Map<WrappedByteArray, byte[]> result = new HashMap<>();
+    for (byte[] key : keys) {
+      byte[] value = db.get(key);
+      if (value != null) {
+        result.put(WrappedByteArray.of(key), value);
+      }
+    }
+    return result;
   }
 
   @Override
@@ -60,6 +178,7 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
     } else {
       db.put(key, value);
     }
+    invalidate(key);
   }
 
   @Override
@@ -68,6 +187,7 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
       ChainBaseManager.getInstance().getAccountAssetStore().deleteAccount(key);
     }
     db.remove(key);
+    invalidate(key);
   }
 
   @Override
@@ -78,10 +198,12 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
             WrappedByteArray.of(e.getValue().getBytes())))
         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     if (needOptAsset()) {
-      processAccount(batch);
+      refresh(processAccount(batch));
     } else {
       ((Flusher) db).flush(batch);
+      refresh(batch);
     }
+    untrack(snapshot);
   }
 
   public void merge(List<Snapshot> snapshots) {
@@ -94,13 +216,29 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
           .forEach(e -> batch.put(e.getKey(), e.getValue()));
     }
     if (needOptAsset()) {
-      processAccount(batch);
+      refresh(processAccount(batch));
     } else {
       ((Flusher) db).flush(batch);
+      refresh(batch);
     }
+    snapshots.forEach(this::untrack);
+  }
+
+  long nextLayerSeq() {
+    return layerSeq.incrementAndGet();
+  }
+
+  /**
+   * Drops the index entries of a layer that has been flushed, the root now holds
+   * the values of the keys no newer layer shadows.
+   */
+  private void untrack(Snapshot snapshot) {
+    SnapshotImpl layer = (SnapshotImpl) snapshot;
+    layer.db.forEach(e -> layers.remove(WrappedByteArray.of(e.getKey().getBytes()), layer));
   }
 
-  private void processAccount(Map<WrappedByteArray, WrappedByteArray> batch) {
+  private Map<WrappedByteArray, WrappedByteArray> processAccount(
+      Map<WrappedByteArray, WrappedByteArray> batch) {
     AccountAssetStore assetStore = ChainBaseManager.getInstance().getAccountAssetStore();
     Map<WrappedByteArray, WrappedByteArray> accounts = new HashMap<>();
     Map<WrappedByteArray, WrappedByteArray> assets = new HashMap<>();
@@ -123,6 +261,97 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
     if (assets.size() > 0) {
       assetStore.updateByBatch(AccountAssetStore.convert(assets));
     }
+    return accounts;
+  }
+
+  /**
+   * Opens a prefetch window, values loaded by {@link #prefetch(List)} are served to
+   * {@link #get(byte[])} until {@link #stopPrefetch()} is called.
+   */
+  public void startPrefetch() {
+    synchronized (lock) {
+      prefetched = new ConcurrentHashMap<>();
+      prefetchReads.set(0);
+      prefetchHits.set(0);
+    }
+  }
+
+  /**
+   * Loads the keys from the db into the open prefetch window. Values read before a
+   * concurrent write to this root are dropped, so a stale value is never served.
+   */
+  public void prefetch(List<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> warm = prefetched;
+    if (warm == null || keys.isEmpty()) {
+      return;
+    }
+    long start = generation;
+    Map<WrappedByteArray, byte[]> values = get(keys);
+    synchronized (lock) {
+      if (start == generation && warm == prefetched) {
+        warm.putAll(values);
+      }
+    }
+  }
+
+  public void stopPrefetch() {
+    synchronized (lock) {
+      prefetched = null;
+    }
+  }
+
+  public long getPrefetchReads() {
+    return prefetchReads.get();
+  }
+
+  public long getPrefetchHits() {
+    return prefetchHits.get();
+  }
+
+  private void invalidate(byte[] key) {
+    synchronized (lock) {
+      generation++;
+      if (prefetched != null) {
+        prefetched.clear();
+      }
+      if (cache != null) {
+        cache.invalidate(WrappedByteArray.of(key));
+      }
+    }
+  }
+
+  /**
+   * Writes the flushed values through to the cache, in the same critical section that
+   * discards the reads which started before the flush.
+   */
+  private void refresh(Map<WrappedByteArray, WrappedByteArray> batch) {
+    synchronized (lock) {
+      generation++;
+      if (prefetched != null) {
+        prefetched.clear();
+      }
+      if (cache != null) {
+        batch.forEach((k, v) -> {
+          if (ByteArray.isEmpty(v.getBytes())) {
+            cache.invalidate(k);
+          } else {
+            cache.put(k, v.getBytes().clone());
+          }
+        });
+      }
+    }
+  }
+
+  private void invalidateAll() {
+    synchronized (lock) {
+      generation++;
+      if (prefetched != null) {
+        prefetched.clear();
+      }
+      if (cache != null) {
+        cache.invalidateAll();
+      }
+    }
   }
 
   @Override
@@ -148,6 +377,8 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
   @Override
   public void reset() {
     ((Flusher) db).reset();
+    invalidateAll();
+    layers.clear();
   }
 
   @Override
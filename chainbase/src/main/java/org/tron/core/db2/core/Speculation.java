@@ -0,0 +1,95 @@
+package org.tron.core.db2.core;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import org.tron.core.db2.common.WrappedByteArray;
+
+/**
+ * Isolates the database access of the current thread. While a speculation is active every
+ * {@link Chainbase} read from the head is recorded with the value it returned, and every
+ * write is buffered here instead of reaching the head, so a transaction can be executed
+ * against the state of the head without changing it. A write-through speculation writes to
+ * the head as well and is only used to learn which keys a transaction wrote.
+ *
+ * <p>Range reads can not be recorded key by key, they abort a buffering speculation.
+ */
+public class Speculation {
+
+  private static final ThreadLocal<Speculation> CURRENT = new ThreadLocal<>();
+
+  private final boolean writeThrough;
+  // the first value read from the head per key, a wrapped null for a missing key
+  @Getter
+  private final Map<Chainbase, Map<WrappedByteArray, WrappedByteArray>> reads = new HashMap<>();
+  // the last value written per key in write order, a wrapped null for a delete
+  @Getter
+  private final Map<Chainbase, Map<WrappedByteArray, WrappedByteArray>> writes = new HashMap<>();
+  @Getter
+  private boolean aborted;
+
+  private Speculation(boolean writeThrough) {
+    this.writeThrough = writeThrough;
+  }
+
+  public static Speculation current() {
+    return CURRENT.get();
+  }
+
+  public static Speculation start(boolean writeThrough) {
+    if (CURRENT.get() != null) {
+      throw new IllegalStateException("speculation already active");
+    }
+    Speculation speculation = new Speculation(writeThrough);
+    CURRENT.set(speculation);
+    return speculation;
+  }
+
+  public void stop() {
+    if (CURRENT.get() == this) {
+      CURRENT.remove();
+    }
+  }
+
+  byte[] get(Chainbase db, byte[] key) {
+    WrappedByteArray k = WrappedByteArray.of(key);
+    Map<WrappedByteArray, WrappedByteArray> written = writes.get(db);
+    if (written != null) {
+      WrappedByteArray value = written.get(k);
+      if (value != null) {
+        return value.getBytes();
+      }
+    }
+    byte[] value = db.head().get(key);
+    reads.computeIfAbsent(db, d -> new HashMap<>())
+        .putIfAbsent(WrappedByteArray.copyOf(key), WrappedByteArray.of(value));
+    return value;
+  }
+
+  void put(Chainbase db, byte[] key, byte[] value) {
+    writes.computeIfAbsent(db, d -> new LinkedHashMap<>())
+        .put(WrappedByteArray.copyOf(key), WrappedByteArray.copyOf(value));
+    if (writeThrough) {
+      if (value == null) {
+        db.head().remove(key);
+      } else {
+        db.head().put(key, value);
+      }
+    }
+  }
+
+  void checkRange(Chainbase db) {
+    if (!writeThrough) {
+      aborted = true;
+      throw new AbortedException("range read on " + db.getDbName());
+    }
+  }
+
+  public static class AbortedException extends RuntimeException {
+
+    public AbortedException(String message) {
+      super(message);
+    }
+  }
+}
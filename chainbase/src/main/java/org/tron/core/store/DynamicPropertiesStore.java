@@ -2,6 +2,7 @@ package org.tron.core.store;
 
 import com.google.protobuf.ByteString;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.IntStream;
 import lombok.Getter;
@@ -2286,6 +2287,14 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
     this.put(BURN_TRX_AMOUNT, new BytesCapsule(ByteArray.fromLong(amount)));
   }
 
+  /**
+   * Keys that transactions only read to add to them, their order within a block does not
+   * change the sum written at its end.
+   */
+  public static List<byte[]> getAccumulatorKeys() {
+    return Arrays.asList(DynamicResourceProperties.BLOCK_ENERGY_USAGE, BURN_TRX_AMOUNT);
+  }
+
   public boolean supportBlackHoleOptimization() {
     return getAllowBlackHoleOptimization() == 1L;
   }
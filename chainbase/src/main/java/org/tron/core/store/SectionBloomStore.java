@@ -2,8 +2,14 @@ package org.tron.core.store;
 
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -11,12 +17,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.tron.common.bloom.Bloom;
+import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.ByteUtil;
 import org.tron.core.capsule.BytesCapsule;
 import org.tron.core.capsule.TransactionRetCapsule;
 import org.tron.core.db.TronStoreWithRevoking;
+import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.EventBloomException;
 
+/**
+ * The bloom bits of every 2048 blocks, a bitset of the blocks per bloom bit and section.
+ *
+ * <p>The bits of new blocks are kept in memory and a section is compressed and written once
+ * the chain has moved past it, in the session of the block that moved past it. A section stays
+ * in memory until that block is solidified, so the bits survive the block being revoked, and
+ * the bits of blocks that are revoked are dropped when a block of their number is written
+ * again. Until then a query may see them, a false positive the log matching filters out. On
+ * startup the section of the head block is rebuilt from the transaction results.
+ */
 @Slf4j(topic = "DB")
 @Component
 public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
@@ -24,6 +42,19 @@ public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
   public static final int BLOCK_PER_SECTION = 2048;
   private List<Integer> bitList;
 
+  // the bits of the blocks not yet persisted, or persisted by a block not yet solidified
+  private final TreeMap<Long, int[]> pending = new TreeMap<>();
+  // the pending bits per section and bit index, uncompressed
+  private final Map<Integer, Map<Integer, BitSet>> buffer = new HashMap<>();
+  // the block in whose session a section was persisted
+  private final Map<Integer, Long> persistedBy = new HashMap<>();
+
+  @Autowired
+  private DynamicPropertiesStore dynamicPropertiesStore;
+
+  @Autowired
+  private TransactionRetStore transactionRetStore;
+
   @Autowired
   public SectionBloomStore(@Value("section-bloom") String dbName) {
     super(dbName);
@@ -50,6 +81,18 @@ public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
   }
 
   public BitSet get(int section, int bitIndex) throws EventBloomException {
+    BitSet bitSet = getPersisted(section, bitIndex);
+    BitSet buffered = getBuffered(section, bitIndex);
+    if (buffered == null) {
+      return bitSet;
+    }
+    if (bitSet != null) {
+      buffered.or(bitSet);
+    }
+    return buffered;
+  }
+
+  private BitSet getPersisted(int section, int bitIndex) throws EventBloomException {
     long keyLong = combineKey(section, bitIndex);
     byte[] key = Long.toHexString(keyLong).getBytes();
     BytesCapsule bytesCapsule = get(key);
@@ -65,6 +108,12 @@ public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
     return BitSet.valueOf(data);
   }
 
+  private synchronized BitSet getBuffered(int section, int bitIndex) {
+    Map<Integer, BitSet> bits = buffer.get(section);
+    BitSet bitSet = bits == null ? null : bits.get(bitIndex);
+    return bitSet == null ? null : (BitSet) bitSet.clone();
+  }
+
   public void put(int section, int bitIndex, BitSet bitSet) throws EventBloomException {
     long keyLong = combineKey(section, bitIndex);
     byte[] key = Long.toHexString(keyLong).getBytes();
@@ -80,36 +129,116 @@ public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
       return null;
     }
 
-    bitList = new ArrayList<>();
-    BitSet bs = BitSet.valueOf(blockBloom.getData());
+    bitList = bitsOf(blockBloom);
+    return blockBloom;
+  }
+
+  private static List<Integer> bitsOf(Bloom bloom) {
+    List<Integer> bits = new ArrayList<>();
+    BitSet bs = BitSet.valueOf(bloom.getData());
     for (int i = bs.nextSetBit(0); i >= 0; i = bs.nextSetBit(i + 1)) {
       // operate on index i here
       if (i == Integer.MAX_VALUE) {
         break; // or (i+1) would overflow
       }
-      bitList.add(i);
+      bits.add(i);
     }
+    return bits;
+  }
 
-    return blockBloom;
+  private static int sectionOf(long blockNum) {
+    return (int) (blockNum / BLOCK_PER_SECTION);
+  }
+
+  public synchronized void write(long blockNum) throws EventBloomException {
+    // a block of this number was written before, it and the blocks after it were revoked
+    revoke(blockNum);
+    if (!CollectionUtils.isEmpty(bitList)) {
+      add(blockNum, bitList.stream().mapToInt(Integer::intValue).toArray());
+    }
+    persist(sectionOf(blockNum), blockNum);
+    release(getSolidBlockNum());
   }
 
-  public void write(long blockNum) throws EventBloomException {
-    if (CollectionUtils.isEmpty(bitList)) {
-      return;
+  private long getSolidBlockNum() {
+    try {
+      return dynamicPropertiesStore.getLatestSolidifiedBlockNum();
+    } catch (IllegalArgumentException e) {
+      return -1;
     }
+  }
 
-    int section = (int) (blockNum / BLOCK_PER_SECTION);
+  /**
+   * rebuilds the pending bits of the section of the head block, which are only kept in memory.
+   */
+  public synchronized void recover(long headNum) {
+    for (long num = (long) sectionOf(headNum) * BLOCK_PER_SECTION; num <= headNum; num++) {
+      try {
+        Bloom bloom = Bloom.createBloom(
+            transactionRetStore.getTransactionInfoByBlockNum(ByteArray.fromLong(num)));
+        if (bloom != null) {
+          add(num, bitsOf(bloom).stream().mapToInt(Integer::intValue).toArray());
+        }
+      } catch (BadItemException e) {
+        logger.warn("Recover section bloom of block {} failed, {}.", num, e.getMessage());
+      }
+    }
+  }
+
+  private void add(long blockNum, int[] bits) {
+    pending.put(blockNum, bits);
+    Map<Integer, BitSet> section = buffer.computeIfAbsent(sectionOf(blockNum),
+        k -> new HashMap<>());
     int blockNumOffset = (int) (blockNum % BLOCK_PER_SECTION);
-    for (int bitIndex : bitList) {
-      // get first from leveldb
-      BitSet bitSet = get(section, bitIndex);
-      if (Objects.isNull(bitSet)) {
-        bitSet = new BitSet(BLOCK_PER_SECTION);
+    for (int bitIndex : bits) {
+      section.computeIfAbsent(bitIndex, k -> new BitSet(BLOCK_PER_SECTION)).set(blockNumOffset);
+    }
+  }
+
+  private void revoke(long blockNum) {
+    SortedMap<Long, int[]> revoked = pending.tailMap(blockNum);
+    if (!revoked.isEmpty()) {
+      Set<Integer> sections = new HashSet<>();
+      revoked.keySet().forEach(num -> sections.add(sectionOf(num)));
+      revoked.clear();
+      for (int section : sections) {
+        buffer.remove(section);
+        long first = (long) section * BLOCK_PER_SECTION;
+        new ArrayList<>(pending.subMap(first, first + BLOCK_PER_SECTION).entrySet())
+            .forEach(entry -> add(entry.getKey(), entry.getValue()));
       }
-      // update
-      bitSet.set(blockNumOffset);
-      // put into leveldb
-      put(section, bitIndex, bitSet);
     }
+    // the writes of a revoked block are gone, the section has to be persisted again
+    persistedBy.values().removeIf(num -> num >= blockNum);
+  }
+
+  private void persist(int currentSection, long blockNum) throws EventBloomException {
+    for (Map.Entry<Integer, Map<Integer, BitSet>> entry : buffer.entrySet()) {
+      int section = entry.getKey();
+      if (section >= currentSection || persistedBy.containsKey(section)) {
+        continue;
+      }
+      for (Map.Entry<Integer, BitSet> bits : entry.getValue().entrySet()) {
+        BitSet bitSet = (BitSet) bits.getValue().clone();
+        BitSet persisted = getPersisted(section, bits.getKey());
+        if (persisted != null) {
+          bitSet.or(persisted);
+        }
+        put(section, bits.getKey(), bitSet);
+      }
+      persistedBy.put(section, blockNum);
+    }
+  }
+
+  private void release(long solidBlockNum) {
+    persistedBy.entrySet().removeIf(entry -> {
+      if (entry.getValue() > solidBlockNum) {
+        return false;
+      }
+      long first = (long) entry.getKey() * BLOCK_PER_SECTION;
+      pending.subMap(first, first + BLOCK_PER_SECTION).clear();
+      buffer.remove(entry.getKey());
+      return true;
+    });
   }
 }
@@ -39,6 +39,25 @@ public class EventPluginConfig {
   @Setter
   private int sendQueueLength;
 
+  // json, or protobuf for the messages of EventTrigger.proto
+  @Getter
+  @Setter
+  private String encoding;
+
+  // the workers preparing the triggers before they are delivered in order
+  @Getter
+  @Setter
+  private int pipelineThreads;
+
+  // the triggers waiting for delivery, 0 for no limit
+  @Getter
+  @Setter
+  private int pipelineQueueSize;
+
+  // drop, or block to hold up block processing while the queue is full
+  @Getter
+  @Setter
+  private String pipelineFullPolicy;
 
   @Getter
   @Setter
@@ -51,6 +70,10 @@ public class EventPluginConfig {
     useNativeQueue = false;
     bindPort = 0;
     sendQueueLength = 0;
+    encoding = "json";
+    pipelineThreads = Runtime.getRuntime().availableProcessors();
+    pipelineQueueSize = 0;
+    pipelineFullPolicy = "drop";
     triggerConfigList = new ArrayList<>();
   }
 }
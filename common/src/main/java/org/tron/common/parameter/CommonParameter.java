@@ -242,6 +242,21 @@ public class CommonParameter {
   public int validateSignThreadNum;
   @Getter
   @Setter
+  public int signatureCacheSize = 100_000;
+  @Getter
+  @Setter
+  public int blockPrefetchThreadNum = 2;
+  @Getter
+  @Setter
+  public int parallelExecutionThreadNum = 0;
+  @Getter
+  @Setter
+  public boolean parallelExecutionVerify = false;
+  @Getter
+  @Setter
+  public boolean compactRelay = false;
+  @Getter
+  @Setter
   public long maintenanceTimeInterval; // (ms)
   @Getter
   @Setter
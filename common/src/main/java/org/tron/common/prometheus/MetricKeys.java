@@ -17,6 +17,10 @@ public class MetricKeys {
     public static final String P2P_ERROR = "tron:p2p_error";
     public static final String P2P_DISCONNECT = "tron:p2p_disconnect";
     public static final String INTERNAL_SERVICE_FAIL = "tron:internal_service_fail";
+    public static final String SIGNATURE_CACHE = "tron:signature_cache";
+    public static final String JUMPDEST_CACHE = "tron:jumpdest_cache";
+    public static final String DB_CACHE = "tron:db_cache";
+    public static final String PARALLEL_EXECUTION = "tron:parallel_execution";
 
     private Counter() {
       throw new IllegalStateException("Counter");
@@ -33,6 +37,10 @@ public class MetricKeys {
     public static final String DB_SST_LEVEL = "tron:db_sst_level";
     public static final String MANAGER_QUEUE = "tron:manager_queue_size";
     public static final String TX_CACHE = "tron:tx_cache";
+    public static final String JUMPDEST_CACHE_SIZE = "tron:jumpdest_cache_size";
+    public static final String BLOCK_PREFETCH_HIT_RATIO = "tron:block_prefetch_hit_ratio";
+    public static final String PEER_SEND_QUEUE = "tron:peer_send_queue";
+    public static final String TRX_HANDLER_QUEUE = "tron:trx_handler_queue";
 
     private Gauge() {
       throw new IllegalStateException("Gauge");
@@ -58,6 +66,8 @@ public class MetricKeys {
     public static final String TCP_BYTES = "tron:tcp_bytes";
     public static final String HTTP_BYTES = "tron:http_bytes";
     public static final String INTERNAL_SERVICE_LATENCY = "tron:internal_service_latency_seconds";
+    public static final String TRX_HANDLER_LATENCY = "tron:trx_handler_latency_seconds";
+    public static final String TRIGGER_DELAY = "tron:trigger_delay_seconds";
 
     private Histogram() {
       throw new IllegalStateException("Histogram");
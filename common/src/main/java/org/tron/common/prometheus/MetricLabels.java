@@ -31,6 +31,17 @@ public class MetricLabels {
     public static final String TXS_FAIL_SIG = "sig";
     public static final String TXS_FAIL_TAPOS = "tapos";
     public static final String TXS_FAIL_DUP = "dup";
+    public static final String TXS_FAIL_EVICTED = "evicted";
+    public static final String SIGNATURE_CACHE_HIT = "hit";
+    public static final String SIGNATURE_CACHE_MISS = "miss";
+    public static final String JUMPDEST_CACHE_HIT = "hit";
+    public static final String JUMPDEST_CACHE_MISS = "miss";
+    public static final String DB_CACHE_HIT = "hit";
+    public static final String DB_CACHE_MISS = "miss";
+    public static final String DB_CACHE_EVICTION = "eviction";
+    public static final String PARALLEL_COMMITTED = "committed";
+    public static final String PARALLEL_REEXECUTED = "reexecuted";
+    public static final String PARALLEL_MISMATCH = "mismatch";
 
     private Counter() {
       throw new IllegalStateException("Counter");
@@ -49,6 +60,8 @@ public class MetricLabels {
 
     public static final String QUEUE_QUEUED = "queued";
 
+    public static final String QUEUE_TRIGGER = "trigger";
+
     public static final String PEERS_ACTIVE = "active";
 
     public static final String PEERS_PASSIVE = "passive";
@@ -57,6 +70,16 @@ public class MetricLabels {
 
     public static final String PEERS_VALID = "valid";
 
+    public static final String SEND_QUEUE_PRIORITY = "priority";
+
+    public static final String SEND_QUEUE_NORMAL = "normal";
+
+    public static final String TRX_QUEUE_VERIFY = "verify";
+
+    public static final String TRX_QUEUE_SMART_CONTRACT = "smart_contract";
+
+    public static final String TRX_QUEUE_ADMIT = "admit";
+
     private Gauge() {
       throw new IllegalStateException("Gauge");
     }
@@ -68,6 +91,8 @@ public class MetricLabels {
   public static class Histogram {
     public static final String TRAFFIC_IN = "in";
     public static final String TRAFFIC_OUT = "out";
+    public static final String TRX_STAGE_VERIFY = "verify";
+    public static final String TRX_STAGE_ADMIT = "admit";
 
     private Histogram() {
       throw new IllegalStateException("Histogram");
@@ -54,6 +54,10 @@ public class Metrics {
     MetricsGauge.set(key, amt, labels);
   }
 
+  public static void gaugeRemove(String key, String... labels) {
+    MetricsGauge.remove(key, labels);
+  }
+
   public static Histogram.Timer histogramStartTimer(String key, String... labels) {
     return MetricsHistogram.startTimer(key, labels);
   }
@@ -18,6 +18,10 @@ class MetricsCounter {
     init(MetricKeys.Counter.P2P_DISCONNECT, "tron p2p disconnect .", "type");
     init(MetricKeys.Counter.INTERNAL_SERVICE_FAIL, "internal Service fail.",
         "class", "method");
+    init(MetricKeys.Counter.SIGNATURE_CACHE, "tron signature recovery cache.", "type");
+    init(MetricKeys.Counter.JUMPDEST_CACHE, "tron jumpdest analysis cache.", "type");
+    init(MetricKeys.Counter.DB_CACHE, "tron db read cache.", "db", "type");
+    init(MetricKeys.Counter.PARALLEL_EXECUTION, "tron parallel block execution.", "type");
   }
 
   private MetricsCounter() {
@@ -19,6 +19,11 @@ class MetricsGauge {
     init(MetricKeys.Gauge.DB_SIZE_BYTES, "tron  db  size .", "type", "db", "level");
     init(MetricKeys.Gauge.DB_SST_LEVEL, "tron  db  files .", "type", "db", "level");
     init(MetricKeys.Gauge.TX_CACHE, "tron tx cache info.", "type");
+    init(MetricKeys.Gauge.JUMPDEST_CACHE_SIZE, "tron jumpdest analysis cache size.");
+    init(MetricKeys.Gauge.BLOCK_PREFETCH_HIT_RATIO, "tron block state prefetch hit ratio.",
+        "db");
+    init(MetricKeys.Gauge.PEER_SEND_QUEUE, "tron peer send queue size.", "peer", "type");
+    init(MetricKeys.Gauge.TRX_HANDLER_QUEUE, "tron trx handler queue size.", "type");
   }
 
   private MetricsGauge() {
@@ -56,5 +61,16 @@ class MetricsGauge {
     }
   }
 
+  static void remove(String key, String... labels) {
+    if (Metrics.enabled()) {
+      Gauge gauge = container.get(key);
+      if (gauge == null) {
+        logger.info("{} not exist", key);
+        return;
+      }
+      gauge.remove(labels);
+    }
+  }
+
 }
 
@@ -41,6 +41,9 @@ public class MetricsHistogram {
         "type");
     init(MetricKeys.Histogram.HTTP_BYTES, "http_bytes traffic.",
         "url", "status");
+    init(MetricKeys.Histogram.TRX_HANDLER_LATENCY, "trx handler latency per stage.",
+        "stage");
+    init(MetricKeys.Histogram.TRIGGER_DELAY, "delay from posting a trigger to delivering it.");
   }
 
   private MetricsHistogram() {
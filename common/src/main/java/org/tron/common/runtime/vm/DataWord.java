@@ -306,16 +306,15 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    bnot();
-    add(DataWord.ONE());
+    long[] r = UInt256.fromBytes(data);
+    UInt256.negate(r, r);
+    this.data = UInt256.toBytes(r);
   }
 
   public void bnot() {
-    if (this.isZero()) {
-      this.data = ByteUtil.copyToArray(MAX_VALUE);
-      return;
-    }
-    this.data = ByteUtil.copyToArray(MAX_VALUE.subtract(this.value()));
+    long[] r = UInt256.fromBytes(data);
+    UInt256.not(r, r);
+    this.data = UInt256.toBytes(r);
   }
 
   // By   : Holger
@@ -336,15 +335,12 @@ public class DataWord implements Comparable<DataWord> {
     this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
   }
 
-  // TODO: mul can be done in more efficient way
-  // TODO:     with shift left shift right trick
-  // TODO      without BigInteger quick hack
   public void mul(DataWord word) {
-    BigInteger result = value().multiply(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] r = UInt256.fromBytes(data);
+    UInt256.mul(r, UInt256.fromBytes(word.data), r);
+    this.data = UInt256.toBytes(r);
   }
 
-  // TODO: improve with no BigInteger
   public void div(DataWord word) {
 
     if (word.isZero()) {
@@ -352,11 +348,12 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = value().divide(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] q = new long[UInt256.LIMBS];
+    long[] r = new long[UInt256.LIMBS];
+    UInt256.divMod(UInt256.fromBytes(data), UInt256.fromBytes(word.data), q, r);
+    this.data = UInt256.toBytes(q);
   }
 
-  // TODO: improve with no BigInteger
   public void sDiv(DataWord word) {
 
     if (word.isZero()) {
@@ -364,23 +361,36 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = sValue().divide(word.sValue());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] a = UInt256.fromBytes(data);
+    long[] b = UInt256.fromBytes(word.data);
+    boolean negative = UInt256.isNegative(a) != UInt256.isNegative(b);
+    if (UInt256.isNegative(a)) {
+      UInt256.negate(a, a);
+    }
+    if (UInt256.isNegative(b)) {
+      UInt256.negate(b, b);
+    }
+    long[] q = new long[UInt256.LIMBS];
+    long[] r = new long[UInt256.LIMBS];
+    UInt256.divMod(a, b, q, r);
+    if (negative) {
+      UInt256.negate(q, q);
+    }
+    this.data = UInt256.toBytes(q);
   }
 
-  // TODO: improve with no BigInteger
   public void sub(DataWord word) {
-    BigInteger result = value().subtract(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] r = UInt256.fromBytes(data);
+    UInt256.sub(r, UInt256.fromBytes(word.data), r);
+    this.data = UInt256.toBytes(r);
   }
 
-  // TODO: improve with no BigInteger
   public void exp(DataWord word) {
-    BigInteger result = value().modPow(word.value(), _2_256);
-    this.data = ByteUtil.copyToArray(result);
+    long[] r = UInt256.fromBytes(data);
+    UInt256.exp(r, UInt256.fromBytes(word.data), r);
+    this.data = UInt256.toBytes(r);
   }
 
-  // TODO: improve with no BigInteger
   public void mod(DataWord word) {
 
     if (word.isZero()) {
@@ -388,8 +398,9 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = value().mod(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] r = UInt256.fromBytes(data);
+    UInt256.mod(r, UInt256.fromBytes(word.data), r);
+    this.data = UInt256.toBytes(r);
   }
 
   public void sMod(DataWord word) {
@@ -399,10 +410,20 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = sValue().abs().mod(word.sValue().abs());
-    result = (sValue().signum() == -1) ? result.negate() : result;
-
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] a = UInt256.fromBytes(data);
+    long[] b = UInt256.fromBytes(word.data);
+    boolean negative = UInt256.isNegative(a);
+    if (negative) {
+      UInt256.negate(a, a);
+    }
+    if (UInt256.isNegative(b)) {
+      UInt256.negate(b, b);
+    }
+    UInt256.mod(a, b, a);
+    if (negative) {
+      UInt256.negate(a, a);
+    }
+    this.data = UInt256.toBytes(a);
   }
 
   public void addmod(DataWord word1, DataWord word2) {
@@ -411,8 +432,9 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = value().add(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] r = UInt256.fromBytes(data);
+    UInt256.addMod(r, UInt256.fromBytes(word1.data), UInt256.fromBytes(word2.data), r);
+    this.data = UInt256.toBytes(r);
   }
 
   public void mulmod(DataWord word1, DataWord word2) {
@@ -422,8 +444,9 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = value().multiply(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] r = UInt256.fromBytes(data);
+    UInt256.mulMod(r, UInt256.fromBytes(word1.data), UInt256.fromBytes(word2.data), r);
+    this.data = UInt256.toBytes(r);
   }
 
   @JsonValue
@@ -491,7 +514,7 @@ public class DataWord implements Comparable<DataWord> {
     if (0 > k || k > 31) {
       throw new IndexOutOfBoundsException();
     }
-    byte mask = this.sValue().testBit((k * 8) + 7) ? (byte) 0xff : 0;
+    byte mask = (data[WORD_SIZE - 1 - k] & 0x80) != 0 ? (byte) 0xff : 0;
     for (int i = 31; i > k; i--) {
       this.data[31 - i] = mask;
     }
@@ -523,12 +546,14 @@ public class DataWord implements Comparable<DataWord> {
    * @return this << arg
    */
   public DataWord shiftLeft(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    int shift = arg.shiftValue();
+    if (shift >= MAX_POW) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftLeft(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    long[] r = UInt256.fromBytes(data);
+    UInt256.shiftLeft(r, shift, r);
+    return new DataWord(UInt256.toBytes(r));
   }
 
   /**
@@ -537,12 +562,14 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRight(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    int shift = arg.shiftValue();
+    if (shift >= MAX_POW) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    long[] r = UInt256.fromBytes(data);
+    UInt256.shiftRight(r, shift, r);
+    return new DataWord(UInt256.toBytes(r));
   }
 
   /**
@@ -551,7 +578,8 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRightSigned(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    int shift = arg.shiftValue();
+    if (shift >= MAX_POW) {
       if (this.isNegative()) {
         DataWord result = ONE();
         result.negate();
@@ -561,7 +589,19 @@ public class DataWord implements Comparable<DataWord> {
       }
     }
 
-    BigInteger result = sValue().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    long[] r = UInt256.fromBytes(data);
+    UInt256.shiftRightSigned(r, shift, r);
+    return new DataWord(UInt256.toBytes(r));
+  }
+
+  /**
+   * Shift amount of this word, any value of MAX_POW or above is reported as MAX_POW.
+   */
+  private int shiftValue() {
+    long[] n = UInt256.fromBytes(data);
+    if ((n[1] | n[2] | n[3]) != 0 || Long.compareUnsigned(n[0], MAX_POW) >= 0) {
+      return MAX_POW;
+    }
+    return (int) n[0];
   }
 }
@@ -0,0 +1,433 @@
+package org.tron.common.runtime.vm;
+
+import java.util.Arrays;
+
+/**
+ * Unsigned 256-bit arithmetic on four 64-bit limbs, least significant limb first. Results are
+ * truncated to 256 bits, which is exactly what the BigInteger based {@link DataWord} operations
+ * produced after masking with {@code MAX_VALUE}.
+ *
+ * <p>Unless stated otherwise the result array may alias the operands.
+ */
+final class UInt256 {
+
+  static final int LIMBS = 4;
+  private static final long INT_MASK = 0xFFFFFFFFL;
+
+  private UInt256() {
+    throw new IllegalStateException("UInt256");
+  }
+
+  /**
+   * Reads a right aligned big-endian array of at most 32 bytes.
+   */
+  static long[] fromBytes(byte[] data) {
+    long[] r = new long[LIMBS];
+    if (data.length == DataWord.WORD_SIZE) {
+      for (int k = 0; k < LIMBS; k++) {
+        int off = 24 - (k << 3);
+        long v = 0;
+        for (int j = 0; j < 8; j++) {
+          v = (v << 8) | (data[off + j] & 0xFFL);
+        }
+        r[k] = v;
+      }
+      return r;
+    }
+    int len = data.length;
+    for (int i = 0; i < len; i++) {
+      r[i >>> 3] |= (data[len - 1 - i] & 0xFFL) << ((i & 7) << 3);
+    }
+    return r;
+  }
+
+  static byte[] toBytes(long[] a) {
+    byte[] out = new byte[DataWord.WORD_SIZE];
+    for (int k = 0; k < LIMBS; k++) {
+      long v = a[k];
+      int off = 24 - (k << 3);
+      for (int j = 7; j >= 0; j--) {
+        out[off + j] = (byte) v;
+        v >>>= 8;
+      }
+    }
+    return out;
+  }
+
+  static boolean isZero(long[] a) {
+    return (a[0] | a[1] | a[2] | a[3]) == 0;
+  }
+
+  static boolean isNegative(long[] a) {
+    return a[3] < 0;
+  }
+
+  static int compare(long[] a, long[] b) {
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      if (a[i] != b[i]) {
+        return Long.compareUnsigned(a[i], b[i]) < 0 ? -1 : 1;
+      }
+    }
+    return 0;
+  }
+
+  static int bitLength(long[] a) {
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      if (a[i] != 0) {
+        return (i << 6) + 64 - Long.numberOfLeadingZeros(a[i]);
+      }
+    }
+    return 0;
+  }
+
+  static boolean testBit(long[] a, int n) {
+    return (a[n >>> 6] & (1L << (n & 63))) != 0;
+  }
+
+  /**
+   * r = a + b, returns the carry out of the top limb.
+   */
+  static long add(long[] a, long[] b, long[] r) {
+    long carry = 0;
+    for (int i = 0; i < LIMBS; i++) {
+      long ai = a[i];
+      long s = ai + b[i];
+      long c = Long.compareUnsigned(s, ai) < 0 ? 1 : 0;
+      long s2 = s + carry;
+      if (Long.compareUnsigned(s2, s) < 0) {
+        c = 1;
+      }
+      r[i] = s2;
+      carry = c;
+    }
+    return carry;
+  }
+
+  /**
+   * r = a - b, returns the borrow out of the top limb.
+   */
+  static long sub(long[] a, long[] b, long[] r) {
+    long borrow = 0;
+    for (int i = 0; i < LIMBS; i++) {
+      long ai = a[i];
+      long bi = b[i];
+      long d = ai - bi;
+      long c = Long.compareUnsigned(ai, bi) < 0 ? 1 : 0;
+      long d2 = d - borrow;
+      if (Long.compareUnsigned(d, borrow) < 0) {
+        c = 1;
+      }
+      r[i] = d2;
+      borrow = c;
+    }
+    return borrow;
+  }
+
+  static void not(long[] a, long[] r) {
+    for (int i = 0; i < LIMBS; i++) {
+      r[i] = ~a[i];
+    }
+  }
+
+  static void negate(long[] a, long[] r) {
+    long carry = 1;
+    for (int i = 0; i < LIMBS; i++) {
+      long v = ~a[i] + carry;
+      carry = (carry != 0 && v == 0) ? 1 : 0;
+      r[i] = v;
+    }
+  }
+
+  static long unsignedMultiplyHigh(long a, long b) {
+    long aLo = a & INT_MASK;
+    long aHi = a >>> 32;
+    long bLo = b & INT_MASK;
+    long bHi = b >>> 32;
+    long loLo = aLo * bLo;
+    long hiLo = aHi * bLo;
+    long loHi = aLo * bHi;
+    long cross = (loLo >>> 32) + (hiLo & INT_MASK) + loHi;
+    return (hiLo >>> 32) + (cross >>> 32) + aHi * bHi;
+  }
+
+  /**
+   * r = a * b mod 2^256.
+   */
+  static void mul(long[] a, long[] b, long[] r) {
+    long[] t = new long[LIMBS];
+    for (int i = 0; i < LIMBS; i++) {
+      long ai = a[i];
+      if (ai == 0) {
+        continue;
+      }
+      long carry = 0;
+      for (int j = 0; i + j < LIMBS; j++) {
+        long bj = b[j];
+        long lo = ai * bj;
+        long hi = unsignedMultiplyHigh(ai, bj);
+        long s = t[i + j] + lo;
+        if (Long.compareUnsigned(s, lo) < 0) {
+          hi++;
+        }
+        long s2 = s + carry;
+        if (Long.compareUnsigned(s2, carry) < 0) {
+          hi++;
+        }
+        t[i + j] = s2;
+        carry = hi;
+      }
+    }
+    System.arraycopy(t, 0, r, 0, LIMBS);
+  }
+
+  static void shiftLeft(long[] a, int n, long[] r) {
+    int limbShift = n >>> 6;
+    int bitShift = n & 63;
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      int src = i - limbShift;
+      long v = 0;
+      if (src >= 0) {
+        v = a[src] << bitShift;
+        if (bitShift != 0 && src > 0) {
+          v |= a[src - 1] >>> (64 - bitShift);
+        }
+      }
+      r[i] = v;
+    }
+  }
+
+  static void shiftRight(long[] a, int n, long[] r) {
+    shiftRight(a, n, 0, r);
+  }
+
+  static void shiftRightSigned(long[] a, int n, long[] r) {
+    shiftRight(a, n, isNegative(a) ? -1L : 0, r);
+  }
+
+  private static void shiftRight(long[] a, int n, long fill, long[] r) {
+    int limbShift = n >>> 6;
+    int bitShift = n & 63;
+    for (int i = 0; i < LIMBS; i++) {
+      int src = i + limbShift;
+      long v = fill;
+      if (src < LIMBS) {
+        v = a[src] >>> bitShift;
+        if (bitShift != 0) {
+          v |= (src + 1 < LIMBS ? a[src + 1] : fill) << (64 - bitShift);
+        }
+      }
+      r[i] = v;
+    }
+  }
+
+  /**
+   * Unsigned division, q = a / b and r = a % b. b must not be zero, q and r must not alias a or
+   * b.
+   */
+  static void divMod(long[] a, long[] b, long[] q, long[] r) {
+    if (compare(a, b) < 0) {
+      System.arraycopy(a, 0, r, 0, LIMBS);
+      Arrays.fill(q, 0);
+      return;
+    }
+    if ((b[1] | b[2] | b[3]) == 0) {
+      long d = b[0];
+      if ((a[1] | a[2] | a[3]) == 0) {
+        Arrays.fill(q, 0);
+        Arrays.fill(r, 0);
+        q[0] = Long.divideUnsigned(a[0], d);
+        r[0] = Long.remainderUnsigned(a[0], d);
+        return;
+      }
+      if ((d >>> 32) == 0) {
+        // short division by a single 32 bit digit
+        long rem = 0;
+        for (int i = LIMBS - 1; i >= 0; i--) {
+          long hiPart = (rem << 32) | (a[i] >>> 32);
+          long qHi = Long.divideUnsigned(hiPart, d);
+          rem = hiPart - qHi * d;
+          long loPart = (rem << 32) | (a[i] & INT_MASK);
+          long qLo = Long.divideUnsigned(loPart, d);
+          rem = loPart - qLo * d;
+          q[i] = (qHi << 32) | qLo;
+        }
+        Arrays.fill(r, 0);
+        r[0] = rem;
+        return;
+      }
+    }
+    divModKnuth(a, b, q, r);
+  }
+
+  /**
+   * Knuth's algorithm D over 32 bit digits, for divisors of at least two digits.
+   */
+  private static void divModKnuth(long[] a, long[] b, long[] q, long[] r) {
+    int[] u = toDigits(a);
+    int[] v = toDigits(b);
+    int m = digitLength(u);
+    int n = digitLength(v);
+    int s = Integer.numberOfLeadingZeros(v[n - 1]);
+
+    // normalize so that the top digit of the divisor has its high bit set
+    int[] vn = new int[n];
+    for (int i = n - 1; i > 0; i--) {
+      vn[i] = (v[i] << s) | (s == 0 ? 0 : v[i - 1] >>> (32 - s));
+    }
+    vn[0] = v[0] << s;
+    int[] un = new int[m + 1];
+    un[m] = s == 0 ? 0 : u[m - 1] >>> (32 - s);
+    for (int i = m - 1; i > 0; i--) {
+      un[i] = (u[i] << s) | (s == 0 ? 0 : u[i - 1] >>> (32 - s));
+    }
+    un[0] = u[0] << s;
+
+    int[] qd = new int[2 * LIMBS];
+    long vTop = vn[n - 1] & INT_MASK;
+    long vNext = vn[n - 2] & INT_MASK;
+    for (int j = m - n; j >= 0; j--) {
+      long num = ((un[j + n] & INT_MASK) << 32) | (un[j + n - 1] & INT_MASK);
+      long qhat = Long.divideUnsigned(num, vTop);
+      long rhat = num - qhat * vTop;
+      while (qhat > INT_MASK || Long.compareUnsigned(qhat * vNext,
+          (rhat << 32) | (un[j + n - 2] & INT_MASK)) > 0) {
+        qhat--;
+        rhat += vTop;
+        if (rhat > INT_MASK) {
+          break;
+        }
+      }
+
+      // multiply and subtract
+      long borrow = 0;
+      long t;
+      for (int i = 0; i < n; i++) {
+        long p = qhat * (vn[i] & INT_MASK);
+        t = (un[i + j] & INT_MASK) - borrow - (p & INT_MASK);
+        un[i + j] = (int) t;
+        borrow = (p >>> 32) - (t >> 32);
+      }
+      t = (un[j + n] & INT_MASK) - borrow;
+      un[j + n] = (int) t;
+
+      qd[j] = (int) qhat;
+      if (t < 0) {
+        // subtracted too much, add the divisor back
+        qd[j]--;
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+          t = (un[i + j] & INT_MASK) + (vn[i] & INT_MASK) + carry;
+          un[i + j] = (int) t;
+          carry = t >>> 32;
+        }
+        un[j + n] = (int) ((un[j + n] & INT_MASK) + carry);
+      }
+    }
+
+    int[] rd = new int[2 * LIMBS];
+    for (int i = 0; i < n; i++) {
+      rd[i] = (un[i] >>> s) | (s == 0 ? 0 : un[i + 1] << (32 - s));
+    }
+    fromDigits(qd, q);
+    fromDigits(rd, r);
+  }
+
+  private static int[] toDigits(long[] a) {
+    int[] d = new int[2 * LIMBS];
+    for (int i = 0; i < LIMBS; i++) {
+      d[2 * i] = (int) a[i];
+      d[2 * i + 1] = (int) (a[i] >>> 32);
+    }
+    return d;
+  }
+
+  private static void fromDigits(int[] d, long[] a) {
+    for (int i = 0; i < LIMBS; i++) {
+      a[i] = (d[2 * i] & INT_MASK) | ((long) d[2 * i + 1] << 32);
+    }
+  }
+
+  private static int digitLength(int[] d) {
+    for (int i = d.length - 1; i >= 0; i--) {
+      if (d[i] != 0) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * r = a mod m, m must not be zero. r may alias a.
+   */
+  static void mod(long[] a, long[] m, long[] r) {
+    long[] q = new long[LIMBS];
+    long[] rem = new long[LIMBS];
+    divMod(a, m, q, rem);
+    System.arraycopy(rem, 0, r, 0, LIMBS);
+  }
+
+  /**
+   * r = (a + b) mod m computed without truncating the 257 bit sum, m must not be zero.
+   */
+  static void addMod(long[] a, long[] b, long[] m, long[] r) {
+    long[] ra = new long[LIMBS];
+    long[] rb = new long[LIMBS];
+    mod(a, m, ra);
+    mod(b, m, rb);
+    // ra + rb < 2m, one conditional subtraction brings it back below m
+    long carry = add(ra, rb, ra);
+    if (carry != 0 || compare(ra, m) >= 0) {
+      sub(ra, m, ra);
+    }
+    System.arraycopy(ra, 0, r, 0, LIMBS);
+  }
+
+  /**
+   * r = (a * b) mod m computed without truncating the 512 bit product, m must not be zero.
+   */
+  static void mulMod(long[] a, long[] b, long[] m, long[] r) {
+    long[] ra = new long[LIMBS];
+    long[] rb = new long[LIMBS];
+    mod(a, m, ra);
+    mod(b, m, rb);
+    if (bitLength(ra) + bitLength(rb) <= 256) {
+      mul(ra, rb, ra);
+      mod(ra, m, r);
+      return;
+    }
+    // double and add over the bits of rb, keeping the accumulator below m
+    long[] acc = new long[LIMBS];
+    for (int i = bitLength(rb) - 1; i >= 0; i--) {
+      long carry = acc[LIMBS - 1] >>> 63;
+      shiftLeft(acc, 1, acc);
+      if (carry != 0 || compare(acc, m) >= 0) {
+        sub(acc, m, acc);
+      }
+      if (testBit(rb, i)) {
+        carry = add(acc, ra, acc);
+        if (carry != 0 || compare(acc, m) >= 0) {
+          sub(acc, m, acc);
+        }
+      }
+    }
+    System.arraycopy(acc, 0, r, 0, LIMBS);
+  }
+
+  /**
+   * r = base ^ exponent mod 2^256.
+   */
+  static void exp(long[] base, long[] exponent, long[] r) {
+    long[] result = new long[]{1, 0, 0, 0};
+    long[] b = base.clone();
+    int bits = bitLength(exponent);
+    for (int i = 0; i < bits; i++) {
+      if (testBit(exponent, i)) {
+        mul(result, b, result);
+      }
+      if (i + 1 < bits) {
+        mul(b, b, b);
+      }
+    }
+    System.arraycopy(result, 0, r, 0, LIMBS);
+  }
+}
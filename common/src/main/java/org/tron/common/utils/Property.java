@@ -17,4 +17,11 @@ public class Property {
   @Getter
   @Setter
   private Options dbOptions;
+
+  /**
+   * Max number of raw values cached in front of the db, 0 disables the cache.
+   */
+  @Getter
+  @Setter
+  private int readCacheSize;
 }
@@ -166,6 +166,17 @@ public class Constant {
 
   public static final String NODE_VALIDATE_SIGN_THREAD_NUM = "node.validateSignThreadNum";
 
+  public static final String NODE_SIGNATURE_CACHE_SIZE = "node.signatureCacheSize";
+
+  public static final String NODE_BLOCK_PREFETCH_THREAD_NUM = "node.blockPrefetchThreadNum";
+
+  public static final String NODE_PARALLEL_EXECUTION_THREAD_NUM =
+      "node.parallelExecutionThreadNum";
+
+  public static final String NODE_PARALLEL_EXECUTION_VERIFY = "node.parallelExecutionVerify";
+
+  public static final String NODE_COMPACT_RELAY = "node.compactRelay";
+
   public static final String NODE_WALLET_EXTENSION_API = "node.walletExtensionApi";
 
   public static final String NODE_RECEIVE_TCP_MIN_DATA_LENGTH = "node.receiveTcpMinDataLength";
@@ -246,6 +257,10 @@ public class Constant {
   public static final String EVENT_SUBSCRIBE_SERVER = "event.subscribe.server";
   public static final String EVENT_SUBSCRIBE_DB_CONFIG = "event.subscribe.dbconfig";
   public static final String EVENT_SUBSCRIBE_TOPICS = "event.subscribe.topics";
+  public static final String EVENT_SUBSCRIBE_ENCODING = "event.subscribe.encoding";
+  public static final String EVENT_SUBSCRIBE_THREADS = "event.subscribe.pipeline.threads";
+  public static final String EVENT_SUBSCRIBE_QUEUE_SIZE = "event.subscribe.pipeline.queueSize";
+  public static final String EVENT_SUBSCRIBE_FULL_POLICY = "event.subscribe.pipeline.fullPolicy";
   public static final String EVENT_SUBSCRIBE_FROM_BLOCK = "event.subscribe.filter.fromblock";
   public static final String EVENT_SUBSCRIBE_TO_BLOCK = "event.subscribe.filter.toblock";
   public static final String EVENT_SUBSCRIBE_CONTRACT_ADDRESS = "event.subscribe.filter.contractAddress";
@@ -85,6 +85,9 @@ public class Parameter {
     public static final long NET_MAX_TRX_PER_SECOND = 700L;
     public static final int MSG_CACHE_DURATION_IN_BLOCKS = 5;
     public static final int MAX_BLOCK_FETCH_PER_PEER = 100;
+    public static final int MIN_SYNC_FETCH_WINDOW = 10;
+    public static final int MAX_SYNC_FETCH_WINDOW = 500;
+    public static final long SYNC_FETCH_TARGET_LATENCY = 2000L;
     public static final int MAX_TRX_FETCH_PER_PEER = 1000;
   }
 
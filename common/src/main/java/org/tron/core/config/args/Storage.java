@@ -67,6 +67,7 @@ public class Storage {
   private static final String WRITE_BUFFER_SIZE_CONFIG_KEY = "writeBufferSize";
   private static final String CACHE_SIZE_CONFIG_KEY = "cacheSize";
   private static final String MAX_OPEN_FILES_CONFIG_KEY = "maxOpenFiles";
+  private static final String READ_CACHE_SIZE_CONFIG_KEY = "readCacheSize";
   private static final String EVENT_SUBSCRIBE_CONTRACT_PARSE = "event.subscribe.contractParse";
 
   /**
@@ -222,6 +223,11 @@ public class Storage {
     setIfNeeded(conf, dbOptions);
 
     property.setDbOptions(dbOptions);
+
+    if (conf.containsKey(READ_CACHE_SIZE_CONFIG_KEY)) {
+      property.setReadCacheSize(
+          Integer.parseInt(conf.get(READ_CACHE_SIZE_CONFIG_KEY).unwrapped().toString()));
+    }
     return property;
   }
 
@@ -26,10 +26,7 @@ public class SignUtils {
   public static byte[] signatureToAddress(
       byte[] messageHash, String signatureBase64, boolean isECKeyCryptoEngine)
       throws SignatureException {
-    if (isECKeyCryptoEngine) {
-      return ECKey.signatureToAddress(messageHash, signatureBase64);
-    }
-    return SM2.signatureToAddress(messageHash, signatureBase64);
+    return SignatureCache.signatureToAddress(messageHash, signatureBase64, isECKeyCryptoEngine);
   }
 
   public static SignatureInterface fromComponents(
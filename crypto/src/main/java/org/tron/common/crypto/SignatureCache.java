@@ -0,0 +1,97 @@
+package org.tron.common.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.nio.charset.StandardCharsets;
+import java.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.crypto.sm2.SM2;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+import org.tron.core.db.ByteArrayWrapper;
+
+/**
+ * Bounded cache of signer addresses recovered from (message hash, signature) pairs, so that a
+ * transaction validated on arrival is not recovered again when it is re-pushed or shows up in
+ * a block.
+ */
+@Slf4j(topic = "crypto")
+public class SignatureCache {
+
+  private static volatile Cache<ByteArrayWrapper, byte[]> cache;
+
+  private SignatureCache() {
+    throw new IllegalStateException("SignatureCache");
+  }
+
+  private static Cache<ByteArrayWrapper, byte[]> getCache() {
+    if (cache == null) {
+      synchronized (SignatureCache.class) {
+        if (cache == null) {
+          int size = CommonParameter.getInstance().getSignatureCacheSize();
+          cache = CacheBuilder.newBuilder()
+              .maximumSize(Math.max(size, 0))
+              .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+              .build();
+        }
+      }
+    }
+    return cache;
+  }
+
+  public static boolean enabled() {
+    return CommonParameter.getInstance().getSignatureCacheSize() > 0;
+  }
+
+  /**
+   * Returns the signer address, recovering and caching it on a miss.
+   */
+  public static byte[] signatureToAddress(byte[] messageHash, String signatureBase64,
+      boolean isECKeyCryptoEngine) throws SignatureException {
+    if (!enabled()) {
+      return recover(messageHash, signatureBase64, isECKeyCryptoEngine);
+    }
+    ByteArrayWrapper key = buildKey(messageHash, signatureBase64, isECKeyCryptoEngine);
+    byte[] address = getCache().getIfPresent(key);
+    if (address != null) {
+      Metrics.counterInc(MetricKeys.Counter.SIGNATURE_CACHE, 1,
+          MetricLabels.Counter.SIGNATURE_CACHE_HIT);
+      return address.clone();
+    }
+    Metrics.counterInc(MetricKeys.Counter.SIGNATURE_CACHE, 1,
+        MetricLabels.Counter.SIGNATURE_CACHE_MISS);
+    address = recover(messageHash, signatureBase64, isECKeyCryptoEngine);
+    getCache().put(key, address.clone());
+    return address;
+  }
+
+  public static long size() {
+    return cache == null ? 0 : cache.size();
+  }
+
+  public static void clear() {
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
+  private static byte[] recover(byte[] messageHash, String signatureBase64,
+      boolean isECKeyCryptoEngine) throws SignatureException {
+    if (isECKeyCryptoEngine) {
+      return ECKey.signatureToAddress(messageHash, signatureBase64);
+    }
+    return SM2.signatureToAddress(messageHash, signatureBase64);
+  }
+
+  private static ByteArrayWrapper buildKey(byte[] messageHash, String signatureBase64,
+      boolean isECKeyCryptoEngine) {
+    byte[] sig = signatureBase64.getBytes(StandardCharsets.US_ASCII);
+    byte[] key = new byte[messageHash.length + sig.length + 1];
+    key[0] = (byte) (isECKeyCryptoEngine ? 0 : 1);
+    System.arraycopy(messageHash, 0, key, 1, messageHash.length);
+    System.arraycopy(sig, 0, key, messageHash.length + 1, sig.length);
+    return new ByteArrayWrapper(key);
+  }
+}
@@ -1,13 +1,12 @@
 package org.tron.common.logsfilter;
 
 import com.beust.jcommander.internal.Sets;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.util.encoders.Hex;
@@ -34,7 +33,7 @@ public class EventPluginLoader {
 
   private List<IPluginEventListener> eventListeners;
 
-  private ObjectMapper objectMapper = new ObjectMapper();
+  private TriggerEncoder triggerEncoder = new JsonTriggerEncoder();
 
   private String serverAddress;
 
@@ -223,6 +222,8 @@ public class EventPluginLoader {
 
     useNativeQueue = config.isUseNativeQueue();
 
+    triggerEncoder = TriggerEncoder.of(config.getEncoding());
+
     if (config.isUseNativeQueue()) {
       return launchNativeQueue(config);
     }
@@ -349,13 +350,7 @@ public class EventPluginLoader {
   }
 
   public void postSolidityTrigger(SolidityTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleSolidityTrigger(toJsonString(trigger)));
-    }
+    post(trigger, IPluginEventListener::handleSolidityTrigger);
   }
 
   public synchronized boolean isBlockLogTriggerEnable() {
@@ -462,74 +457,43 @@ public class EventPluginLoader {
   }
 
   public void postBlockTrigger(BlockLogTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleBlockEvent(toJsonString(trigger)));
-    }
+    post(trigger, IPluginEventListener::handleBlockEvent);
   }
 
   public void postSolidityLogTrigger(ContractLogTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleSolidityLogTrigger(toJsonString(trigger)));
-    }
+    post(trigger, IPluginEventListener::handleSolidityLogTrigger);
   }
 
   public void postSolidityEventTrigger(ContractEventTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleSolidityEventTrigger(toJsonString(trigger)));
-    }
+    post(trigger, IPluginEventListener::handleSolidityEventTrigger);
   }
 
   public void postTransactionTrigger(TransactionLogTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener -> listener.handleTransactionTrigger(toJsonString(trigger)));
-    }
+    post(trigger, IPluginEventListener::handleTransactionTrigger);
   }
 
   public void postContractLogTrigger(ContractLogTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleContractLogTrigger(toJsonString(trigger)));
-    }
+    post(trigger, IPluginEventListener::handleContractLogTrigger);
   }
 
   public void postContractEventTrigger(ContractEventTrigger trigger) {
-    if (useNativeQueue) {
-      NativeMessageQueue.getInstance()
-          .publishTrigger(toJsonString(trigger), trigger.getTriggerName());
-    } else {
-      eventListeners.forEach(listener ->
-          listener.handleContractEventTrigger(toJsonString(trigger)));
-    }
+    post(trigger, IPluginEventListener::handleContractEventTrigger);
   }
 
-  private String toJsonString(Object data) {
-    String jsonData = "";
-
-    try {
-      jsonData = objectMapper.writeValueAsString(data);
-    } catch (JsonProcessingException e) {
-      logger.error("'{}'", e);
+  /**
+   * encodes the trigger once and hands the same data to the native queue or every listener.
+   */
+  private void post(Trigger trigger, BiConsumer<IPluginEventListener, Object> handler) {
+    Object data = triggerEncoder.encode(trigger);
+    if (useNativeQueue) {
+      if (data instanceof byte[]) {
+        NativeMessageQueue.getInstance().publishTrigger((byte[]) data, trigger.getTriggerName());
+      } else {
+        NativeMessageQueue.getInstance().publishTrigger((String) data, trigger.getTriggerName());
+      }
+    } else {
+      eventListeners.forEach(listener -> handler.accept(listener, data));
     }
-
-    return jsonData;
   }
 
   public synchronized FilterQuery getFilterQuery() {
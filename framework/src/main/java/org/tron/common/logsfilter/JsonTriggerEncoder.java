@@ -0,0 +1,25 @@
+package org.tron.common.logsfilter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.logsfilter.trigger.Trigger;
+
+@Slf4j
+public class JsonTriggerEncoder implements TriggerEncoder {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Override
+  public Object encode(Trigger trigger) {
+    String jsonData = "";
+
+    try {
+      jsonData = objectMapper.writeValueAsString(trigger);
+    } catch (JsonProcessingException e) {
+      logger.error("'{}'", e);
+    }
+
+    return jsonData;
+  }
+}
@@ -0,0 +1,185 @@
+package org.tron.common.logsfilter;
+
+import static com.google.common.base.Strings.nullToEmpty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.tron.common.logsfilter.capsule.RawData;
+import org.tron.common.logsfilter.trigger.BlockLogTrigger;
+import org.tron.common.logsfilter.trigger.ContractEventTrigger;
+import org.tron.common.logsfilter.trigger.ContractLogTrigger;
+import org.tron.common.logsfilter.trigger.ContractTrigger;
+import org.tron.common.logsfilter.trigger.InternalTransactionPojo;
+import org.tron.common.logsfilter.trigger.LogPojo;
+import org.tron.common.logsfilter.trigger.SolidityTrigger;
+import org.tron.common.logsfilter.trigger.TransactionLogTrigger;
+import org.tron.common.logsfilter.trigger.Trigger;
+import org.tron.protos.EventTriggers;
+import org.tron.protos.EventTriggers.TriggerInternalTransaction;
+import org.tron.protos.EventTriggers.TriggerLog;
+
+/**
+ * encodes the triggers with the messages of EventTrigger.proto, the plugin tells the message
+ * by the trigger name it subscribed the topic for.
+ */
+public class ProtobufTriggerEncoder implements TriggerEncoder {
+
+  @Override
+  public Object encode(Trigger trigger) {
+    if (trigger instanceof BlockLogTrigger) {
+      return encodeBlock((BlockLogTrigger) trigger).toByteArray();
+    }
+    if (trigger instanceof TransactionLogTrigger) {
+      return encodeTransaction((TransactionLogTrigger) trigger).toByteArray();
+    }
+    if (trigger instanceof ContractTrigger) {
+      return encodeContract((ContractTrigger) trigger).toByteArray();
+    }
+    if (trigger instanceof SolidityTrigger) {
+      return EventTriggers.SolidityTrigger.newBuilder()
+          .setTimeStamp(trigger.getTimeStamp())
+          .setTriggerName(nullToEmpty(trigger.getTriggerName()))
+          .setLatestSolidifiedBlockNumber(
+              ((SolidityTrigger) trigger).getLatestSolidifiedBlockNumber())
+          .build().toByteArray();
+    }
+    throw new IllegalArgumentException("unknown trigger " + trigger.getTriggerName());
+  }
+
+  private static EventTriggers.BlockTrigger encodeBlock(BlockLogTrigger trigger) {
+    EventTriggers.BlockTrigger.Builder builder = EventTriggers.BlockTrigger.newBuilder()
+        .setTimeStamp(trigger.getTimeStamp())
+        .setTriggerName(nullToEmpty(trigger.getTriggerName()))
+        .setBlockNumber(trigger.getBlockNumber())
+        .setBlockHash(nullToEmpty(trigger.getBlockHash()))
+        .setTransactionSize(trigger.getTransactionSize())
+        .setLatestSolidifiedBlockNumber(trigger.getLatestSolidifiedBlockNumber());
+    addAll(builder::addTransactionList, trigger.getTransactionList());
+    return builder.build();
+  }
+
+  private static EventTriggers.TransactionTrigger encodeTransaction(
+      TransactionLogTrigger trigger) {
+    EventTriggers.TransactionTrigger.Builder builder = EventTriggers.TransactionTrigger
+        .newBuilder()
+        .setTimeStamp(trigger.getTimeStamp())
+        .setTriggerName(nullToEmpty(trigger.getTriggerName()))
+        .setTransactionId(nullToEmpty(trigger.getTransactionId()))
+        .setBlockHash(nullToEmpty(trigger.getBlockHash()))
+        .setBlockNumber(trigger.getBlockNumber())
+        .setEnergyUsage(trigger.getEnergyUsage())
+        .setEnergyFee(trigger.getEnergyFee())
+        .setOriginEnergyUsage(trigger.getOriginEnergyUsage())
+        .setEnergyUsageTotal(trigger.getEnergyUsageTotal())
+        .setNetUsage(trigger.getNetUsage())
+        .setNetFee(trigger.getNetFee())
+        .setResult(nullToEmpty(trigger.getResult()))
+        .setContractAddress(nullToEmpty(trigger.getContractAddress()))
+        .setContractType(nullToEmpty(trigger.getContractType()))
+        .setFeeLimit(trigger.getFeeLimit())
+        .setContractCallValue(trigger.getContractCallValue())
+        .setContractResult(nullToEmpty(trigger.getContractResult()))
+        .setFromAddress(nullToEmpty(trigger.getFromAddress()))
+        .setToAddress(nullToEmpty(trigger.getToAddress()))
+        .setAssetName(nullToEmpty(trigger.getAssetName()))
+        .setAssetAmount(trigger.getAssetAmount())
+        .setLatestSolidifiedBlockNumber(trigger.getLatestSolidifiedBlockNumber())
+        .setData(nullToEmpty(trigger.getData()))
+        .setTransactionIndex(trigger.getTransactionIndex())
+        .setCumulativeEnergyUsed(trigger.getCumulativeEnergyUsed())
+        .setPreCumulativeLogCount(trigger.getPreCumulativeLogCount())
+        .setEnergyUnitPrice(trigger.getEnergyUnitPrice());
+    if (trigger.getInternalTransactionList() != null) {
+      for (InternalTransactionPojo internal : trigger.getInternalTransactionList()) {
+        TriggerInternalTransaction.Builder internalBuilder = TriggerInternalTransaction
+            .newBuilder()
+            .setHash(nullToEmpty(internal.getHash()))
+            .setCallValue(internal.getCallValue())
+            .setTransferToAddress(nullToEmpty(internal.getTransferTo_address()))
+            .setData(nullToEmpty(internal.getData()))
+            .setCallerAddress(nullToEmpty(internal.getCaller_address()))
+            .setRejected(internal.isRejected())
+            .setNote(nullToEmpty(internal.getNote()))
+            .setExtra(nullToEmpty(internal.getExtra()));
+        putAll(internalBuilder::putTokenInfo, internal.getTokenInfo());
+        builder.addInternalTransactionList(internalBuilder);
+      }
+    }
+    if (trigger.getLogList() != null) {
+      for (LogPojo log : trigger.getLogList()) {
+        TriggerLog.Builder logBuilder = TriggerLog.newBuilder()
+            .setAddress(nullToEmpty(log.getAddress()))
+            .setBlockHash(nullToEmpty(log.getBlockHash()))
+            .setBlockNumber(log.getBlockNumber())
+            .setData(nullToEmpty(log.getData()))
+            .setLogIndex(log.getLogIndex())
+            .setTransactionHash(nullToEmpty(log.getTransactionHash()))
+            .setTransactionIndex(log.getTransactionIndex());
+        addAll(logBuilder::addTopicList, log.getTopicList());
+        builder.addLogList(logBuilder);
+      }
+    }
+    return builder.build();
+  }
+
+  private static EventTriggers.ContractTrigger encodeContract(ContractTrigger trigger) {
+    EventTriggers.ContractTrigger.Builder builder = EventTriggers.ContractTrigger.newBuilder()
+        .setTimeStamp(trigger.getTimeStamp())
+        .setTriggerName(nullToEmpty(trigger.getTriggerName()))
+        .setUniqueId(nullToEmpty(trigger.getUniqueId()))
+        .setTransactionId(nullToEmpty(trigger.getTransactionId()))
+        .setContractAddress(nullToEmpty(trigger.getContractAddress()))
+        .setCallerAddress(nullToEmpty(trigger.getCallerAddress()))
+        .setOriginAddress(nullToEmpty(trigger.getOriginAddress()))
+        .setCreatorAddress(nullToEmpty(trigger.getCreatorAddress()))
+        .setBlockHash(nullToEmpty(trigger.getBlockHash()))
+        .setRemoved(trigger.isRemoved())
+        .setLatestSolidifiedBlockNumber(trigger.getLatestSolidifiedBlockNumber());
+    if (trigger.getBlockNumber() != null) {
+      builder.setBlockNumber(trigger.getBlockNumber());
+    }
+    RawData rawData = trigger.getRawData();
+    if (rawData != null) {
+      EventTriggers.ContractTrigger.RawData.Builder rawDataBuilder = EventTriggers
+          .ContractTrigger.RawData.newBuilder()
+          .setAddress(nullToEmpty(rawData.getAddress()))
+          .setData(nullToEmpty(rawData.getData()));
+      if (rawData.getTopics() != null) {
+        rawData.getTopics().forEach(topic -> rawDataBuilder.addTopics(topic.toHexString()));
+      }
+      builder.setRawData(rawDataBuilder);
+    }
+    if (trigger instanceof ContractLogTrigger) {
+      ContractLogTrigger logTrigger = (ContractLogTrigger) trigger;
+      addAll(builder::addTopicList, logTrigger.getTopicList());
+      builder.setData(nullToEmpty(logTrigger.getData()));
+    } else if (trigger instanceof ContractEventTrigger) {
+      ContractEventTrigger eventTrigger = (ContractEventTrigger) trigger;
+      builder.setEventSignature(nullToEmpty(eventTrigger.getEventSignature()))
+          .setEventSignatureFull(nullToEmpty(eventTrigger.getEventSignatureFull()))
+          .setEventName(nullToEmpty(eventTrigger.getEventName()));
+      putAll(builder::putTopicMap, eventTrigger.getTopicMap());
+      putAll(builder::putDataMap, eventTrigger.getDataMap());
+    }
+    return builder.build();
+  }
+
+  private static void addAll(Consumer<String> add, List<String> values) {
+    if (values != null) {
+      values.forEach(value -> add.accept(nullToEmpty(value)));
+    }
+  }
+
+  private static <V> void putAll(BiConsumer<String, V> put,
+      Map<String, V> values) {
+    if (values != null) {
+      values.forEach((key, value) -> {
+        if (key != null && value != null) {
+          put.accept(key, value);
+        }
+      });
+    }
+  }
+}
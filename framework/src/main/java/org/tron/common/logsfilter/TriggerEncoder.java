@@ -0,0 +1,25 @@
+package org.tron.common.logsfilter;
+
+import org.tron.common.logsfilter.trigger.Trigger;
+
+/**
+ * encodes a trigger for the event plugin and the native queue, once per trigger whatever the
+ * number of listeners.
+ */
+public interface TriggerEncoder {
+
+  String JSON = "json";
+  String PROTOBUF = "protobuf";
+
+  static TriggerEncoder of(String encoding) {
+    if (PROTOBUF.equalsIgnoreCase(encoding)) {
+      return new ProtobufTriggerEncoder();
+    }
+    return new JsonTriggerEncoder();
+  }
+
+  /**
+   * the encoded trigger, a String for json and a byte[] for a binary encoding.
+   */
+  Object encode(Trigger trigger);
+}
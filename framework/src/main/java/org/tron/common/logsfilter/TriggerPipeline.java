@@ -0,0 +1,147 @@
+package org.tron.common.logsfilter;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.logsfilter.capsule.TriggerCapsule;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+
+/**
+ * Delivers the triggers to the event plugin in the order they were posted, while the work
+ * before the delivery, the abi decoding and filtering of {@link TriggerCapsule#prepare()},
+ * runs ahead on a pool of workers. A trigger is prepared as soon as it is posted and
+ * delivered once the triggers before it are, so the triggers of a block stay in order.
+ *
+ * <p>When the queue is full, because the plugin can not keep up, a trigger is either dropped
+ * or the poster waits for room, which holds up block processing.
+ */
+@Slf4j(topic = "DB")
+public class TriggerPipeline {
+
+  public static final String POLICY_DROP = "drop";
+  public static final String POLICY_BLOCK = "block";
+  private static final int BATCH_SIZE = 256;
+
+  private final BlockingQueue<Pending> queue;
+  private final ExecutorService workers;
+  private final boolean blockWhenFull;
+  private volatile boolean running = true;
+  private Thread deliverThread;
+
+  private static class Pending {
+
+    private final TriggerCapsule capsule;
+    private final FutureTask<Void> prepared;
+    private final long postTime = System.currentTimeMillis();
+
+    private Pending(TriggerCapsule capsule) {
+      this.capsule = capsule;
+      this.prepared = new FutureTask<>(capsule::prepare, null);
+    }
+  }
+
+  public TriggerPipeline(int threadNum, int queueSize, String fullPolicy) {
+    this.queue = new LinkedBlockingQueue<>(queueSize > 0 ? queueSize : Integer.MAX_VALUE);
+    this.workers = Executors.newFixedThreadPool(Math.max(threadNum, 1),
+        new ThreadFactoryBuilder().setNameFormat("trigger-prepare-%d").setDaemon(true).build());
+    this.blockWhenFull = POLICY_BLOCK.equalsIgnoreCase(fullPolicy);
+  }
+
+  public void start() {
+    deliverThread = new Thread(this::deliverLoop, "trigger-deliver");
+    deliverThread.setDaemon(true);
+    deliverThread.start();
+  }
+
+  public void stop() {
+    running = false;
+    // the delivery thread waits for the triggers it has taken to be prepared, the ones that
+    // will not be are cancelled
+    workers.shutdownNow().forEach(task -> ((Future<?>) task).cancel(false));
+  }
+
+  /**
+   * false if the trigger is dropped.
+   */
+  public boolean offer(TriggerCapsule capsule) {
+    Pending pending = new Pending(capsule);
+    if (blockWhenFull) {
+      try {
+        queue.put(pending);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    } else if (!queue.offer(pending)) {
+      return false;
+    }
+    try {
+      workers.execute(pending.prepared);
+    } catch (RejectedExecutionException e) {
+      pending.prepared.run();
+    }
+    Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, 1, MetricLabels.Gauge.QUEUE_TRIGGER);
+    return true;
+  }
+
+  public int size() {
+    return queue.size();
+  }
+
+  private void deliverLoop() {
+    List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+    while (running) {
+      try {
+        Pending first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, BATCH_SIZE - 1);
+        for (Pending pending : batch) {
+          deliver(pending);
+        }
+        Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -batch.size(),
+            MetricLabels.Gauge.QUEUE_TRIGGER);
+      } catch (InterruptedException ex) {
+        logger.info(ex.getMessage());
+        Thread.currentThread().interrupt();
+      } catch (Throwable throwable) {
+        logger.error("unknown throwable happened in process capsule loop", throwable);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void deliver(Pending pending) throws InterruptedException {
+    try {
+      pending.prepared.get();
+      pending.capsule.processTrigger();
+    } catch (CancellationException e) {
+      logger.debug("trigger not prepared before the pipeline stopped");
+      return;
+    } catch (ExecutionException e) {
+      logger.error("prepare trigger failed", e.getCause());
+    } catch (InterruptedException e) {
+      throw e;
+    } catch (Throwable throwable) {
+      logger.error("unknown throwable happened in process capsule loop", throwable);
+    }
+    Metrics.histogramObserve(MetricKeys.Histogram.TRIGGER_DELAY,
+        (System.currentTimeMillis() - pending.postTime) / Metrics.MILLISECONDS_PER_SECOND);
+  }
+}
@@ -28,6 +28,12 @@ public class ContractTriggerCapsule extends TriggerCapsule {
   @Setter
   private ContractTrigger contractTrigger;
 
+  // set by prepare
+  private boolean prepared;
+  private ContractTrigger event;
+  private boolean isEvent;
+  private boolean matched;
+
   public ContractTriggerCapsule(ContractTrigger contractTrigger) {
     this.contractTrigger = contractTrigger;
   }
@@ -40,10 +46,11 @@ public class ContractTriggerCapsule extends TriggerCapsule {
     contractTrigger.setBlockHash(blockHash);
   }
 
+  /**
+   * decodes the log with the abi and matches the filter.
+   */
   @Override
-  public void processTrigger() {
-    ContractTrigger event;
-    boolean isEvent = false;
+  public void prepare() {
     LogInfo logInfo = contractTrigger.getLogInfo();
     ABI abi = contractTrigger.getAbi();
     List<DataWord> topics = logInfo.getTopics();
@@ -129,7 +136,18 @@ public class ContractTriggerCapsule extends TriggerCapsule {
     event.setTimeStamp(contractTrigger.getTimeStamp());
     event.setBlockHash(contractTrigger.getBlockHash());
 
-    if (matchFilter(contractTrigger)) {
+    matched = matchFilter(contractTrigger);
+    prepared = true;
+  }
+
+  @Override
+  public void processTrigger() {
+    if (!prepared) {
+      prepare();
+    }
+    LogInfo logInfo = contractTrigger.getLogInfo();
+
+    if (matched) {
       if (isEvent) {
         if (EventPluginLoader.getInstance().isContractEventTriggerEnable()) {
           EventPluginLoader.getInstance().postContractEventTrigger((ContractEventTrigger) event);
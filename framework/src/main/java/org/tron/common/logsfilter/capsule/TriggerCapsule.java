@@ -2,6 +2,13 @@ package org.tron.common.logsfilter.capsule;
 
 public class TriggerCapsule {
 
+  /**
+   * the work before the trigger is delivered that does not depend on the triggers before it,
+   * run ahead of {@link #processTrigger()} and possibly on another thread.
+   */
+  public void prepare() {
+  }
+
   public void processTrigger() {
     throw new UnsupportedOperationException();
   }
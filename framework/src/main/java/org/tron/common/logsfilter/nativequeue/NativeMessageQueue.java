@@ -71,4 +71,18 @@ public class NativeMessageQueue {
           e.getMessage());
     }
   }
+
+  public void publishTrigger(byte[] data, String topic) {
+    if (Objects.isNull(publisher) || Objects.isNull(context.isClosed()) || context.isClosed()) {
+      return;
+    }
+
+    try {
+      publisher.sendMore(topic);
+      publisher.send(data);
+    } catch (RuntimeException e) {
+      logger.error("write data to zeromq failed, size:{}, topic:{}, error:{}", data.length, topic,
+          e.getMessage());
+    }
+  }
 }
@@ -3,6 +3,7 @@ package org.tron.common.overlay.discover.node.statistics;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.common.net.udp.message.UdpMessageTypeEnum;
 import org.tron.common.overlay.message.Message;
+import org.tron.core.net.message.CompactInventoryMessage;
 import org.tron.core.net.message.FetchInvDataMessage;
 import org.tron.core.net.message.InventoryMessage;
 import org.tron.core.net.message.MessageTypes;
@@ -189,14 +190,28 @@ public class MessageStatistics {
                 tronOutBlockFetchInvData,tronOutBlockFetchInvDataElement,
                 flag, fetchSize);
         break;
+      case COMPACT_INVENTORY:
+        messageProcess(MessageTypes.TRX,
+                tronInTrxInventory,tronInTrxInventoryElement,tronInBlockInventory,
+                tronInBlockInventoryElement,tronOutTrxInventory,tronOutTrxInventoryElement,
+                tronOutBlockInventory,tronOutBlockInventoryElement,
+                flag, ((CompactInventoryMessage) msg).getIds().size());
+        break;
+      case FETCH_COMPACT_INV_DATA:
+        messageProcess(MessageTypes.TRX,
+                tronInTrxFetchInvData,tronInTrxFetchInvDataElement,tronInBlockFetchInvData,
+                tronInBlockFetchInvDataElement,tronOutTrxFetchInvData,tronOutTrxFetchInvDataElement,
+                tronOutBlockFetchInvData,tronOutBlockFetchInvDataElement,
+                flag, ((CompactInventoryMessage) msg).getIds().size());
+        break;
       case TRXS:
         TransactionsMessage transactionsMessage = (TransactionsMessage) msg;
         if (flag) {
           tronInTrxs.add();
-          tronInTrx.add(transactionsMessage.getTransactions().getTransactionsCount());
+          tronInTrx.add(transactionsMessage.getTransactionCount());
         } else {
           tronOutTrxs.add();
-          tronOutTrx.add(transactionsMessage.getTransactions().getTransactionsCount());
+          tronOutTrx.add(transactionsMessage.getTransactionCount());
         }
         break;
       case TRX:
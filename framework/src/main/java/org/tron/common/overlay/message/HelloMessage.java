@@ -12,6 +12,7 @@ import org.tron.core.capsule.BlockCapsule;
 import org.tron.core.config.args.Args;
 import org.tron.core.db.CommonStore;
 import org.tron.core.net.message.MessageTypes;
+import org.tron.core.net.service.CompactRelayService;
 import org.tron.protos.Discover.Endpoint;
 import org.tron.protos.Protocol;
 import org.tron.protos.Protocol.HelloMessage.Builder;
@@ -69,6 +70,9 @@ public class HelloMessage extends P2pMessage {
     builder.setHeadBlockId(hBlockId);
     builder.setNodeType(nodeType);
     builder.setLowestBlockNum(lowestBlockNum);
+    if (Args.getInstance().isCompactRelay()) {
+      builder.setCompactRelayKey(ByteString.copyFrom(CompactRelayService.getLocalKey()));
+    }
 
     this.helloMessage = builder.build();
     this.type = MessageTypes.P2P_HELLO.asByte();
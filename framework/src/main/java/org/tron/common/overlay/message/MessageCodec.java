@@ -30,10 +30,8 @@ public class MessageCodec extends ByteToMessageDecoder {
   protected void decode(ChannelHandlerContext ctx, ByteBuf buffer, List<Object> out)
       throws Exception {
     int length = buffer.readableBytes();
-    byte[] encoded = new byte[length];
-    buffer.readBytes(encoded);
     try {
-      Message msg = createMessage(encoded);
+      Message msg = createMessage(buffer);
       channel.getNodeStatistics().tcpFlow.add(length);
       MetricsUtil.meterMark(MetricsKey.NET_TCP_IN_TRAFFIC, length);
       Metrics.histogramObserve(MetricKeys.Histogram.TCP_BYTES, length,
@@ -41,6 +39,8 @@ public class MessageCodec extends ByteToMessageDecoder {
       out.add(msg);
     } catch (Exception e) {
       channel.processException(e);
+    } finally {
+      buffer.skipBytes(buffer.readableBytes());
     }
   }
 
@@ -48,18 +48,23 @@ public class MessageCodec extends ByteToMessageDecoder {
     this.channel = channel;
   }
 
-  private Message createMessage(byte[] encoded) throws Exception {
-    byte type = encoded[0];
+  private Message createMessage(ByteBuf buffer) throws Exception {
+    byte type = buffer.getByte(buffer.readerIndex());
+    if (MessageTypes.inTronRange(type)) {
+      // the body is copied once, straight from the frame
+      byte[] packed = new byte[buffer.readableBytes() - 1];
+      buffer.getBytes(buffer.readerIndex() + 1, packed);
+      return tronMessageFactory.create(type, packed);
+    }
+    byte[] encoded = new byte[buffer.readableBytes()];
+    buffer.getBytes(buffer.readerIndex(), encoded);
     if (MessageTypes.inP2pRange(type)) {
       return p2pMessageFactory.create(encoded);
     }
-    if (MessageTypes.inTronRange(type)) {
-      return tronMessageFactory.create(encoded);
-    }
     if (MessageTypes.inPbftRange(type)) {
       return pbftMessageFactory.create(encoded);
     }
-    throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE, "type=" + encoded[0]);
+    throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE, "type=" + type);
   }
 
 }
\ No newline at end of file
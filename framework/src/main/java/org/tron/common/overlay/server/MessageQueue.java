@@ -3,13 +3,11 @@ package org.tron.common.overlay.server;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -22,75 +20,54 @@ import org.tron.common.prometheus.Metrics;
 import org.tron.consensus.pbft.message.PbftBaseMessage;
 import org.tron.core.metrics.MetricsKey;
 import org.tron.core.metrics.MetricsUtil;
+import org.tron.core.net.message.CompactInventoryMessage;
 import org.tron.core.net.message.InventoryMessage;
 import org.tron.core.net.message.TransactionsMessage;
 import org.tron.protos.Protocol.Inventory.InventoryType;
 import org.tron.protos.Protocol.ReasonCode;
 
+/**
+ * Messages are written on the channel's event loop: an offer schedules one drain task
+ * that writes what is queued, blocks and pbft first, and flushes once per burst.
+ */
 @Slf4j(topic = "net")
 @Component
 @Scope("prototype")
 public class MessageQueue {
 
-  private static ScheduledExecutorService sendTimer =
-      Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "sendTimer"));
+  private static final int MAX_BURST = 64;
+  private static final long ROUND_TRIP_CHECK_INTERVAL = 1000;
   private volatile boolean sendMsgFlag = false;
   private volatile long sendTime;
   private volatile long sendPing;
-  private Thread sendMsgThread;
   private Channel channel;
   private ChannelHandlerContext ctx = null;
+  private String peer;
   private Queue<MessageRoundTrip> requestQueue = new ConcurrentLinkedQueue<>();
-  private BlockingQueue<Message> msgQueue = new LinkedBlockingQueue<>();
-  private ScheduledFuture<?> sendTask;
+  private Queue<Message> priorityQueue = new ConcurrentLinkedQueue<>();
+  private Queue<Message> msgQueue = new ConcurrentLinkedQueue<>();
+  private AtomicInteger prioritySize = new AtomicInteger();
+  private AtomicInteger msgSize = new AtomicInteger();
+  private AtomicBoolean drainScheduled = new AtomicBoolean(false);
+  private ScheduledFuture<?> roundTripTask;
 
 
   public void activate(ChannelHandlerContext ctx) {
 
     this.ctx = ctx;
+    this.peer = String.valueOf(ctx.channel().remoteAddress());
 
     sendMsgFlag = true;
 
-    sendTask = sendTimer.scheduleAtFixedRate(() -> {
+    roundTripTask = ctx.executor().scheduleWithFixedDelay(() -> {
       try {
-        if (sendMsgFlag) {
-          send();
-        }
+        checkRoundTrip();
       } catch (Exception e) {
         logger.error("Unhandled exception", e);
       }
-    }, 10, 10, TimeUnit.MILLISECONDS);
-
-    sendMsgThread = new Thread(() -> {
-      while (sendMsgFlag) {
-        try {
-          if (msgQueue.isEmpty()) {
-            Thread.sleep(10);
-            continue;
-          }
-          Message msg = msgQueue.take();
-          if (channel.isDisconnect()) {
-            logger.warn("Failed to send to {} as channel has closed, {}",
-                ctx.channel().remoteAddress(), msg);
-            msgQueue.clear();
-            return;
-          }
-          ctx.writeAndFlush(msg.getSendData()).addListener((ChannelFutureListener) future -> {
-            if (!future.isSuccess() && !channel.isDisconnect()) {
-              logger.warn("Failed to send to {}, {}", ctx.channel().remoteAddress(), msg);
-            }
-          });
-        } catch (InterruptedException e) {
-          logger.warn("Send message server interrupted.");
-          Thread.currentThread().interrupt();
-        } catch (Exception e) {
-          logger.error("Failed to send to {}, error info: {}", ctx.channel().remoteAddress(),
-              e.getMessage());
-        }
-      }
-    });
-    sendMsgThread.setName("sendMsgThread-" + ctx.channel().remoteAddress());
-    sendMsgThread.start();
+    }, ROUND_TRIP_CHECK_INTERVAL, ROUND_TRIP_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+
+    scheduleDrain();
   }
 
   public void setChannel(Channel channel) {
@@ -131,9 +108,14 @@ public class MessageQueue {
     sendTime = System.currentTimeMillis();
     if (msg.getAnswerMessage() != null) {
       requestQueue.add(new MessageRoundTrip(msg));
+    } else if (isPriority(msg)) {
+      priorityQueue.offer(msg);
+      prioritySize.incrementAndGet();
     } else {
       msgQueue.offer(msg);
+      msgSize.incrementAndGet();
     }
+    scheduleDrain();
     return true;
   }
 
@@ -149,25 +131,25 @@ public class MessageQueue {
         channel.getNodeStatistics().pingMessageLatency
             .add(System.currentTimeMillis() - rt.getTime());
       }
+      if (!requestQueue.isEmpty()) {
+        scheduleDrain();
+      }
     }
   }
 
   public void close() {
     sendMsgFlag = false;
-    if (sendTask != null && !sendTask.isCancelled()) {
-      sendTask.cancel(true);
-      sendTask = null;
+    if (roundTripTask != null && !roundTripTask.isCancelled()) {
+      roundTripTask.cancel(false);
+      roundTripTask = null;
     }
-    if (sendMsgThread != null) {
-      try {
-        sendMsgThread.join(20);
-        sendMsgThread = null;
-      } catch (InterruptedException e) {
-        logger.warn("Send message join interrupted.");
-        Thread.currentThread().interrupt();
-      } catch (Exception e) {
-        logger.warn("Join send thread failed, peer {}", ctx.channel().remoteAddress());
-      }
+    priorityQueue.clear();
+    msgQueue.clear();
+    if (peer != null) {
+      Metrics.gaugeRemove(MetricKeys.Gauge.PEER_SEND_QUEUE, peer,
+          MetricLabels.Gauge.SEND_QUEUE_PRIORITY);
+      Metrics.gaugeRemove(MetricKeys.Gauge.PEER_SEND_QUEUE, peer,
+          MetricLabels.Gauge.SEND_QUEUE_NORMAL);
     }
   }
 
@@ -175,6 +157,7 @@ public class MessageQueue {
     if (msg instanceof PingMessage
         || msg instanceof PongMessage
         || msg instanceof TransactionsMessage
+        || msg instanceof CompactInventoryMessage
         || msg instanceof PbftBaseMessage) {
       return false;
     }
@@ -187,32 +170,87 @@ public class MessageQueue {
     return true;
   }
 
-  private void send() {
-    MessageRoundTrip rt = requestQueue.peek();
-    if (!sendMsgFlag || rt == null) {
-      return;
+  private boolean isPriority(Message msg) {
+    if (msg instanceof TransactionsMessage || msg instanceof CompactInventoryMessage) {
+      return false;
+    }
+    return !(msg instanceof InventoryMessage
+        && ((InventoryMessage) msg).getInventoryType().equals(InventoryType.TRX));
+  }
+
+  private void scheduleDrain() {
+    if (ctx != null && sendMsgFlag && drainScheduled.compareAndSet(false, true)) {
+      ctx.executor().execute(this::drain);
     }
-    if (rt.getRetryTimes() > 0 && !rt.hasToRetry()) {
+  }
+
+  private void drain() {
+    drainScheduled.set(false);
+    if (!sendMsgFlag) {
       return;
     }
-    if (rt.getRetryTimes() > 0) {
-      channel.getNodeStatistics().nodeDisconnectedLocal(ReasonCode.PING_TIMEOUT);
-      logger.warn("Wait {} timeout. close channel {}.",
-          rt.getMsg().getAnswerMessage(), ctx.channel().remoteAddress());
-      channel.close();
+    if (channel.isDisconnect()) {
+      logger.warn("Failed to send to {} as channel has closed, queued {}",
+          ctx.channel().remoteAddress(), prioritySize.get() + msgSize.get());
+      priorityQueue.clear();
+      msgQueue.clear();
       return;
     }
+    boolean written = sendRoundTrip();
+    int count = 0;
+    while (count < MAX_BURST) {
+      Message msg = priorityQueue.poll();
+      if (msg != null) {
+        prioritySize.decrementAndGet();
+      } else if ((msg = msgQueue.poll()) != null) {
+        msgSize.decrementAndGet();
+      } else {
+        break;
+      }
+      write(msg);
+      count++;
+    }
+    if (written || count > 0) {
+      ctx.flush();
+    }
+    Metrics.gaugeSet(MetricKeys.Gauge.PEER_SEND_QUEUE, prioritySize.get(), peer,
+        MetricLabels.Gauge.SEND_QUEUE_PRIORITY);
+    Metrics.gaugeSet(MetricKeys.Gauge.PEER_SEND_QUEUE, msgSize.get(), peer,
+        MetricLabels.Gauge.SEND_QUEUE_NORMAL);
+    // yield the event loop to other channels before writing the rest
+    if (!priorityQueue.isEmpty() || !msgQueue.isEmpty()) {
+      scheduleDrain();
+    }
+  }
 
-    Message msg = rt.getMsg();
-
-    ctx.writeAndFlush(msg.getSendData()).addListener((ChannelFutureListener) future -> {
-      if (!future.isSuccess()) {
-        logger.warn("Fail send to {}, {}", ctx.channel().remoteAddress(), msg);
+  private void write(Message msg) {
+    ctx.write(msg.getSendData()).addListener((ChannelFutureListener) future -> {
+      if (!future.isSuccess() && !channel.isDisconnect()) {
+        logger.warn("Failed to send to {}, {}", ctx.channel().remoteAddress(), msg);
       }
     });
+  }
 
+  private boolean sendRoundTrip() {
+    MessageRoundTrip rt = requestQueue.peek();
+    if (rt == null || rt.getRetryTimes() > 0) {
+      return false;
+    }
+    write(rt.getMsg());
     rt.incRetryTimes();
     rt.saveTime();
+    return true;
+  }
+
+  private void checkRoundTrip() {
+    MessageRoundTrip rt = requestQueue.peek();
+    if (!sendMsgFlag || rt == null || rt.getRetryTimes() == 0 || !rt.hasToRetry()) {
+      return;
+    }
+    channel.getNodeStatistics().nodeDisconnectedLocal(ReasonCode.PING_TIMEOUT);
+    logger.warn("Wait {} timeout. close channel {}.",
+        rt.getMsg().getAnswerMessage(), ctx.channel().remoteAddress());
+    channel.close();
   }
 
 }
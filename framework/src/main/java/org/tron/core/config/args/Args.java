@@ -780,6 +780,26 @@ public class Args extends CommonParameter {
             .getInt(Constant.NODE_VALIDATE_SIGN_THREAD_NUM)
             : (Runtime.getRuntime().availableProcessors() + 1) / 2;
 
+    PARAMETER.signatureCacheSize =
+        config.hasPath(Constant.NODE_SIGNATURE_CACHE_SIZE) ? config
+            .getInt(Constant.NODE_SIGNATURE_CACHE_SIZE) : 100_000;
+
+    PARAMETER.blockPrefetchThreadNum =
+        config.hasPath(Constant.NODE_BLOCK_PREFETCH_THREAD_NUM) ? config
+            .getInt(Constant.NODE_BLOCK_PREFETCH_THREAD_NUM) : 2;
+
+    PARAMETER.parallelExecutionThreadNum =
+        config.hasPath(Constant.NODE_PARALLEL_EXECUTION_THREAD_NUM) ? config
+            .getInt(Constant.NODE_PARALLEL_EXECUTION_THREAD_NUM) : 0;
+
+    PARAMETER.parallelExecutionVerify =
+        config.hasPath(Constant.NODE_PARALLEL_EXECUTION_VERIFY)
+            && config.getBoolean(Constant.NODE_PARALLEL_EXECUTION_VERIFY);
+
+    PARAMETER.compactRelay =
+        config.hasPath(Constant.NODE_COMPACT_RELAY)
+            && config.getBoolean(Constant.NODE_COMPACT_RELAY);
+
     PARAMETER.walletExtensionApi =
         config.hasPath(Constant.NODE_WALLET_EXTENSION_API)
             && config.getBoolean(Constant.NODE_WALLET_EXTENSION_API);
@@ -1140,6 +1160,23 @@ public class Args extends CommonParameter {
       }
     }
 
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_ENCODING)) {
+      eventPluginConfig.setEncoding(config.getString(Constant.EVENT_SUBSCRIBE_ENCODING).trim());
+    }
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_THREADS)) {
+      eventPluginConfig.setPipelineThreads(config.getInt(Constant.EVENT_SUBSCRIBE_THREADS));
+    }
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_QUEUE_SIZE)) {
+      eventPluginConfig.setPipelineQueueSize(config.getInt(Constant.EVENT_SUBSCRIBE_QUEUE_SIZE));
+    }
+
+    if (config.hasPath(Constant.EVENT_SUBSCRIBE_FULL_POLICY)) {
+      eventPluginConfig.setPipelineFullPolicy(
+          config.getString(Constant.EVENT_SUBSCRIBE_FULL_POLICY).trim());
+    }
+
     if (config.hasPath(Constant.EVENT_SUBSCRIBE_TOPICS)) {
       List<TriggerConfig> triggerConfigList = config.getObjectList(Constant.EVENT_SUBSCRIBE_TOPICS)
           .stream()
@@ -19,6 +19,7 @@ import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.exception.AccountResourceInsufficientException;
 import org.tron.core.exception.ContractValidateException;
 import org.tron.core.exception.TooBigTransactionResultException;
+import org.tron.core.store.DynamicPropertiesStore;
 import org.tron.protos.Protocol.Transaction.Contract;
 import org.tron.protos.contract.AssetIssueContractOuterClass.TransferAssetContract;
 import org.tron.protos.contract.BalanceContract.TransferContract;
@@ -384,6 +385,43 @@ public class BandwidthProcessor extends ResourceProcessor {
     return (long) (netWeight * ((double) totalNetLimit / totalNetWeight));
   }
 
+  /**
+   * the bandwidth charged for a transaction with a single contract.
+   */
+  public long getBytesSize(TransactionCapsule trx) {
+    if (chainBaseManager.getDynamicPropertiesStore().supportVM()) {
+      return trx.getInstance().toBuilder().clearRet().build().getSerializedSize()
+          + Constant.MAX_RESULT_SIZE_IN_TX;
+    }
+    return trx.getSerializedSize();
+  }
+
+  /**
+   * the bandwidth the account has left of its own, staked or delegated to it.
+   */
+  public long getAccountNetLeft(AccountCapsule accountCapsule, long now) {
+    return calculateGlobalNetLimit(accountCapsule)
+        - increase(accountCapsule.getNetUsage(), 0, accountCapsule.getLatestConsumeTime(), now);
+  }
+
+  /**
+   * the free bandwidth the account has left.
+   */
+  public long getFreeNetLeft(AccountCapsule accountCapsule, long now) {
+    return chainBaseManager.getDynamicPropertiesStore().getFreeNetLimit()
+        - increase(accountCapsule.getFreeNetUsage(), 0,
+        accountCapsule.getLatestConsumeFreeTime(), now);
+  }
+
+  /**
+   * the public bandwidth left, which every free bandwidth use is also charged to.
+   */
+  public long getPublicNetLeft(long now) {
+    DynamicPropertiesStore store = chainBaseManager.getDynamicPropertiesStore();
+    return store.getPublicNetLimit()
+        - increase(store.getPublicNetUsage(), 0, store.getPublicNetTime(), now);
+  }
+
   private boolean useAccountNet(AccountCapsule accountCapsule, long bytes, long now) {
 
     long netUsage = accountCapsule.getNetUsage();
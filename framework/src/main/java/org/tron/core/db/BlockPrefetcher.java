@@ -0,0 +1,174 @@
+package org.tron.core.db;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.Metrics;
+import org.tron.core.ChainBaseManager;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.db2.core.SnapshotRoot;
+import org.tron.protos.Protocol.Transaction.Contract;
+import org.tron.protos.contract.AssetIssueContractOuterClass.ParticipateAssetIssueContract;
+import org.tron.protos.contract.AssetIssueContractOuterClass.TransferAssetContract;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+/**
+ * Reads the state a block is going to touch into the snapshot roots while its
+ * signatures are validated. The read set is extracted statically from the
+ * transactions: owner and receiver accounts, called contracts and their code,
+ * and the assets that are transferred. Execution itself stays sequential, the
+ * prefetched values are only served while no layer above the root has the key.
+ */
+@Slf4j(topic = "DB")
+public class BlockPrefetcher {
+
+  private final ChainBaseManager chainBaseManager;
+  private final ExecutorService executor;
+  private List<SnapshotRoot> active = Collections.emptyList();
+
+  public BlockPrefetcher(ChainBaseManager chainBaseManager, int threadNum) {
+    this.chainBaseManager = chainBaseManager;
+    this.executor = threadNum > 0 ? Executors.newFixedThreadPool(threadNum,
+        new ThreadFactoryBuilder().setNameFormat("block-prefetch-%d").setDaemon(true).build())
+        : null;
+  }
+
+  public void start(BlockCapsule block) {
+    // a block that failed before finish must not leave its window open
+    active.forEach(SnapshotRoot::stopPrefetch);
+    active = Collections.emptyList();
+    if (executor == null || block.getTransactions().isEmpty()) {
+      return;
+    }
+    SnapshotRoot accounts = chainBaseManager.getAccountStore().getSnapshotRoot();
+    SnapshotRoot contracts = chainBaseManager.getContractStore().getSnapshotRoot();
+    SnapshotRoot codes = chainBaseManager.getCodeStore().getSnapshotRoot();
+    SnapshotRoot assets = chainBaseManager.getAssetIssueV2Store().getSnapshotRoot();
+    if (accounts == null || contracts == null || codes == null || assets == null) {
+      return;
+    }
+    List<SnapshotRoot> roots = new ArrayList<>(4);
+    roots.add(accounts);
+    roots.add(contracts);
+    roots.add(codes);
+    roots.add(assets);
+    roots.forEach(SnapshotRoot::startPrefetch);
+    active = roots;
+
+    List<TransactionCapsule> txs = block.getTransactions();
+    try {
+      executor.execute(() -> {
+        Map<SnapshotRoot, Set<WrappedByteArray>> readSet = new LinkedHashMap<>();
+        roots.forEach(root -> readSet.put(root, new LinkedHashSet<>()));
+        for (TransactionCapsule tx : txs) {
+          for (Contract contract : tx.getInstance().getRawData().getContractList()) {
+            collect(contract, readSet.get(accounts), readSet.get(contracts),
+                readSet.get(codes), readSet.get(assets));
+          }
+        }
+        readSet.forEach((root, keys) -> {
+          List<byte[]> list = new ArrayList<>(keys.size());
+          keys.forEach(k -> list.add(k.getBytes()));
+          submit(root, list);
+        });
+      });
+    } catch (RejectedExecutionException e) {
+      logger.warn("block {} prefetch rejected", block.getNum());
+    }
+  }
+
+  public void finish(BlockCapsule block) {
+    if (active.isEmpty()) {
+      return;
+    }
+    long reads = 0;
+    long hits = 0;
+    for (SnapshotRoot root : active) {
+      root.stopPrefetch();
+      long dbReads = root.getPrefetchReads();
+      long dbHits = root.getPrefetchHits();
+      reads += dbReads;
+      hits += dbHits;
+      Metrics.gaugeSet(MetricKeys.Gauge.BLOCK_PREFETCH_HIT_RATIO,
+          dbReads == 0 ? 0 : (double) dbHits / dbReads, root.getDbName());
+    }
+    active = Collections.emptyList();
+    logger.debug("block {} prefetch hit ratio {}/{}", block.getNum(), hits, reads);
+  }
+
+  private void submit(SnapshotRoot root, List<byte[]> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          root.prefetch(keys);
+        } catch (RuntimeException e) {
+          logger.debug("prefetch {} failed: {}", root.getDbName(), e.getMessage());
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      logger.debug("prefetch {} rejected", root.getDbName());
+    }
+  }
+
+  private static void collect(Contract contract, Set<WrappedByteArray> accounts,
+      Set<WrappedByteArray> contracts, Set<WrappedByteArray> codes,
+      Set<WrappedByteArray> assets) {
+    add(accounts, TransactionCapsule.getOwner(contract));
+    add(accounts, TransactionCapsule.getToAddress(contract));
+    Any parameter = contract.getParameter();
+    try {
+      switch (contract.getType()) {
+        case TriggerSmartContract: {
+          TriggerSmartContract trigger = parameter.unpack(TriggerSmartContract.class);
+          byte[] address = trigger.getContractAddress().toByteArray();
+          add(accounts, address);
+          add(contracts, address);
+          add(codes, address);
+          if (trigger.getTokenId() > 0) {
+            add(assets, String.valueOf(trigger.getTokenId()).getBytes());
+          }
+          break;
+        }
+        case TransferAssetContract:
+          add(assets, parameter.unpack(TransferAssetContract.class).getAssetName());
+          break;
+        case ParticipateAssetIssueContract:
+          add(assets, parameter.unpack(ParticipateAssetIssueContract.class).getAssetName());
+          break;
+        default:
+          break;
+      }
+    } catch (InvalidProtocolBufferException e) {
+      // the transaction fails validation later, nothing to read ahead
+    }
+  }
+
+  private static void add(Set<WrappedByteArray> keys, ByteString key) {
+    add(keys, key.toByteArray());
+  }
+
+  private static void add(Set<WrappedByteArray> keys, byte[] key) {
+    if (ArrayUtils.isNotEmpty(key)) {
+      keys.add(WrappedByteArray.of(key));
+    }
+  }
+}
@@ -14,7 +14,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -25,16 +24,15 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import lombok.Getter;
@@ -47,8 +45,10 @@ import org.springframework.stereotype.Component;
 import org.tron.api.GrpcAPI.TransactionInfoList;
 import org.tron.common.args.GenesisBlock;
 import org.tron.common.bloom.Bloom;
+import org.tron.common.logsfilter.EventPluginConfig;
 import org.tron.common.logsfilter.EventPluginLoader;
 import org.tron.common.logsfilter.FilterQuery;
+import org.tron.common.logsfilter.TriggerPipeline;
 import org.tron.common.logsfilter.capsule.BlockFilterCapsule;
 import org.tron.common.logsfilter.capsule.BlockLogTriggerCapsule;
 import org.tron.common.logsfilter.capsule.ContractTriggerCapsule;
@@ -56,7 +56,6 @@ import org.tron.common.logsfilter.capsule.FilterTriggerCapsule;
 import org.tron.common.logsfilter.capsule.LogsFilterCapsule;
 import org.tron.common.logsfilter.capsule.SolidityTriggerCapsule;
 import org.tron.common.logsfilter.capsule.TransactionLogTriggerCapsule;
-import org.tron.common.logsfilter.capsule.TriggerCapsule;
 import org.tron.common.logsfilter.trigger.ContractEventTrigger;
 import org.tron.common.logsfilter.trigger.ContractLogTrigger;
 import org.tron.common.logsfilter.trigger.ContractTrigger;
@@ -68,7 +67,6 @@ import org.tron.common.prometheus.MetricLabels;
 import org.tron.common.prometheus.Metrics;
 import org.tron.common.runtime.RuntimeImpl;
 import org.tron.common.utils.ByteArray;
-import org.tron.common.utils.JsonUtil;
 import org.tron.common.utils.Pair;
 import org.tron.common.utils.SessionOptional;
 import org.tron.common.utils.Sha256Hash;
@@ -205,8 +203,9 @@ public class Manager {
   @Setter
   private MerkleContainer merkleContainer;
   private ExecutorService validateSignService;
+  private BlockPrefetcher blockPrefetcher;
+  private ParallelBlockExecutor parallelBlockExecutor;
   private boolean isRunRePushThread = true;
-  private boolean isRunTriggerCapsuleProcessThread = true;
   private BlockingQueue<TransactionCapsule> pushTransactionQueue = new LinkedBlockingQueue<>();
   @Getter
   private Cache<Sha256Hash, Boolean> transactionIdCache = CacheBuilder
@@ -216,7 +215,8 @@ public class Manager {
   private AccountStateCallBack accountStateCallBack;
   @Autowired
   private TrieService trieService;
-  private Set<String> ownerAddressSet = new HashSet<>();
+  // written by the parallel block executor from several threads
+  private Set<String> ownerAddressSet = ConcurrentHashMap.newKeySet();
   @Getter
   @Autowired
   private MortgageService mortgageService;
@@ -226,15 +226,22 @@ public class Manager {
   @Getter
   private ChainBaseManager chainBaseManager;
   // transactions cache
-  private BlockingQueue<TransactionCapsule> pendingTransactions;
+  private TransactionPool pendingTransactions;
   @Getter
   private AtomicInteger shieldedTransInPendingCounts = new AtomicInteger(0);
+  // pending transactions kept across a block without being executed again
+  @Getter
+  private PendingTransactionIndex pendingTransactionIndex = new PendingTransactionIndex();
+  // transactions evicted from the full pending pool, their effects stay in the pending
+  // state until the next block resets it and re-pushes them
+  @Getter
+  private List<TransactionCapsule> evictedTransactions = new ArrayList<>();
   // transactions popped
   private List<TransactionCapsule> poppedTransactions =
       Collections.synchronizedList(Lists.newArrayList());
   // the capacity is equal to Integer.MAX_VALUE default
-  private BlockingQueue<TransactionCapsule> rePushTransactions;
-  private BlockingQueue<TriggerCapsule> triggerCapsuleQueue;
+  private TransactionPool rePushTransactions;
+  private TriggerPipeline triggerPipeline;
   // log filter
   private boolean isRunFilterProcessThread = true;
   private BlockingQueue<FilterTriggerCapsule> filterCapsuleQueue;
@@ -279,23 +286,6 @@ public class Manager {
           }
         }
       };
-  private Runnable triggerCapsuleProcessLoop =
-      () -> {
-        while (isRunTriggerCapsuleProcessThread) {
-          try {
-            TriggerCapsule triggerCapsule = triggerCapsuleQueue.poll(1, TimeUnit.SECONDS);
-            if (triggerCapsule != null) {
-              triggerCapsule.processTrigger();
-            }
-          } catch (InterruptedException ex) {
-            logger.info(ex.getMessage());
-            Thread.currentThread().interrupt();
-          } catch (Throwable throwable) {
-            logger.error("unknown throwable happened in process capsule loop", throwable);
-          }
-        }
-      };
-
   private Runnable filterProcessLoop =
       () -> {
         while (isRunFilterProcessThread) {
@@ -313,9 +303,6 @@ public class Manager {
         }
       };
 
-  private Comparator downComparator = (Comparator<TransactionCapsule>) (o1, o2) -> Long
-      .compare(o2.getOrder(), o1.getOrder());
-
   public WitnessStore getWitnessStore() {
     return chainBaseManager.getWitnessStore();
   }
@@ -413,6 +400,10 @@ public class Manager {
     return this.pendingTransactions;
   }
 
+  public TransactionCapsule getPendingTransaction(Sha256Hash id) {
+    return pendingTransactions.get(id);
+  }
+
   public List<TransactionCapsule> getPoppedTransactions() {
     return this.poppedTransactions;
   }
@@ -426,7 +417,9 @@ public class Manager {
   }
 
   public void stopRePushTriggerThread() {
-    isRunTriggerCapsuleProcessThread = false;
+    if (triggerPipeline != null) {
+      triggerPipeline.stop();
+    }
   }
 
   public void stopFilterProcessThread() {
@@ -448,14 +441,10 @@ public class Manager {
     this.setMerkleContainer(
         merkleContainer.createInstance(chainBaseManager.getMerkleTreeStore(),
             chainBaseManager.getMerkleTreeIndexStore()));
-    if (Args.getInstance().isOpenTransactionSort()) {
-      this.pendingTransactions = new PriorityBlockingQueue(2000, downComparator);
-      this.rePushTransactions = new PriorityBlockingQueue<>(2000, downComparator);
-    } else {
-      this.pendingTransactions = new LinkedBlockingQueue<>();
-      this.rePushTransactions = new LinkedBlockingQueue<>();
-    }
-    this.triggerCapsuleQueue = new LinkedBlockingQueue<>();
+    boolean sortByFee = Args.getInstance().isOpenTransactionSort();
+    this.pendingTransactions = new TransactionPool(sortByFee, maxTransactionPendingSize,
+        this::evictPending);
+    this.rePushTransactions = new TransactionPool(sortByFee, Integer.MAX_VALUE, null);
     this.filterCapsuleQueue = new LinkedBlockingQueue<>();
     chainBaseManager.setMerkleContainer(getMerkleContainer());
     chainBaseManager.setMortgageService(mortgageService);
@@ -514,19 +503,28 @@ public class Manager {
     revokingStore.enable();
     validateSignService = Executors
         .newFixedThreadPool(Args.getInstance().getValidateSignThreadNum());
+    blockPrefetcher = new BlockPrefetcher(chainBaseManager,
+        Args.getInstance().getBlockPrefetchThreadNum());
+    parallelBlockExecutor = new ParallelBlockExecutor(this, chainBaseManager,
+        Args.getInstance().getParallelExecutionThreadNum(),
+        Args.getInstance().isParallelExecutionVerify());
     Thread rePushThread = new Thread(rePushLoop);
     rePushThread.setDaemon(true);
     rePushThread.start();
     // add contract event listener for subscribing
     if (Args.getInstance().isEventSubscribe()) {
+      EventPluginConfig eventPluginConfig = Objects.isNull(Args.getInstance()
+          .getEventPluginConfig()) ? new EventPluginConfig()
+          : Args.getInstance().getEventPluginConfig();
+      triggerPipeline = new TriggerPipeline(eventPluginConfig.getPipelineThreads(),
+          eventPluginConfig.getPipelineQueueSize(), eventPluginConfig.getPipelineFullPolicy());
       startEventSubscribing();
-      Thread triggerCapsuleProcessThread = new Thread(triggerCapsuleProcessLoop);
-      triggerCapsuleProcessThread.setDaemon(true);
-      triggerCapsuleProcessThread.start();
+      triggerPipeline.start();
     }
 
     // start json rpc filter process
     if (CommonParameter.getInstance().isJsonRpcFilterEnabled()) {
+      chainBaseManager.getSectionBloomStore().recover(headNum);
       Thread filterProcessThread = new Thread(filterProcessLoop);
       filterProcessThread.start();
     }
@@ -747,7 +745,7 @@ public class Manager {
   }
 
 
-  private boolean containsTransaction(byte[] transactionId) {
+  public boolean containsTransaction(byte[] transactionId) {
     if (transactionCache != null && !transactionCache.has(transactionId)) {
       // using the bloom filter only determines non-existent transaction
       return false;
@@ -781,38 +779,11 @@ public class Manager {
       }
 
       synchronized (transactionLock) {
-        while (true) {
-          try {
-            if (isBlockWaitingLock()) {
-              TimeUnit.MILLISECONDS.sleep(SLEEP_FOR_WAIT_LOCK);
-            } else {
-              break;
-            }
-          } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.debug("the wait has been interrupted");
-          }
-        }
+        waitForBlockLock();
         synchronized (this) {
-          if (isShieldedTransaction(trx.getInstance())
-                  && shieldedTransInPendingCounts.get() >= shieldedTransInPendingMaxCounts) {
+          if (!addToPending(trx)) {
             return false;
           }
-          if (!session.valid()) {
-            session.setValue(revokingStore.buildSession());
-          }
-
-          try (ISession tmpSession = revokingStore.buildSession()) {
-            processTransaction(trx, null);
-            trx.setTrxTrace(null);
-            pendingTransactions.add(trx);
-            Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, 1,
-                    MetricLabels.Gauge.QUEUE_PENDING);
-            tmpSession.merge();
-          }
-          if (isShieldedTransaction(trx.getInstance())) {
-            shieldedTransInPendingCounts.incrementAndGet();
-          }
         }
       }
     } finally {
@@ -824,6 +795,148 @@ public class Manager {
     return true;
   }
 
+  /**
+   * push a batch of transactions into pending, taking the transaction lock once per batch
+   * unless a block is waiting for it. The result holds the failure of each transaction,
+   * null if it was accepted.
+   */
+  public List<Exception> pushTransactions(List<TransactionCapsule> trxs) {
+    List<Exception> results = new ArrayList<>(Collections.nCopies(trxs.size(), null));
+    List<Integer> valid = new ArrayList<>(trxs.size());
+    for (int i = 0; i < trxs.size(); i++) {
+      TransactionCapsule trx = trxs.get(i);
+      if (isShieldedTransaction(trx.getInstance()) && !Args.getInstance()
+          .isFullNodeAllowShieldedTransactionArgs()) {
+        continue;
+      }
+      try {
+        if (!trx.validateSignature(chainBaseManager.getAccountStore(),
+            chainBaseManager.getDynamicPropertiesStore())) {
+          throw new ValidateSignatureException("trans sig validate failed");
+        }
+        valid.add(i);
+        pushTransactionQueue.add(trx);
+      } catch (ValidateSignatureException e) {
+        results.set(i, e);
+      }
+    }
+    Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, valid.size(),
+        MetricLabels.Gauge.QUEUE_QUEUED);
+    int next = 0;
+    try {
+      while (next < valid.size()) {
+        synchronized (transactionLock) {
+          waitForBlockLock();
+          synchronized (this) {
+            do {
+              int index = valid.get(next);
+              try {
+                addToPending(trxs.get(index));
+              } catch (Exception e) {
+                results.set(index, e);
+              }
+              if (pushTransactionQueue.remove(trxs.get(index))) {
+                Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
+                    MetricLabels.Gauge.QUEUE_QUEUED);
+              }
+            } while (++next < valid.size() && !isBlockWaitingLock());
+          }
+        }
+      }
+    } finally {
+      for (; next < valid.size(); next++) {
+        if (pushTransactionQueue.remove(trxs.get(valid.get(next)))) {
+          Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
+              MetricLabels.Gauge.QUEUE_QUEUED);
+        }
+      }
+    }
+    return results;
+  }
+
+  private void waitForBlockLock() {
+    while (true) {
+      try {
+        if (isBlockWaitingLock()) {
+          TimeUnit.MILLISECONDS.sleep(SLEEP_FOR_WAIT_LOCK);
+        } else {
+          break;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        logger.debug("the wait has been interrupted");
+      }
+    }
+  }
+
+  private boolean addToPending(TransactionCapsule trx)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, DupTransactionException, TaposException,
+      TooBigTransactionException, TransactionExpirationException,
+      ReceiptCheckErrException, VMIllegalException, TooBigTransactionResultException {
+    if (isShieldedTransaction(trx.getInstance())
+        && shieldedTransInPendingCounts.get() >= shieldedTransInPendingMaxCounts) {
+      return false;
+    }
+    if (pendingTransactionIndex.contains(trx)) {
+      throw new DupTransactionException("dup trans");
+    }
+    if (!session.valid()) {
+      session.setValue(revokingStore.buildSession());
+    }
+    pendingTransactionIndex.take(PendingTransactionIndex.getAccounts(trx))
+        .forEach(this::applyDeferred);
+
+    try (ISession tmpSession = revokingStore.buildSession()) {
+      processTransaction(trx, null);
+      trx.setTrxTrace(null);
+      // a full pool only takes a transaction better than its worst, otherwise the
+      // session is revoked on close
+      if (!pendingTransactions.offer(trx)) {
+        Metrics.counterInc(MetricKeys.Counter.TXS, 1,
+            MetricLabels.Counter.TXS_FAIL, MetricLabels.Counter.TXS_FAIL_EVICTED);
+        return false;
+      }
+      Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, 1,
+          MetricLabels.Gauge.QUEUE_PENDING);
+      tmpSession.merge();
+    }
+    if (isShieldedTransaction(trx.getInstance())) {
+      shieldedTransInPendingCounts.incrementAndGet();
+    }
+    return true;
+  }
+
+  /**
+   * applies a pending transaction kept across a block to the pending state, before a
+   * transaction touching the same accounts is validated against it.
+   */
+  private void applyDeferred(TransactionCapsule trx) {
+    if (!pendingTransactions.contains(trx)) {
+      return;
+    }
+    try (ISession tmpSession = revokingStore.buildSession()) {
+      processTransaction(trx, null);
+      trx.setTrxTrace(null);
+      tmpSession.merge();
+    } catch (Exception e) {
+      if (pendingTransactions.remove(trx)) {
+        Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
+            MetricLabels.Gauge.QUEUE_PENDING);
+      }
+      logger.debug("drop pending trx {}: {}", trx.getTransactionId(), e.getMessage());
+    }
+  }
+
+  private void evictPending(TransactionCapsule trx) {
+    evictedTransactions.add(trx);
+    Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
+        MetricLabels.Gauge.QUEUE_PENDING);
+    if (Args.getInstance().isOpenPrintLog()) {
+      logger.warn("[evicted] remove tx from pending, txId:{}", trx.getTransactionId());
+    }
+  }
+
   public void consumeMultiSignFee(TransactionCapsule trx, TransactionTrace trace)
       throws AccountResourceInsufficientException {
     if (trx.getInstance().getSignatureCount() > 1) {
@@ -1120,13 +1233,14 @@ public class Manager {
           latestSolidityNumShutDown = block.getNum();
         }
 
-        try (PendingManager pm = new PendingManager(this)) {
+        try (PendingManager pm = new PendingManager(this, block)) {
 
           if (!block.generatedByMyself) {
-            if (!block.calcMerkleRoot().equals(block.getMerkleRoot())) {
+            Sha256Hash merkleRoot = block.calcMerkleRoot();
+            if (!merkleRoot.equals(block.getMerkleRoot())) {
               logger.warn(
                       "The merkle root doesn't match, Calc result is "
-                              + block.calcMerkleRoot()
+                              + merkleRoot
                               + " , the headers is "
                               + block.getMerkleRoot());
               throw new BadBlockException("The merkle hash is not validated");
@@ -1442,6 +1556,7 @@ public class Manager {
         blockTime, miner.getWitnessAddress());
     blockCapsule.generatedByMyself = true;
     session.reset();
+    pendingTransactionIndex.clear();
     session.setValue(revokingStore.buildSession());
 
     accountStateCallBack.preExecute(blockCapsule);
@@ -1484,7 +1599,7 @@ public class Manager {
       }
 
       if (fromPending) {
-        pendingTransactions.poll();
+        pendingTransactions.remove(trx);
         Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
                 MetricLabels.Gauge.QUEUE_PENDING);
       }
@@ -1501,7 +1616,7 @@ public class Manager {
       }
 
       // check the block size
-      if ((blockCapsule.getInstance().getSerializedSize() + trx.getSerializedSize() + 3)
+      if ((blockCapsule.getSerializedSize() + trx.getSerializedSize() + 3)
           > ChainConstant.BLOCK_SIZE) {
         postponedTrxCount++;
         continue;
@@ -1626,6 +1741,8 @@ public class Manager {
 
     //reset BlockEnergyUsage
     chainBaseManager.getDynamicPropertiesStore().saveBlockEnergyUsage(0);
+    //read the block state ahead of execution while the signatures are checked
+    blockPrefetcher.start(block);
     //parallel check sign
     if (!block.generatedByMyself) {
       try {
@@ -1641,11 +1758,15 @@ public class Manager {
     try {
       merkleContainer.resetCurrentMerkleTree();
       accountStateCallBack.preExecute(block);
+      boolean parallel = parallelBlockExecutor.isEnabled(block);
       for (TransactionCapsule transactionCapsule : block.getTransactions()) {
         transactionCapsule.setBlockNum(block.getNum());
         if (block.generatedByMyself) {
           transactionCapsule.setVerified(true);
         }
+        if (parallel) {
+          continue;
+        }
         accountStateCallBack.preExeTrans();
         TransactionInfo result = processTransaction(transactionCapsule, block);
         accountStateCallBack.exeTransFinish();
@@ -1653,9 +1774,13 @@ public class Manager {
           transactionRetCapsule.addTransactionInfo(result);
         }
       }
+      if (parallel) {
+        parallelBlockExecutor.execute(block).forEach(transactionRetCapsule::addTransactionInfo);
+      }
       accountStateCallBack.executePushFinish();
     } finally {
       accountStateCallBack.exceptionFinish();
+      blockPrefetcher.finish(block);
     }
     merkleContainer.saveCurrentMerkleTreeAsBestMerkleTree(block.getNum());
     block.setResult(transactionRetCapsule);
@@ -1796,7 +1921,7 @@ public class Manager {
     RecentTransactionItem item = new RecentTransactionItem(block.getNum(), list);
     chainBaseManager.getRecentTransactionStore().put(
             ByteArray.subArray(ByteArray.fromLong(block.getNum()), 6, 8),
-            new BytesCapsule(JsonUtil.obj2Json(item).getBytes()));
+            new BytesCapsule(item.toBytes()));
   }
 
   public void updateFork(BlockCapsule block) {
@@ -2000,7 +2125,7 @@ public class Manager {
             latestSolidifiedBlockNumber, e.getMessage());
       }
 
-      boolean result = triggerCapsuleQueue.offer(solidityTriggerCapsule);
+      boolean result = triggerPipeline.offer(solidityTriggerCapsule);
       if (!result) {
         logger.info("too many trigger, lost solidified trigger, "
             + "block number: {}", latestSolidifiedBlockNumber);
@@ -2143,7 +2268,7 @@ public class Manager {
       BlockLogTriggerCapsule blockLogTriggerCapsule = new BlockLogTriggerCapsule(newBlock);
       blockLogTriggerCapsule.setLatestSolidifiedBlockNumber(getDynamicPropertiesStore()
           .getLatestSolidifiedBlockNum());
-      if (!triggerCapsuleQueue.offer(blockLogTriggerCapsule)) {
+      if (!triggerPipeline.offer(blockLogTriggerCapsule)) {
         logger.info("too many triggers, block trigger lost: {}", newBlock.getBlockId());
       }
     }
@@ -2177,7 +2302,7 @@ public class Manager {
         index, preCumulativeEnergyUsed, cumulativeLogCount, transactionInfo, energyUnitPrice);
     trx.setLatestSolidifiedBlockNumber(getDynamicPropertiesStore()
         .getLatestSolidifiedBlockNum());
-    if (!triggerCapsuleQueue.offer(trx)) {
+    if (!triggerPipeline.offer(trx)) {
       logger.info("too many triggers, transaction trigger lost: {}", trxCap.getTransactionId());
     }
 
@@ -2190,7 +2315,7 @@ public class Manager {
     TransactionLogTriggerCapsule trx = new TransactionLogTriggerCapsule(trxCap, blockCap);
     trx.setLatestSolidifiedBlockNumber(getDynamicPropertiesStore()
         .getLatestSolidifiedBlockNum());
-    if (!triggerCapsuleQueue.offer(trx)) {
+    if (!triggerPipeline.offer(trx)) {
       logger.info("too many triggers, transaction trigger lost: {}", trxCap.getTransactionId());
     }
   }
@@ -2230,7 +2355,7 @@ public class Manager {
             .getLatestSolidifiedBlockNum());
         contractTriggerCapsule.setBlockHash(blockHash);
 
-        if (!triggerCapsuleQueue.offer(contractTriggerCapsule)) {
+        if (!triggerPipeline.offer(contractTriggerCapsule)) {
           logger.info("too many triggers, contract log trigger lost: {}",
               trigger.getTransactionId());
         }
@@ -2244,34 +2369,15 @@ public class Manager {
   }
 
   public TransactionCapsule getTxFromPending(String txId) {
-    AtomicReference<TransactionCapsule> transactionCapsule = new AtomicReference<>();
     Sha256Hash txHash = Sha256Hash.wrap(ByteArray.fromHexString(txId));
-    pendingTransactions.forEach(tx -> {
-      if (tx.getTransactionId().equals(txHash)) {
-        transactionCapsule.set(tx);
-        return;
-      }
-    });
-    if (transactionCapsule.get() != null) {
-      return transactionCapsule.get();
-    }
-    rePushTransactions.forEach(tx -> {
-      if (tx.getTransactionId().equals(txHash)) {
-        transactionCapsule.set(tx);
-        return;
-      }
-    });
-    return transactionCapsule.get();
+    TransactionCapsule transactionCapsule = pendingTransactions.get(txHash);
+    return transactionCapsule != null ? transactionCapsule : rePushTransactions.get(txHash);
   }
 
   public Collection<String> getTxListFromPending() {
     Set<String> result = new HashSet<>();
-    pendingTransactions.forEach(tx -> {
-      result.add(tx.getTransactionId().toString());
-    });
-    rePushTransactions.forEach(tx -> {
-      result.add(tx.getTransactionId().toString());
-    });
+    pendingTransactions.getIds().forEach(id -> result.add(id.toString()));
+    rePushTransactions.getIds().forEach(id -> result.add(id.toString()));
     return result;
   }
 
@@ -2311,8 +2417,7 @@ public class Manager {
       for (Map.Entry<byte[], BytesCapsule> entry :
           chainBaseManager.getRecentTransactionStore()) {
         byte[] data = entry.getValue().getData();
-        RecentTransactionItem trx =
-            JsonUtil.json2Obj(new String(data), RecentTransactionItem.class);
+        RecentTransactionItem trx = RecentTransactionItem.of(data);
         if (trx == null) {
           continue;
         }
@@ -0,0 +1,349 @@
+package org.tron.core.db;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.util.encoders.Hex;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+import org.tron.common.utils.ByteArray;
+import org.tron.core.ChainBaseManager;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.capsule.TransactionResultCapsule;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.SnapshotRoot;
+import org.tron.core.db2.core.Speculation;
+import org.tron.core.exception.AccountResourceInsufficientException;
+import org.tron.core.exception.ContractExeException;
+import org.tron.core.exception.ContractValidateException;
+import org.tron.core.exception.DupTransactionException;
+import org.tron.core.exception.ReceiptCheckErrException;
+import org.tron.core.exception.TaposException;
+import org.tron.core.exception.TooBigTransactionException;
+import org.tron.core.exception.TooBigTransactionResultException;
+import org.tron.core.exception.TransactionExpirationException;
+import org.tron.core.exception.VMIllegalException;
+import org.tron.core.exception.ValidateSignatureException;
+import org.tron.core.store.DynamicPropertiesStore;
+import org.tron.protos.Protocol.Transaction.Contract;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.Protocol.Transaction.Result;
+import org.tron.protos.Protocol.TransactionInfo;
+
+/**
+ * Executes the transactions of a block speculatively in parallel, every one of them against
+ * the state before the block and under its own {@link Speculation}. The results are then
+ * committed in block order: a transaction whose read set does not meet the keys written by
+ * the transactions before it has seen exactly the state a sequential execution would have
+ * given it, and its writes are applied as they are. Any other transaction is executed again,
+ * sequentially, on the committed state. The block accumulators only ever added to, the block
+ * energy usage and the burnt trx, are merged by their delta instead of conflicting.
+ *
+ * <p>In verify mode every transaction is executed sequentially as well, the sequential result
+ * is kept and any difference from the speculative one is counted and logged.
+ */
+@Slf4j(topic = "DB")
+public class ParallelBlockExecutor {
+
+  private final Manager manager;
+  private final ChainBaseManager chainBaseManager;
+  private final ExecutorService executor;
+  private final boolean verify;
+  private final Set<WrappedByteArray> accumulatorKeys = new HashSet<>();
+
+  public ParallelBlockExecutor(Manager manager, ChainBaseManager chainBaseManager,
+      int threadNum, boolean verify) {
+    this.manager = manager;
+    this.chainBaseManager = chainBaseManager;
+    this.verify = verify;
+    this.executor = threadNum > 0 ? Executors.newFixedThreadPool(threadNum,
+        new ThreadFactoryBuilder().setNameFormat("block-execute-%d").setDaemon(true).build())
+        : null;
+    DynamicPropertiesStore.getAccumulatorKeys()
+        .forEach(key -> accumulatorKeys.add(WrappedByteArray.of(key)));
+  }
+
+  /**
+   * whether the block can be executed in parallel. Event triggers, balance traces, the
+   * account state root and shielded transactions keep state outside of the databases, those
+   * blocks are executed sequentially.
+   */
+  public boolean isEnabled(BlockCapsule block) {
+    if (executor == null || block.getTransactions().size() < 2
+        || !block.hasWitnessSignature() || manager.eventPluginLoaded
+        || CommonParameter.getInstance().isHistoryBalanceLookup()
+        || CommonParameter.getInstance().getStorage().getDbVersion() != 2
+        || chainBaseManager.getDynamicPropertiesStore().allowAccountStateRoot()
+        || chainBaseManager.getDynamicPropertiesStore().getSnapshotRoot() == null) {
+      return false;
+    }
+    for (TransactionCapsule trx : block.getTransactions()) {
+      for (Contract contract : trx.getInstance().getRawData().getContractList()) {
+        if (contract.getType() == ContractType.ShieldedTransferContract) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  public List<TransactionInfo> execute(BlockCapsule block)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TransactionExpirationException,
+      TooBigTransactionException, TooBigTransactionResultException,
+      DupTransactionException, TaposException, ReceiptCheckErrException, VMIllegalException {
+    List<TransactionCapsule> txs = block.getTransactions();
+    List<List<Result>> rets = new ArrayList<>(txs.size());
+    List<SpeculativeTask> tasks = new ArrayList<>(txs.size());
+    List<Future<Speculative>> futures = new ArrayList<>(txs.size());
+    for (TransactionCapsule trx : txs) {
+      rets.add(new ArrayList<>(trx.getInstance().getRetList()));
+      SpeculativeTask task = new SpeculativeTask(trx, block);
+      tasks.add(task);
+      futures.add(executor.submit(task));
+    }
+
+    SnapshotRoot accumulatorRoot = chainBaseManager.getDynamicPropertiesStore().getSnapshotRoot();
+    Map<Chainbase, Set<WrappedByteArray>> written = new HashMap<>();
+    List<TransactionInfo> infos = new ArrayList<>(txs.size());
+    try {
+      for (int i = 0; i < txs.size(); i++) {
+        TransactionCapsule trx = txs.get(i);
+        Speculative speculative = get(futures.get(i));
+        boolean clean = speculative != null && !speculative.speculation.isAborted()
+            && !conflicts(speculative.speculation, written, accumulatorRoot);
+        if (clean && !verify) {
+          apply(speculative.speculation, written, accumulatorRoot);
+          Metrics.counterInc(MetricKeys.Counter.PARALLEL_EXECUTION, 1,
+              MetricLabels.Counter.PARALLEL_COMMITTED);
+          if (Objects.nonNull(speculative.info)) {
+            infos.add(speculative.info);
+          }
+          continue;
+        }
+        if (!clean) {
+          Metrics.counterInc(MetricKeys.Counter.PARALLEL_EXECUTION, 1,
+              MetricLabels.Counter.PARALLEL_REEXECUTED);
+        }
+        // the speculative run may have set a different result on the transaction
+        trx.resetResult();
+        rets.get(i).forEach(ret -> trx.setResult(new TransactionResultCapsule(ret)));
+        Speculation sequential = Speculation.start(true);
+        TransactionInfo info;
+        try {
+          info = manager.processTransaction(trx, block);
+        } finally {
+          sequential.stop();
+        }
+        sequential.getWrites().forEach((db, values) -> {
+          if (db.getHead().getRoot() != accumulatorRoot) {
+            written.computeIfAbsent(db, k -> new HashSet<>()).addAll(values.keySet());
+          } else {
+            values.keySet().stream().filter(key -> !accumulatorKeys.contains(key))
+                .forEach(key -> written.computeIfAbsent(db, k -> new HashSet<>()).add(key));
+          }
+        });
+        if (clean) {
+          compare(trx, speculative, sequential, info, accumulatorRoot);
+        }
+        if (Objects.nonNull(info)) {
+          infos.add(info);
+        }
+      }
+    } finally {
+      // a failed block must not return while speculations still write to its transactions
+      tasks.forEach(SpeculativeTask::stop);
+    }
+    return infos;
+  }
+
+  private Speculative speculate(TransactionCapsule trx, BlockCapsule block) {
+    Speculation speculation = Speculation.start(false);
+    try {
+      return new Speculative(speculation, manager.processTransaction(trx, block));
+    } catch (Exception e) {
+      logger.debug("speculative execution of {} failed: {}",
+          trx.getTransactionId(), e.getMessage());
+      return null;
+    } finally {
+      speculation.stop();
+    }
+  }
+
+  private Speculative get(Future<Speculative> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      return null;
+    }
+  }
+
+  private boolean conflicts(Speculation speculation, Map<Chainbase, Set<WrappedByteArray>> written,
+      SnapshotRoot accumulatorRoot) {
+    for (Map.Entry<Chainbase, Map<WrappedByteArray, WrappedByteArray>> entry
+        : speculation.getReads().entrySet()) {
+      Set<WrappedByteArray> keys = written.get(entry.getKey());
+      if (keys == null) {
+        continue;
+      }
+      boolean accumulator = entry.getKey().getHead().getRoot() == accumulatorRoot;
+      for (WrappedByteArray key : entry.getValue().keySet()) {
+        if (keys.contains(key) && !(accumulator && accumulatorKeys.contains(key))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private void apply(Speculation speculation, Map<Chainbase, Set<WrappedByteArray>> written,
+      SnapshotRoot accumulatorRoot) {
+    speculation.getWrites().forEach((db, values) -> {
+      boolean accumulator = db.getHead().getRoot() == accumulatorRoot;
+      values.forEach((key, value) -> {
+        if (accumulator && accumulatorKeys.contains(key)) {
+          Long delta = delta(speculation, db, key, value);
+          if (delta != null) {
+            byte[] current = db.getUnchecked(key.getBytes());
+            db.put(key.getBytes(), ByteArray.fromLong(
+                (current == null ? 0 : ByteArray.toLong(current)) + delta));
+            return;
+          }
+        }
+        if (value.getBytes() == null) {
+          db.delete(key.getBytes());
+        } else {
+          db.put(key.getBytes(), value.getBytes());
+        }
+        written.computeIfAbsent(db, k -> new HashSet<>()).add(key);
+      });
+    });
+  }
+
+  /**
+   * what the transaction added to an accumulator, null when it did not read it first.
+   */
+  private static Long delta(Speculation speculation, Chainbase db, WrappedByteArray key,
+      WrappedByteArray value) {
+    Map<WrappedByteArray, WrappedByteArray> reads = speculation.getReads().get(db);
+    WrappedByteArray read = reads == null ? null : reads.get(key);
+    if (read == null || read.getBytes() == null || value.getBytes() == null) {
+      return null;
+    }
+    return ByteArray.toLong(value.getBytes()) - ByteArray.toLong(read.getBytes());
+  }
+
+  private void compare(TransactionCapsule trx, Speculative speculative, Speculation sequential,
+      TransactionInfo info, SnapshotRoot accumulatorRoot) {
+    String difference = null;
+    if (!Objects.equals(speculative.info, info)) {
+      difference = "transaction info";
+    } else if (!speculative.speculation.getWrites().keySet()
+        .equals(sequential.getWrites().keySet())) {
+      difference = "written databases";
+    } else {
+      for (Map.Entry<Chainbase, Map<WrappedByteArray, WrappedByteArray>> entry
+          : sequential.getWrites().entrySet()) {
+        Chainbase db = entry.getKey();
+        Map<WrappedByteArray, WrappedByteArray> values =
+            speculative.speculation.getWrites().get(db);
+        boolean accumulator = db.getHead().getRoot() == accumulatorRoot;
+        if (!values.keySet().equals(entry.getValue().keySet())) {
+          difference = "keys of " + db.getHead().getRoot().getDbName();
+          break;
+        }
+        for (Map.Entry<WrappedByteArray, WrappedByteArray> value : entry.getValue().entrySet()) {
+          boolean equal = accumulator && accumulatorKeys.contains(value.getKey())
+              ? Objects.equals(delta(speculative.speculation, db, value.getKey(),
+                  values.get(value.getKey())),
+                  delta(sequential, db, value.getKey(), value.getValue()))
+              : value.getValue().equals(values.get(value.getKey()));
+          if (!equal) {
+            difference = "value of " + db.getHead().getRoot().getDbName() + " "
+                + Hex.toHexString(value.getKey().getBytes());
+            break;
+          }
+        }
+        if (difference != null) {
+          break;
+        }
+      }
+    }
+    if (difference != null) {
+      Metrics.counterInc(MetricKeys.Counter.PARALLEL_EXECUTION, 1,
+          MetricLabels.Counter.PARALLEL_MISMATCH);
+      logger.error("parallel execution of {} differs in {}", trx.getTransactionId(),
+          difference);
+    }
+  }
+
+  /**
+   * the speculative execution of a transaction on the executor, which can be kept from
+   * starting or waited for.
+   */
+  private class SpeculativeTask implements Callable<Speculative> {
+
+    private final TransactionCapsule trx;
+    private final BlockCapsule block;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private SpeculativeTask(TransactionCapsule trx, BlockCapsule block) {
+      this.trx = trx;
+      this.block = block;
+    }
+
+    @Override
+    public Speculative call() {
+      if (!started.compareAndSet(false, true)) {
+        return null;
+      }
+      try {
+        return speculate(trx, block);
+      } finally {
+        finished.countDown();
+      }
+    }
+
+    /**
+     * keeps the task from starting, or waits for it to finish if it has started.
+     */
+    private void stop() {
+      if (!started.compareAndSet(false, true)) {
+        Uninterruptibles.awaitUninterruptibly(finished);
+      }
+    }
+  }
+
+  private static class Speculative {
+
+    private final Speculation speculation;
+    private final TransactionInfo info;
+
+    private Speculative(Speculation speculation, TransactionInfo info) {
+      this.speculation = speculation;
+      this.info = info;
+    }
+  }
+}
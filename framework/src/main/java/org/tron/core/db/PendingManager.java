@@ -1,22 +1,65 @@
 package org.tron.core.db;
 
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.common.prometheus.MetricKeys;
 import org.tron.common.prometheus.MetricLabels;
 import org.tron.common.prometheus.Metrics;
+import org.tron.common.utils.Commons;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.actuator.Actuator;
+import org.tron.core.actuator.ActuatorCreator;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.capsule.AssetIssueCapsule;
+import org.tron.core.capsule.BlockCapsule;
 import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.config.args.Args;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.exception.ContractValidateException;
+import org.tron.core.store.DynamicPropertiesStore;
+import org.tron.protos.Protocol.Transaction.Contract;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.AssetIssueContractOuterClass.TransferAssetContract;
 
 @Slf4j(topic = "DB")
 public class PendingManager implements AutoCloseable {
 
   private Manager dbManager;
   private long timeout = Args.getInstance().getPendingTransactionTimeout();
+  private BlockCapsule block;
+  private Sha256Hash headHash;
+  private long nextMaintenanceTime;
+  private long[] netState;
+  private BandwidthProcessor bandwidthProcessor;
+  private long publicNetLeft;
 
   public PendingManager(Manager db) {
+    this(db, null);
+  }
+
+  /**
+   * pending transactions untouched by the block are kept pending without being executed
+   * again, as long as the block is the only one applied on top of the current head, leaves
+   * the total bandwidth weight and limit as they were, and they still validate with the
+   * bandwidth they would be charged left.
+   */
+  public PendingManager(Manager db, BlockCapsule block) {
     this.dbManager = db;
+    this.block = block;
+    this.headHash = db.getDynamicPropertiesStore().getLatestBlockHeaderHash();
+    this.nextMaintenanceTime = db.getDynamicPropertiesStore().getNextMaintenanceTime();
+    this.bandwidthProcessor = new BandwidthProcessor(db.getChainBaseManager());
     db.getSession().reset();
+    this.netState = getNetState();
+    db.getPendingTransactionIndex().clear();
     db.getShieldedTransInPendingCounts().set(0);
   }
 
@@ -39,13 +82,35 @@ public class PendingManager implements AutoCloseable {
       }
     }
 
+    Set<WrappedByteArray> writeSet = getWriteSet();
+    long headTime = dbManager.getDynamicPropertiesStore().getLatestBlockHeaderTimestamp();
+    long headSlot = dbManager.getChainBaseManager().getHeadSlot();
+    publicNetLeft = bandwidthProcessor.getPublicNetLeft(headSlot);
+    Map<WrappedByteArray, long[]> netLeft = new HashMap<>();
+    List<TransactionCapsule> kept = new ArrayList<>();
     for (TransactionCapsule tx : dbManager.getPendingTransactions()) {
-      txIteration(tx);
+      Set<WrappedByteArray> dependencies = getDependencies(tx);
+      if (writeSet != null && dependencies != null && tx.getExpiration() > headTime
+          && now - tx.getTime() < timeout
+          && Collections.disjoint(writeSet, dependencies)
+          && validate(tx) && reserveBandwidth(tx, netLeft, headSlot)) {
+        kept.add(tx);
+        dbManager.getPendingTransactionIndex().defer(tx, dependencies);
+      } else {
+        txIteration(tx);
+      }
     }
 
     dbManager.getPendingTransactions().clear();
-    Metrics.gaugeSet(MetricKeys.Gauge.MANAGER_QUEUE, 0,
+    dbManager.getPendingTransactions().addAll(kept);
+    Metrics.gaugeSet(MetricKeys.Gauge.MANAGER_QUEUE, kept.size(),
         MetricLabels.Gauge.QUEUE_PENDING);
+    // the reset pending state no longer holds the evicted transactions, they may come back
+    // now that the block made room in the pool
+    for (TransactionCapsule tx : dbManager.getEvictedTransactions()) {
+      txIteration(tx);
+    }
+    dbManager.getEvictedTransactions().clear();
     for (TransactionCapsule tx : dbManager.getPoppedTransactions()) {
       tx.setTime(System.currentTimeMillis());
       txIteration(tx);
@@ -54,9 +119,130 @@ public class PendingManager implements AutoCloseable {
     Metrics.gaugeSet(MetricKeys.Gauge.MANAGER_QUEUE, 0,
         MetricLabels.Gauge.QUEUE_POPPED);
     if (Args.getInstance().isOpenPrintLog()) {
-      logger.warn("pending tx size:{}", dbManager.getRePushTransactions().size());
+      logger.warn("pending tx size:{}, kept:{}", dbManager.getRePushTransactions().size(),
+          kept.size());
+    }
+
+  }
+
+  /**
+   * the accounts written since the pending state was reset, null if they are unknown or the
+   * block changed the total bandwidth weight or limit, which size every staked bandwidth.
+   */
+  private Set<WrappedByteArray> getWriteSet() {
+    Sha256Hash head = dbManager.getDynamicPropertiesStore().getLatestBlockHeaderHash();
+    if (head.equals(headHash)) {
+      return Collections.emptySet();
+    }
+    if (block == null || !head.equals(block.getBlockId())
+        || !block.getParentHash().equals(headHash)
+        || dbManager.getDynamicPropertiesStore().getNextMaintenanceTime() != nextMaintenanceTime
+        || !Arrays.equals(getNetState(), netState)) {
+      return null;
+    }
+    Set<WrappedByteArray> writeSet = PendingTransactionIndex.getWriteSet(block);
+    for (TransactionCapsule trx : block.getTransactions()) {
+      byte[] issuer = getIssuer(trx);
+      if (issuer != null) {
+        writeSet.add(WrappedByteArray.of(issuer));
+      }
+    }
+    return writeSet;
+  }
+
+  /**
+   * the total bandwidth weight and limit.
+   */
+  private long[] getNetState() {
+    DynamicPropertiesStore store = dbManager.getDynamicPropertiesStore();
+    return new long[]{store.getTotalNetWeight(), store.getTotalNetLimit()};
+  }
+
+  /**
+   * validates a transfer again against the state the block left, which may have changed
+   * accounts the block does not name, e.g. through contract calls.
+   */
+  private boolean validate(TransactionCapsule trx) {
+    try {
+      for (Actuator actuator : ActuatorCreator.getINSTANCE().createActuator(trx)) {
+        actuator.validate();
+      }
+      return true;
+    } catch (ContractValidateException e) {
+      return false;
+    }
+  }
+
+  /**
+   * takes the bandwidth a kept transfer would be charged out of what is left of it, so the
+   * kept transfers still fit together. The owner's own bandwidth is used first, then its
+   * free bandwidth, which is also charged to the public bandwidth every free transfer of
+   * the block used. A transfer that does not fit, or that creates an account and is charged
+   * differently, is executed again.
+   */
+  private boolean reserveBandwidth(TransactionCapsule trx, Map<WrappedByteArray, long[]> netLeft,
+      long now) {
+    Contract contract = trx.getInstance().getRawData().getContract(0);
+    if (!dbManager.getAccountStore().has(TransactionCapsule.getToAddress(contract))) {
+      return false;
+    }
+    AccountCapsule owner = dbManager.getAccountStore().get(TransactionCapsule.getOwner(contract));
+    long bytes = bandwidthProcessor.getBytesSize(trx);
+    long[] left = netLeft.computeIfAbsent(WrappedByteArray.of(owner.createDbKey()),
+        k -> new long[]{bandwidthProcessor.getAccountNetLeft(owner, now),
+            bandwidthProcessor.getFreeNetLeft(owner, now)});
+    if (bytes <= left[0]) {
+      left[0] -= bytes;
+      return true;
+    }
+    if (bytes <= left[1] && bytes <= publicNetLeft) {
+      left[1] -= bytes;
+      publicNetLeft -= bytes;
+      return true;
     }
+    return false;
+  }
+
+  /**
+   * the accounts a pending transfer depends on. A TRC10 transfer also depends on the issuer
+   * of the token, whose bandwidth it may be charged to.
+   */
+  private Set<WrappedByteArray> getDependencies(TransactionCapsule trx) {
+    Set<WrappedByteArray> dependencies = PendingTransactionIndex.getDependencies(trx);
+    if (dependencies == null || trx.getInstance().getRawData().getContract(0).getType()
+        != ContractType.TransferAssetContract) {
+      return dependencies;
+    }
+    byte[] issuer = getIssuer(trx);
+    if (issuer == null) {
+      return null;
+    }
+    dependencies.add(WrappedByteArray.of(issuer));
+    return dependencies;
+  }
 
+  /**
+   * the issuer of the token a TRC10 transfer sends, null for other transactions or an
+   * unknown token.
+   */
+  private byte[] getIssuer(TransactionCapsule trx) {
+    if (trx.getInstance().getRawData().getContractCount() != 1) {
+      return null;
+    }
+    Contract contract = trx.getInstance().getRawData().getContract(0);
+    if (contract.getType() != ContractType.TransferAssetContract) {
+      return null;
+    }
+    try {
+      byte[] assetName = contract.getParameter().unpack(TransferAssetContract.class)
+          .getAssetName().toByteArray();
+      AssetIssueCapsule asset = Commons.getAssetIssueStoreFinal(
+          dbManager.getDynamicPropertiesStore(), dbManager.getAssetIssueStore(),
+          dbManager.getAssetIssueV2Store()).get(assetName);
+      return asset == null ? null : asset.getOwnerAddress().toByteArray();
+    } catch (InvalidProtocolBufferException e) {
+      return null;
+    }
   }
 
   private void txIteration(TransactionCapsule tx) {
@@ -0,0 +1,136 @@
+package org.tron.core.db;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.ArrayUtils;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.protos.Protocol.Transaction.Contract;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+/**
+ * Pending transactions that stay valid across a block without being executed again. They
+ * are indexed by the accounts they read and write, and applied to the pending state only
+ * when a later transaction touches one of those accounts.
+ */
+public class PendingTransactionIndex {
+
+  private final Map<WrappedByteArray, List<TransactionCapsule>> byAccount = new HashMap<>();
+  private final Map<Sha256Hash, TransactionCapsule> deferred = new LinkedHashMap<>();
+
+  /**
+   * the accounts a transaction reads and writes, null when they can not be told from the
+   * transaction alone, e.g. a contract call.
+   */
+  public static Set<WrappedByteArray> getDependencies(TransactionCapsule trx) {
+    if (trx.getInstance().getRawData().getContractCount() != 1) {
+      return null;
+    }
+    switch (trx.getInstance().getRawData().getContract(0).getType()) {
+      case TransferContract:
+      case TransferAssetContract:
+        return getAccounts(trx);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * the accounts a transaction touches directly: owner, receiver and called contract.
+   */
+  public static Set<WrappedByteArray> getAccounts(TransactionCapsule trx) {
+    Set<WrappedByteArray> accounts = new HashSet<>();
+    for (Contract contract : trx.getInstance().getRawData().getContractList()) {
+      add(accounts, TransactionCapsule.getOwner(contract));
+      add(accounts, TransactionCapsule.getToAddress(contract));
+      if (contract.getType() == Contract.ContractType.TriggerSmartContract) {
+        try {
+          add(accounts, contract.getParameter().unpack(TriggerSmartContract.class)
+              .getContractAddress().toByteArray());
+        } catch (InvalidProtocolBufferException e) {
+          // the transaction fails validation, nothing else is touched
+        }
+      }
+    }
+    return accounts;
+  }
+
+  /**
+   * the accounts a block names directly: its witness, and the owner, receiver and called
+   * contract of each transaction. Other accounts the block changes, e.g. through contract
+   * calls, global state, like the bandwidth, and the issuers charged for TRC10 transfers
+   * are not included.
+   */
+  public static Set<WrappedByteArray> getWriteSet(BlockCapsule block) {
+    Set<WrappedByteArray> accounts = new HashSet<>();
+    add(accounts, block.getWitnessAddress().toByteArray());
+    block.getTransactions().forEach(trx -> accounts.addAll(getAccounts(trx)));
+    return accounts;
+  }
+
+  private static void add(Set<WrappedByteArray> accounts, byte[] address) {
+    if (ArrayUtils.isNotEmpty(address)) {
+      accounts.add(WrappedByteArray.of(address));
+    }
+  }
+
+  public synchronized void defer(TransactionCapsule trx, Set<WrappedByteArray> dependencies) {
+    deferred.put(trx.getTransactionId(), trx);
+    dependencies.forEach(account ->
+        byAccount.computeIfAbsent(account, k -> new ArrayList<>()).add(trx));
+  }
+
+  public synchronized boolean contains(TransactionCapsule trx) {
+    return deferred.containsKey(trx.getTransactionId());
+  }
+
+  /**
+   * removes the deferred transactions touching any of the accounts, in the order they
+   * were deferred.
+   */
+  public synchronized List<TransactionCapsule> take(Collection<WrappedByteArray> accounts) {
+    Set<Sha256Hash> ids = new HashSet<>();
+    for (WrappedByteArray account : accounts) {
+      List<TransactionCapsule> trxs = byAccount.remove(account);
+      if (trxs != null) {
+        trxs.forEach(trx -> ids.add(trx.getTransactionId()));
+      }
+    }
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    List<TransactionCapsule> result = new ArrayList<>(ids.size());
+    deferred.values().removeIf(trx -> {
+      if (ids.contains(trx.getTransactionId())) {
+        result.add(trx);
+        return true;
+      }
+      return false;
+    });
+    result.forEach(trx -> getAccounts(trx).forEach(account -> {
+      List<TransactionCapsule> trxs = byAccount.get(account);
+      if (trxs != null && trxs.remove(trx) && trxs.isEmpty()) {
+        byAccount.remove(account);
+      }
+    }));
+    return result;
+  }
+
+  public synchronized int size() {
+    return deferred.size();
+  }
+
+  public synchronized void clear() {
+    byAccount.clear();
+    deferred.clear();
+  }
+}
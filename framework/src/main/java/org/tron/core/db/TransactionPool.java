@@ -0,0 +1,338 @@
+package org.tron.core.db;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.ArrayUtils;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.db2.common.WrappedByteArray;
+
+/**
+ * Pending transaction pool. Transactions of one owner leave in arrival order; across
+ * owners the best head leaves first, by fee when sorting is on and by arrival otherwise.
+ * When the pool is full a new transaction replaces the worst tail of all owners if it is
+ * better, and is rejected if not. Transactions are looked up by id in constant time.
+ */
+public class TransactionPool extends AbstractQueue<TransactionCapsule>
+    implements BlockingQueue<TransactionCapsule> {
+
+  private static final Comparator<Entry> ARRIVAL = Comparator.comparingLong(e -> e.seq);
+
+  private final int capacity;
+  private final Comparator<Entry> priority;
+  private final Consumer<TransactionCapsule> evictionListener;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Map<Sha256Hash, Entry> entries = new LinkedHashMap<>();
+  private final Map<WrappedByteArray, TreeSet<Entry>> accounts = new HashMap<>();
+  // the first transaction of every owner, best first
+  private final TreeSet<Entry> heads;
+  // the last transaction of every owner, worst first
+  private final TreeSet<Entry> tails;
+  private long seq;
+
+  public TransactionPool(boolean sortByFee, int capacity,
+      Consumer<TransactionCapsule> evictionListener) {
+    this.capacity = capacity;
+    this.evictionListener = evictionListener;
+    this.priority = sortByFee
+        ? Comparator.<Entry>comparingLong(e -> -e.order).thenComparing(ARRIVAL) : ARRIVAL;
+    this.heads = new TreeSet<>(priority);
+    this.tails = new TreeSet<>(priority.reversed());
+  }
+
+  public TransactionCapsule get(Sha256Hash id) {
+    lock.lock();
+    try {
+      Entry entry = entries.get(id);
+      return entry == null ? null : entry.trx;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public List<Sha256Hash> getIds() {
+    lock.lock();
+    try {
+      return new ArrayList<>(entries.keySet());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(TransactionCapsule trx) {
+    Entry entry = new Entry(trx);
+    lock.lock();
+    try {
+      if (entries.containsKey(entry.id)) {
+        return true;
+      }
+      entry.seq = seq++;
+      if (entries.size() >= capacity) {
+        if (tails.isEmpty()) {
+          return false;
+        }
+        Entry worst = tails.first();
+        if (priority.compare(entry, worst) >= 0) {
+          return false;
+        }
+        unlink(worst);
+        if (evictionListener != null) {
+          evictionListener.accept(worst.trx);
+        }
+      }
+      link(entry);
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public TransactionCapsule poll() {
+    lock.lock();
+    try {
+      if (heads.isEmpty()) {
+        return null;
+      }
+      Entry entry = heads.first();
+      unlink(entry);
+      return entry.trx;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public TransactionCapsule peek() {
+    lock.lock();
+    try {
+      return heads.isEmpty() ? null : heads.first().trx;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    if (!(o instanceof TransactionCapsule)) {
+      return false;
+    }
+    lock.lock();
+    try {
+      Entry entry = entries.get(((TransactionCapsule) o).getTransactionId());
+      if (entry == null) {
+        return false;
+      }
+      unlink(entry);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof TransactionCapsule
+        && get(((TransactionCapsule) o).getTransactionId()) != null;
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      entries.clear();
+      accounts.clear();
+      heads.clear();
+      tails.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * iterates a snapshot in arrival order, removing through the iterator removes from the pool.
+   */
+  @Override
+  public Iterator<TransactionCapsule> iterator() {
+    List<TransactionCapsule> snapshot;
+    lock.lock();
+    try {
+      snapshot = new ArrayList<>(entries.size());
+      entries.values().forEach(entry -> snapshot.add(entry.trx));
+    } finally {
+      lock.unlock();
+    }
+    Iterator<TransactionCapsule> iterator = snapshot.iterator();
+    return new Iterator<TransactionCapsule>() {
+      private TransactionCapsule last;
+
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public TransactionCapsule next() {
+        last = iterator.next();
+        return last;
+      }
+
+      @Override
+      public void remove() {
+        if (last == null) {
+          throw new IllegalStateException();
+        }
+        TransactionPool.this.remove(last);
+        last = null;
+      }
+    };
+  }
+
+  @Override
+  public void put(TransactionCapsule trx) {
+    add(trx);
+  }
+
+  @Override
+  public boolean offer(TransactionCapsule trx, long timeout, TimeUnit unit) {
+    return offer(trx);
+  }
+
+  @Override
+  public TransactionCapsule take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (heads.isEmpty()) {
+        notEmpty.await();
+      }
+      Entry entry = heads.first();
+      unlink(entry);
+      return entry.trx;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public TransactionCapsule poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (heads.isEmpty()) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      Entry entry = heads.first();
+      unlink(entry);
+      return entry.trx;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return capacity - size();
+  }
+
+  @Override
+  public int drainTo(Collection<? super TransactionCapsule> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super TransactionCapsule> c, int maxElements) {
+    int n = 0;
+    TransactionCapsule trx;
+    while (n < maxElements && (trx = poll()) != null) {
+      c.add(trx);
+      n++;
+    }
+    return n;
+  }
+
+  private void link(Entry entry) {
+    entries.put(entry.id, entry);
+    TreeSet<Entry> queue = accounts.computeIfAbsent(entry.account, k -> new TreeSet<>(ARRIVAL));
+    if (queue.isEmpty()) {
+      heads.add(entry);
+    } else {
+      tails.remove(queue.last());
+    }
+    queue.add(entry);
+    tails.add(entry);
+  }
+
+  private void unlink(Entry entry) {
+    entries.remove(entry.id);
+    TreeSet<Entry> queue = accounts.get(entry.account);
+    boolean head = queue.first() == entry;
+    boolean tail = queue.last() == entry;
+    queue.remove(entry);
+    if (head) {
+      heads.remove(entry);
+    }
+    if (tail) {
+      tails.remove(entry);
+    }
+    if (queue.isEmpty()) {
+      accounts.remove(entry.account);
+      return;
+    }
+    if (head) {
+      heads.add(queue.first());
+    }
+    if (tail) {
+      tails.add(queue.last());
+    }
+  }
+
+  private static class Entry {
+
+    private final TransactionCapsule trx;
+    private final Sha256Hash id;
+    private final WrappedByteArray account;
+    // the fee when the transaction entered, it may be executed again while pooled
+    private final long order;
+    private long seq;
+
+    private Entry(TransactionCapsule trx) {
+      this.trx = trx;
+      this.id = trx.getTransactionId();
+      this.order = trx.getOrder();
+      byte[] owner = trx.getInstance().getRawData().getContractCount() == 0 ? null
+          : TransactionCapsule.getOwner(trx.getInstance().getRawData().getContract(0));
+      // transactions without an owner, e.g. shielded ones, are queued on their own
+      this.account = WrappedByteArray.of(ArrayUtils.isEmpty(owner) ? id.getBytes() : owner);
+    }
+  }
+}
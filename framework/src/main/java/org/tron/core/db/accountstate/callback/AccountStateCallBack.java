@@ -75,7 +75,7 @@ public class AccountStateCallBack extends AccountStateCallBackUtils {
     if (!exe()) {
       return;
     }
-    ByteString oldRoot = blockCapsule.getInstance().getBlockHeader().getRawData()
+    ByteString oldRoot = blockCapsule.getBlockHeader().getRawData()
         .getAccountStateRoot();
     execute = false;
     //
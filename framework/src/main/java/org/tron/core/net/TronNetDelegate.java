@@ -5,6 +5,7 @@ import static org.tron.core.config.Parameter.ChainConstant.BLOCK_PRODUCED_INTERV
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import io.prometheus.client.Histogram;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -305,6 +306,49 @@ public class TronNetDelegate {
     }
   }
 
+  /**
+   * push transactions into pending in one batch, the result holds the failure of each
+   * transaction, null if it was accepted.
+   */
+  public List<P2pException> pushTransactions(List<TransactionCapsule> trxs) {
+    long now = System.currentTimeMillis();
+    trxs.forEach(trx -> trx.setTime(now));
+    List<Exception> results = dbManager.pushTransactions(trxs);
+    List<P2pException> exceptions = new ArrayList<>(results.size());
+    for (Exception e : results) {
+      if (e == null) {
+        exceptions.add(null);
+      } else if (e instanceof ContractSizeNotEqualToOneException
+          || e instanceof VMIllegalException) {
+        exceptions.add(new P2pException(TypeEnum.BAD_TRX, e));
+      } else if (e instanceof RuntimeException) {
+        exceptions.add(new P2pException(TypeEnum.DEFAULT, e));
+      } else {
+        exceptions.add(new P2pException(TypeEnum.TRX_EXE_FAILED, e));
+      }
+    }
+    return exceptions;
+  }
+
+  public void validSignature(TransactionCapsule trx) throws P2pException {
+    try {
+      if (!trx.validateSignature(dbManager.getAccountStore(),
+          dbManager.getDynamicPropertiesStore())) {
+        throw new P2pException(TypeEnum.TRX_EXE_FAILED, "valid signature failed.");
+      }
+    } catch (ValidateSignatureException e) {
+      throw new P2pException(TypeEnum.TRX_EXE_FAILED, e);
+    }
+  }
+
+  public TransactionCapsule getPendingTransaction(Sha256Hash hash) {
+    return dbManager.getPendingTransaction(hash);
+  }
+
+  public boolean containTransaction(Sha256Hash hash) {
+    return dbManager.containsTransaction(hash.getBytes());
+  }
+
   public void validSignature(BlockCapsule block) throws P2pException {
     try {
       if (!block.validateSignature(dbManager.getDynamicPropertiesStore(),
@@ -12,6 +12,7 @@ import org.tron.core.net.message.TransactionMessage;
 import org.tron.core.net.message.TronMessage;
 import org.tron.core.net.messagehandler.BlockMsgHandler;
 import org.tron.core.net.messagehandler.ChainInventoryMsgHandler;
+import org.tron.core.net.messagehandler.CompactRelayMsgHandler;
 import org.tron.core.net.messagehandler.FetchInvDataMsgHandler;
 import org.tron.core.net.messagehandler.InventoryMsgHandler;
 import org.tron.core.net.messagehandler.PbftDataSyncHandler;
@@ -62,6 +63,9 @@ public class TronNetService {
   @Autowired
   private PbftDataSyncHandler pbftDataSyncHandler;
 
+  @Autowired
+  private CompactRelayMsgHandler compactRelayMsgHandler;
+
   @Autowired
   private FetchBlockService fetchBlockService;
 
@@ -118,6 +122,13 @@ public class TronNetService {
         case PBFT_COMMIT_MSG:
           pbftDataSyncHandler.processMessage(peer, msg);
           break;
+        case COMPACT_INVENTORY:
+        case FETCH_COMPACT_INV_DATA:
+        case COMPACT_BLOCK:
+        case FETCH_BLOCK_TRXS:
+        case BLOCK_TRXS:
+          compactRelayMsgHandler.processMessage(peer, msg);
+          break;
         default:
           throw new P2pException(TypeEnum.NO_SUCH_MESSAGE, msg.getType().toString());
       }
@@ -0,0 +1,58 @@
+package org.tron.core.net.message;
+
+import java.util.List;
+import org.tron.common.overlay.message.Message;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.BlockTransactions;
+import org.tron.protos.Protocol.Transaction;
+
+/**
+ * the transactions of a compact block requested by a {@link FetchBlockTrxsMessage}, in the
+ * order of the request.
+ */
+public class BlockTrxsMessage extends TronMessage {
+
+  private BlockTransactions transactions;
+  private BlockId blockId;
+
+  public BlockTrxsMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.BLOCK_TRXS.asByte();
+    this.transactions = BlockTransactions.parseFrom(getCodedInputStream(data));
+    this.blockId = new BlockId(Sha256Hash.wrap(transactions.getBlockId()));
+    if (Message.isFilter()) {
+      Message.compareBytes(data, transactions.toByteArray());
+      TransactionCapsule.validContractProto(transactions.getTransactionsList());
+    }
+  }
+
+  public BlockTrxsMessage(BlockId blockId, List<Transaction> trxs) {
+    this.transactions = BlockTransactions.newBuilder().setBlockId(blockId.getByteString())
+        .addAllTransactions(trxs).build();
+    this.blockId = blockId;
+    this.type = MessageTypes.BLOCK_TRXS.asByte();
+    this.data = transactions.toByteArray();
+  }
+
+  public BlockId getBlockId() {
+    return blockId;
+  }
+
+  public List<Transaction> getTransactions() {
+    return transactions.getTransactionsList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", trx size: ").append(transactions.getTransactionsCount()).toString();
+  }
+
+}
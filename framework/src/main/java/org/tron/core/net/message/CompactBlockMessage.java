@@ -0,0 +1,83 @@
+package org.tron.core.net.message;
+
+import java.util.List;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.protos.Protocol.BlockHeader;
+import org.tron.protos.Protocol.CompactBlock;
+import org.tron.protos.Protocol.CompactBlock.TransactionRet;
+import org.tron.protos.Protocol.Transaction.Result;
+
+/**
+ * a block sent as its header, the short ids of its transactions and their results. The
+ * receiver looks the transactions up among those it already has, and sets the results of
+ * the block on them, as those of its own copies may differ.
+ */
+public class CompactBlockMessage extends TronMessage {
+
+  private CompactBlock compactBlock;
+  private BlockId blockId;
+
+  public CompactBlockMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.compactBlock = CompactBlock.parseFrom(data);
+  }
+
+  public CompactBlockMessage(BlockHeader header, List<Long> transactionIds,
+      List<List<Result>> transactionRets) {
+    CompactBlock.Builder builder = CompactBlock.newBuilder().setBlockHeader(header)
+        .addAllTransactionIds(transactionIds);
+    transactionRets.forEach(ret -> builder.addTransactionRets(
+        TransactionRet.newBuilder().addAllRet(ret)));
+    this.compactBlock = builder.build();
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.data = compactBlock.toByteArray();
+  }
+
+  public BlockHeader getBlockHeader() {
+    return compactBlock.getBlockHeader();
+  }
+
+  public List<Long> getTransactionIds() {
+    return compactBlock.getTransactionIdsList();
+  }
+
+  public int getTransactionRetsCount() {
+    return compactBlock.getTransactionRetsCount();
+  }
+
+  /**
+   * the results of the transaction at the index as the block holds them.
+   */
+  public List<Result> getTransactionRet(int index) {
+    return compactBlock.getTransactionRets(index).getRetList();
+  }
+
+  public BlockId getBlockId() {
+    if (blockId == null) {
+      BlockHeader.raw raw = compactBlock.getBlockHeader().getRawData();
+      blockId = new BlockId(Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
+          raw.toByteArray()), raw.getNumber());
+    }
+    return blockId;
+  }
+
+  @Override
+  public Sha256Hash getMessageId() {
+    return getBlockId();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", trx size: ").append(compactBlock.getTransactionIdsCount()).toString();
+  }
+
+}
@@ -0,0 +1,41 @@
+package org.tron.core.net.message;
+
+import java.util.List;
+import org.tron.protos.Protocol.CompactInventory;
+
+/**
+ * transactions announced with their short ids, see
+ * {@link org.tron.core.net.service.CompactRelayService}.
+ */
+public class CompactInventoryMessage extends TronMessage {
+
+  protected CompactInventory inv;
+
+  public CompactInventoryMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.COMPACT_INVENTORY.asByte();
+    this.inv = CompactInventory.parseFrom(data);
+  }
+
+  public CompactInventoryMessage(List<Long> ids) {
+    this.inv = CompactInventory.newBuilder().addAllIds(ids).build();
+    this.type = MessageTypes.COMPACT_INVENTORY.asByte();
+    this.data = inv.toByteArray();
+  }
+
+  public List<Long> getIds() {
+    return inv.getIdsList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append("size: ")
+        .append(inv.getIdsCount()).toString();
+  }
+
+}
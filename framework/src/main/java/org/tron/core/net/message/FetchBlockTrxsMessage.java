@@ -0,0 +1,51 @@
+package org.tron.core.net.message;
+
+import java.util.List;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.protos.Protocol.BlockTransactionsRequest;
+
+/**
+ * requests the transactions of a compact block the receiver could not find, by their index
+ * in the block.
+ */
+public class FetchBlockTrxsMessage extends TronMessage {
+
+  private BlockTransactionsRequest request;
+  private BlockId blockId;
+
+  public FetchBlockTrxsMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.FETCH_BLOCK_TRXS.asByte();
+    this.request = BlockTransactionsRequest.parseFrom(data);
+    this.blockId = new BlockId(Sha256Hash.wrap(request.getBlockId()));
+  }
+
+  public FetchBlockTrxsMessage(BlockId blockId, List<Integer> indexes) {
+    this.request = BlockTransactionsRequest.newBuilder().setBlockId(blockId.getByteString())
+        .addAllIndexes(indexes).build();
+    this.blockId = blockId;
+    this.type = MessageTypes.FETCH_BLOCK_TRXS.asByte();
+    this.data = request.toByteArray();
+  }
+
+  public BlockId getBlockId() {
+    return blockId;
+  }
+
+  public List<Integer> getIndexes() {
+    return request.getIndexesList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", size: ").append(request.getIndexesCount()).toString();
+  }
+
+}
@@ -0,0 +1,17 @@
+package org.tron.core.net.message;
+
+import java.util.List;
+
+public class FetchCompactInvDataMessage extends CompactInventoryMessage {
+
+  public FetchCompactInvDataMessage(byte[] data) throws Exception {
+    super(data);
+    this.type = MessageTypes.FETCH_COMPACT_INV_DATA.asByte();
+  }
+
+  public FetchCompactInvDataMessage(List<Long> ids) {
+    super(ids);
+    this.type = MessageTypes.FETCH_COMPACT_INV_DATA.asByte();
+  }
+
+}
@@ -1,13 +1,29 @@
 package org.tron.core.net.message;
 
+import com.google.protobuf.CodedInputStream;
+import java.util.Arrays;
 import org.tron.common.overlay.message.Message;
+import org.tron.common.parameter.CommonParameter;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.P2pException;
+import org.tron.core.exception.P2pException.TypeEnum;
+import org.tron.core.metrics.MetricsKey;
+import org.tron.core.metrics.MetricsUtil;
 import org.tron.protos.Protocol.Transaction;
 
 public class TransactionMessage extends TronMessage {
 
-  private TransactionCapsule transactionCapsule;
+  // Transaction.raw_data, length delimited
+  private static final int TAG_RAW_DATA = 10;
+  // Transaction.raw.contract, length delimited
+  private static final int TAG_CONTRACT = 90;
+  // Transaction.Contract.type, varint
+  private static final int TAG_CONTRACT_TYPE = 8;
+
+  private volatile TransactionCapsule transactionCapsule;
+  private volatile Sha256Hash id;
+  private int contractType = -1;
 
   public TransactionMessage(byte[] data) throws Exception {
     super(data);
@@ -26,6 +42,113 @@ public class TransactionMessage extends TronMessage {
     this.data = trx.toByteArray();
   }
 
+  private TransactionMessage(byte[] data, Sha256Hash id, int contractType) {
+    super(data);
+    this.type = MessageTypes.TRX.asByte();
+    this.id = id;
+    this.contractType = contractType;
+  }
+
+  /**
+   * a transaction relayed in a TransactionsMessage, read from its bytes without parsing it.
+   * The id is the hash of the raw_data bytes as sent, the transaction is parsed by
+   * {@link #parse()} once it is known to be new. A transaction whose raw_data does not occur
+   * exactly once can not be hashed that way and is parsed right away.
+   */
+  static TransactionMessage scan(byte[] data, int offset, int length) throws Exception {
+    byte[] bytes = Arrays.copyOfRange(data, offset, offset + length);
+    CodedInputStream input = CodedInputStream.newInstance(bytes);
+    int rawOffset = -1;
+    int rawLength = 0;
+    int rawCount = 0;
+    while (!input.isAtEnd()) {
+      int tag = input.readTag();
+      if (tag == TAG_RAW_DATA) {
+        rawLength = input.readRawVarint32();
+        rawOffset = input.getTotalBytesRead();
+        input.skipRawBytes(rawLength);
+        rawCount++;
+      } else if (!input.skipField(tag)) {
+        break;
+      }
+    }
+    if (rawCount != 1) {
+      return new TransactionMessage(bytes);
+    }
+    Sha256Hash id = Sha256Hash.wrap(Sha256Hash.hash(
+        CommonParameter.getInstance().isECKeyCryptoEngine(), bytes, rawOffset, rawLength));
+    return new TransactionMessage(bytes, id, scanContractType(bytes, rawOffset, rawLength));
+  }
+
+  private static int scanContractType(byte[] bytes, int offset, int length) throws Exception {
+    CodedInputStream raw = CodedInputStream.newInstance(bytes, offset, length);
+    while (!raw.isAtEnd()) {
+      int tag = raw.readTag();
+      if (tag != TAG_CONTRACT) {
+        if (!raw.skipField(tag)) {
+          break;
+        }
+        continue;
+      }
+      int contractLength = raw.readRawVarint32();
+      CodedInputStream contract = CodedInputStream.newInstance(bytes,
+          offset + raw.getTotalBytesRead(), contractLength);
+      while (!contract.isAtEnd()) {
+        int field = contract.readTag();
+        if (field == TAG_CONTRACT_TYPE) {
+          return contract.readEnum();
+        }
+        if (!contract.skipField(field)) {
+          break;
+        }
+      }
+      return 0;
+    }
+    return -1;
+  }
+
+  /**
+   * parses a transaction read by {@link #scan}, a no-op for any other.
+   */
+  public void parse() throws P2pException {
+    if (transactionCapsule != null) {
+      return;
+    }
+    synchronized (this) {
+      if (transactionCapsule != null) {
+        return;
+      }
+      try {
+        TransactionCapsule capsule = new TransactionCapsule(getCodedInputStream(data));
+        if (Message.isFilter()) {
+          compareBytes(data, capsule.getInstance().toByteArray());
+          TransactionCapsule.validContractProto(capsule.getInstance().getRawData().getContract(0));
+        }
+        // a raw_data not encoded canonically hashes differently once parsed
+        id = capsule.getTransactionId();
+        transactionCapsule = capsule;
+      } catch (P2pException e) {
+        MetricsUtil.counterInc(MetricsKey.NET_ERROR_PROTO_COUNT);
+        throw e;
+      } catch (Exception e) {
+        MetricsUtil.counterInc(MetricsKey.NET_ERROR_PROTO_COUNT);
+        throw new P2pException(TypeEnum.PARSE_MESSAGE_FAILED,
+            "type=" + type + ", len=" + data.length + ", error msg: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * the contract type of the first contract, -1 when unknown before parsing.
+   */
+  public int getContractType() {
+    if (transactionCapsule != null) {
+      Transaction.raw raw = transactionCapsule.getInstance().getRawData();
+      return raw.getContractCount() == 0 ? -1 : raw.getContract(0).getTypeValue();
+    }
+    return contractType;
+  }
+
   @Override
   public String toString() {
     return new StringBuilder().append(super.toString())
@@ -34,7 +157,7 @@ public class TransactionMessage extends TronMessage {
 
   @Override
   public Sha256Hash getMessageId() {
-    return this.transactionCapsule.getTransactionId();
+    return id != null ? id : this.transactionCapsule.getTransactionId();
   }
 
   @Override
@@ -43,6 +166,13 @@ public class TransactionMessage extends TronMessage {
   }
 
   public TransactionCapsule getTransactionCapsule() {
+    if (transactionCapsule == null) {
+      try {
+        parse();
+      } catch (P2pException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+    }
     return this.transactionCapsule;
   }
 }
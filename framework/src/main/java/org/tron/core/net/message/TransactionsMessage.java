@@ -1,13 +1,25 @@
 package org.tron.core.net.message;
 
+import com.google.protobuf.CodedInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.P2pException;
+import org.tron.core.exception.P2pException.TypeEnum;
 import org.tron.protos.Protocol;
 import org.tron.protos.Protocol.Transaction;
 
+/**
+ * A received TransactionsMessage is only split into its transactions, which are hashed from
+ * their bytes and parsed one by one when needed, see {@link TransactionMessage#scan}.
+ */
 public class TransactionsMessage extends TronMessage {
 
-  private Protocol.Transactions transactions;
+  // Transactions.transactions, length delimited
+  private static final int TAG_TRANSACTIONS = 10;
+
+  private volatile Protocol.Transactions transactions;
+  private volatile List<TransactionMessage> transactionMessages;
 
   public TransactionsMessage(List<Transaction> trxs) {
     Protocol.Transactions.Builder builder = Protocol.Transactions.newBuilder();
@@ -20,21 +32,55 @@ public class TransactionsMessage extends TronMessage {
   public TransactionsMessage(byte[] data) throws Exception {
     super(data);
     this.type = MessageTypes.TRXS.asByte();
-    this.transactions = Protocol.Transactions.parseFrom(getCodedInputStream(data));
-    if (isFilter()) {
-      compareBytes(data, transactions.toByteArray());
-      TransactionCapsule.validContractProto(transactions.getTransactionsList());
+    List<TransactionMessage> messages = new ArrayList<>();
+    CodedInputStream input = CodedInputStream.newInstance(data);
+    while (!input.isAtEnd()) {
+      int tag = input.readTag();
+      if (tag == TAG_TRANSACTIONS) {
+        int length = input.readRawVarint32();
+        int offset = input.getTotalBytesRead();
+        input.skipRawBytes(length);
+        messages.add(TransactionMessage.scan(data, offset, length));
+      } else if (isFilter()) {
+        throw new P2pException(TypeEnum.PROTOBUF_ERROR, TypeEnum.PROTOBUF_ERROR.getDesc());
+      } else if (!input.skipField(tag)) {
+        break;
+      }
     }
+    this.transactionMessages = Collections.unmodifiableList(messages);
   }
 
+  /**
+   * the transactions, parsing all of a received message that are not parsed yet.
+   */
   public Protocol.Transactions getTransactions() {
+    if (transactions == null) {
+      Protocol.Transactions.Builder builder = Protocol.Transactions.newBuilder();
+      transactionMessages.forEach(
+          msg -> builder.addTransactions(msg.getTransactionCapsule().getInstance()));
+      transactions = builder.build();
+    }
     return transactions;
   }
 
+  public List<TransactionMessage> getTransactionMessages() {
+    if (transactionMessages == null) {
+      List<TransactionMessage> messages = new ArrayList<>();
+      transactions.getTransactionsList().forEach(trx -> messages.add(new TransactionMessage(trx)));
+      transactionMessages = Collections.unmodifiableList(messages);
+    }
+    return transactionMessages;
+  }
+
+  public int getTransactionCount() {
+    return transactionMessages != null ? transactionMessages.size()
+        : transactions.getTransactionsCount();
+  }
+
   @Override
   public String toString() {
     return new StringBuilder().append(super.toString()).append("trx size: ")
-        .append(this.transactions.getTransactionsList().size()).toString();
+        .append(getTransactionCount()).toString();
   }
 
   @Override
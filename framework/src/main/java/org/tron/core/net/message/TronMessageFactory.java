@@ -15,18 +15,28 @@ public class TronMessageFactory extends MessageFactory {
 
   @Override
   public TronMessage create(byte[] data) throws Exception {
+    if (data.length == 0) {
+      MetricsUtil.counterInc(MetricsKey.NET_ERROR_PROTO_COUNT);
+      throw new P2pException(P2pException.TypeEnum.PARSE_MESSAGE_FAILED, "empty message");
+    }
+    return create(data[0], ArrayUtils.subarray(data, 1, data.length));
+  }
+
+  /**
+   * creates the message from its type and the bytes following the type, so a decoder can
+   * read the body straight from the frame without copying the whole message first.
+   */
+  public TronMessage create(byte type, byte[] packed) throws Exception {
     boolean isException = false;
     try {
-      byte type = data[0];
-      byte[] rawData = ArrayUtils.subarray(data, 1, data.length);
-      return create(type, rawData);
+      return newMessage(type, packed);
     } catch (final P2pException e) {
       isException = true;
       throw e;
     } catch (final Exception e) {
       isException = true;
       throw new P2pException(P2pException.TypeEnum.PARSE_MESSAGE_FAILED,
-          "type=" + data[0] + DATA_LEN + data.length + ", error msg: " + e.getMessage());
+          "type=" + type + DATA_LEN + (packed.length + 1) + ", error msg: " + e.getMessage());
     } finally {
       if (isException) {
         MetricsUtil.counterInc(MetricsKey.NET_ERROR_PROTO_COUNT);
@@ -34,7 +44,7 @@ public class TronMessageFactory extends MessageFactory {
     }
   }
 
-  private TronMessage create(byte type, byte[] packed) throws Exception {
+  private TronMessage newMessage(byte type, byte[] packed) throws Exception {
     MessageTypes receivedTypes = MessageTypes.fromByte(type);
     if (receivedTypes == null) {
       throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE,
@@ -65,6 +75,16 @@ public class TronMessageFactory extends MessageFactory {
         return new TransactionInventoryMessage(packed);
       case PBFT_COMMIT_MSG:
         return new PbftCommitMessage(packed);
+      case COMPACT_INVENTORY:
+        return new CompactInventoryMessage(packed);
+      case FETCH_COMPACT_INV_DATA:
+        return new FetchCompactInvDataMessage(packed);
+      case COMPACT_BLOCK:
+        return new CompactBlockMessage(packed);
+      case FETCH_BLOCK_TRXS:
+        return new FetchBlockTrxsMessage(packed);
+      case BLOCK_TRXS:
+        return new BlockTrxsMessage(packed);
       default:
         throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE,
             receivedTypes.toString() + DATA_LEN + packed.length);
@@ -0,0 +1,273 @@
+package org.tron.core.net.messagehandler;
+
+import static org.tron.core.config.Parameter.NetConstants.MAX_TRX_FETCH_PER_PEER;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.tron.common.overlay.message.Message;
+import org.tron.common.utils.Pair;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.P2pException;
+import org.tron.core.exception.P2pException.TypeEnum;
+import org.tron.core.net.TronNetDelegate;
+import org.tron.core.net.message.BlockMessage;
+import org.tron.core.net.message.BlockTrxsMessage;
+import org.tron.core.net.message.CompactBlockMessage;
+import org.tron.core.net.message.CompactInventoryMessage;
+import org.tron.core.net.message.FetchBlockTrxsMessage;
+import org.tron.core.net.message.FetchCompactInvDataMessage;
+import org.tron.core.net.message.FetchInvDataMessage;
+import org.tron.core.net.message.TransactionMessage;
+import org.tron.core.net.message.TronMessage;
+import org.tron.core.net.peer.Item;
+import org.tron.core.net.peer.PeerConnection;
+import org.tron.core.net.service.AdvService;
+import org.tron.core.net.service.CompactRelayService;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.Inventory.InventoryType;
+import org.tron.protos.Protocol.ReasonCode;
+import org.tron.protos.Protocol.Transaction;
+
+/**
+ * Handles the messages of compact relay, see {@link CompactRelayService}. Transactions
+ * announced by short ids are fetched by short ids, a compact block is rebuilt from the
+ * transactions this node has and the rest are fetched by their index in the block.
+ */
+@Slf4j(topic = "net")
+@Component
+public class CompactRelayMsgHandler implements TronMsgHandler {
+
+  @Autowired
+  private TronNetDelegate tronNetDelegate;
+
+  @Autowired
+  private AdvService advService;
+
+  @Autowired
+  private CompactRelayService compactRelayService;
+
+  @Autowired
+  private TransactionsMsgHandler transactionsMsgHandler;
+
+  @Autowired
+  private FetchInvDataMsgHandler fetchInvDataMsgHandler;
+
+  @Autowired
+  private BlockMsgHandler blockMsgHandler;
+
+  private int maxCountIn10s = 10_000;
+
+  @Override
+  public void processMessage(PeerConnection peer, TronMessage msg) throws P2pException {
+    if (!compactRelayService.isCompact(peer)) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "compact relay is not enabled");
+    }
+    switch (msg.getType()) {
+      case COMPACT_INVENTORY:
+        processInventory(peer, (CompactInventoryMessage) msg);
+        break;
+      case FETCH_COMPACT_INV_DATA:
+        processFetchInvData(peer, (FetchCompactInvDataMessage) msg);
+        break;
+      case COMPACT_BLOCK:
+        processCompactBlock(peer, (CompactBlockMessage) msg);
+        break;
+      case FETCH_BLOCK_TRXS:
+        processFetchBlockTrxs(peer, (FetchBlockTrxsMessage) msg);
+        break;
+      case BLOCK_TRXS:
+        processBlockTrxs(peer, (BlockTrxsMessage) msg);
+        break;
+      default:
+        throw new P2pException(TypeEnum.NO_SUCH_MESSAGE, msg.getType().toString());
+    }
+  }
+
+  private void processInventory(PeerConnection peer, CompactInventoryMessage msg) {
+    int size = msg.getIds().size();
+    if (peer.isNeedSyncFromPeer() || peer.isNeedSyncFromUs()) {
+      logger.warn("Drop compact inv size: {} from Peer {}, syncFromUs: {}, syncFromPeer: {}.",
+          size, peer.getInetAddress(), peer.isNeedSyncFromUs(), peer.isNeedSyncFromPeer());
+      return;
+    }
+    int count = peer.getNodeStatistics().messageStatistics.tronInTrxInventoryElement.getCount(10);
+    if (count > maxCountIn10s) {
+      logger.warn("Drop compact inv size: {} from Peer {}, Inv count: {} is overload.",
+          size, peer.getInetAddress(), count);
+      return;
+    }
+    if (transactionsMsgHandler.isBusy()) {
+      logger.warn("Drop compact inv size: {} from Peer {}, transactionsMsgHandler is busy.",
+          size, peer.getInetAddress());
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    List<Long> fetch = new ArrayList<>();
+    for (long shortId : msg.getIds()) {
+      Sha256Hash id = compactRelayService.getKnown(shortId);
+      if (id != null) {
+        Item item = new Item(id, InventoryType.TRX);
+        peer.getAdvInvReceive().put(item, now);
+        advService.addInv(item);
+      } else if (fetch.size() < MAX_TRX_FETCH_PER_PEER && compactRelayService.request(shortId)) {
+        peer.getAdvShortIdRequest().put(shortId, now);
+        fetch.add(shortId);
+      }
+    }
+    if (!fetch.isEmpty()) {
+      peer.sendMessage(new FetchCompactInvDataMessage(fetch));
+    }
+  }
+
+  private void processFetchInvData(PeerConnection peer, FetchCompactInvDataMessage msg)
+      throws P2pException {
+    List<Sha256Hash> ids = new ArrayList<>(msg.getIds().size());
+    for (long shortId : msg.getIds()) {
+      Sha256Hash id = peer.getAdvShortIdSpread().getIfPresent(shortId);
+      if (id == null) {
+        throw new P2pException(TypeEnum.BAD_MESSAGE, "not spread short id: " + shortId);
+      }
+      ids.add(id);
+    }
+    fetchInvDataMsgHandler.processMessage(peer, new FetchInvDataMessage(ids, InventoryType.TRX));
+  }
+
+  private void processCompactBlock(PeerConnection peer, CompactBlockMessage msg)
+      throws P2pException {
+    Item item = new Item(msg.getBlockId(), InventoryType.BLOCK);
+    if (!peer.getAdvInvRequest().containsKey(item)) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "no request");
+    }
+    List<Long> shortIds = msg.getTransactionIds();
+    if (msg.getTransactionRetsCount() != shortIds.size()) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, shortIds.size() + " trxs with "
+          + msg.getTransactionRetsCount() + " rets");
+    }
+    Transaction[] trxs = new Transaction[shortIds.size()];
+    for (int i = 0; i < trxs.length; i++) {
+      Transaction trx = findTransaction(shortIds.get(i));
+      if (trx != null) {
+        // the merkle root covers the results the block holds, not those of the local copy
+        trxs[i] = trx.toBuilder().clearRet().addAllRet(msg.getTransactionRet(i)).build();
+      }
+    }
+    complete(peer, msg, trxs, false);
+  }
+
+  private Transaction findTransaction(long shortId) {
+    Sha256Hash id = compactRelayService.getKnown(shortId);
+    if (id == null) {
+      return null;
+    }
+    Message message = advService.getMessage(new Item(id, InventoryType.TRX));
+    if (message != null) {
+      return ((TransactionMessage) message).getTransactionCapsule().getInstance();
+    }
+    TransactionCapsule trx = tronNetDelegate.getPendingTransaction(id);
+    return trx == null ? null : trx.getInstance();
+  }
+
+  /**
+   * hands the block on once all its transactions are there, otherwise requests the missing.
+   * A short id that matched a different transaction shows in the merkle root, then all the
+   * transactions are requested, unless they all came from the peer already.
+   */
+  private void complete(PeerConnection peer, CompactBlockMessage msg, Transaction[] trxs,
+      boolean fetchedAll) throws P2pException {
+    List<Integer> missing = new ArrayList<>();
+    for (int i = 0; i < trxs.length; i++) {
+      if (trxs[i] == null) {
+        missing.add(i);
+      }
+    }
+    if (!missing.isEmpty()) {
+      request(peer, msg, trxs, missing);
+      return;
+    }
+
+    BlockCapsule block = new BlockCapsule(Block.newBuilder()
+        .setBlockHeader(msg.getBlockHeader()).addAllTransactions(Arrays.asList(trxs)).build());
+    if (!block.calcMerkleRoot().equals(block.getMerkleRoot())) {
+      if (fetchedAll) {
+        throw new P2pException(TypeEnum.BAD_BLOCK,
+            "merkle root mismatch of compact block " + msg.getBlockId().getString());
+      }
+      logger.info("Compact block {} from {} does not match, fetch all trxs.",
+          msg.getBlockId().getString(), peer.getInetAddress());
+      List<Integer> all = new ArrayList<>(trxs.length);
+      for (int i = 0; i < trxs.length; i++) {
+        all.add(i);
+      }
+      request(peer, msg, new Transaction[trxs.length], all);
+      return;
+    }
+    blockMsgHandler.processMessage(peer, new BlockMessage(block));
+  }
+
+  private void request(PeerConnection peer, CompactBlockMessage msg, Transaction[] trxs,
+      List<Integer> indexes) {
+    peer.getCompactBlockPending().put(msg.getBlockId(), new Pair<>(msg, trxs));
+    peer.fastSend(new FetchBlockTrxsMessage(msg.getBlockId(), indexes));
+  }
+
+  private void processFetchBlockTrxs(PeerConnection peer, FetchBlockTrxsMessage msg)
+      throws P2pException {
+    BlockId blockId = msg.getBlockId();
+    Item item = new Item(blockId, InventoryType.BLOCK);
+    if (peer.getAdvInvSpread().getIfPresent(item) == null) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "not spread block: " + blockId.getString());
+    }
+    Message message = advService.getMessage(item);
+    if (message == null) {
+      try {
+        message = tronNetDelegate.getData(blockId, InventoryType.BLOCK);
+      } catch (Exception e) {
+        logger.error("Fetch trxs of block {} failed. reason: {}", blockId.getString(),
+            e.getMessage());
+        peer.disconnect(ReasonCode.FETCH_FAIL);
+        return;
+      }
+    }
+    List<Transaction> all = ((BlockMessage) message).getBlockCapsule().getInstance()
+        .getTransactionsList();
+    List<Transaction> trxs = new ArrayList<>(msg.getIndexes().size());
+    for (int index : msg.getIndexes()) {
+      if (index < 0 || index >= all.size()) {
+        throw new P2pException(TypeEnum.BAD_MESSAGE, "trx index " + index + " of block "
+            + blockId.getString() + " out of range");
+      }
+      trxs.add(all.get(index));
+    }
+    peer.fastSend(new BlockTrxsMessage(blockId, trxs));
+  }
+
+  private void processBlockTrxs(PeerConnection peer, BlockTrxsMessage msg) throws P2pException {
+    Pair<CompactBlockMessage, Transaction[]> pending =
+        peer.getCompactBlockPending().remove(msg.getBlockId());
+    if (pending == null) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE, "no request");
+    }
+    Transaction[] trxs = pending.getValue();
+    List<Transaction> received = msg.getTransactions();
+    int missing = (int) Arrays.stream(trxs).filter(trx -> trx == null).count();
+    if (received.size() != missing) {
+      throw new P2pException(TypeEnum.BAD_MESSAGE,
+          "requested " + missing + " trxs, received " + received.size());
+    }
+    int next = 0;
+    for (int i = 0; i < trxs.length; i++) {
+      if (trxs[i] == null) {
+        trxs[i] = received.get(next++);
+      }
+    }
+    complete(peer, pending.getKey(), trxs, missing == trxs.length);
+  }
+}
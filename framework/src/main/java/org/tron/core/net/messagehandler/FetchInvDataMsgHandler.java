@@ -31,6 +31,7 @@ import org.tron.core.net.message.TronMessage;
 import org.tron.core.net.peer.Item;
 import org.tron.core.net.peer.PeerConnection;
 import org.tron.core.net.service.AdvService;
+import org.tron.core.net.service.CompactRelayService;
 import org.tron.core.net.service.SyncService;
 import org.tron.protos.Protocol.Inventory.InventoryType;
 import org.tron.protos.Protocol.PBFTMessage.Raw;
@@ -53,6 +54,8 @@ public class FetchInvDataMsgHandler implements TronMsgHandler {
   private AdvService advService;
   @Autowired
   private ConsensusDelegate consensusDelegate;
+  @Autowired
+  private CompactRelayService compactRelayService;
 
   @Override
   public void processMessage(PeerConnection peer, TronMessage msg) throws P2pException {
@@ -85,7 +88,14 @@ public class FetchInvDataMsgHandler implements TronMsgHandler {
           peer.setBlockBothHave(blockId);
         }
         sendPbftCommitMessage(peer, ((BlockMessage) message).getBlockCapsule());
-        peer.sendMessage(message);
+        // an announced block goes out compact, a block fetched for sync in full
+        if (compactRelayService.isCompact(peer)
+            && peer.getAdvInvSpread().getIfPresent(item) != null) {
+          peer.sendMessage(compactRelayService.compactBlock(peer,
+              ((BlockMessage) message).getBlockCapsule()));
+        } else {
+          peer.sendMessage(message);
+        }
       } else {
         transactions.add(((TransactionMessage) message).getTransactionCapsule().getInstance());
         size += ((TransactionMessage) message).getTransactionCapsule().getInstance()
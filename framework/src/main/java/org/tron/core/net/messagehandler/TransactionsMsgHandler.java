@@ -1,16 +1,25 @@
 package org.tron.core.net.messagehandler;
 
+import io.prometheus.client.Histogram;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.config.args.Args;
 import org.tron.core.exception.P2pException;
 import org.tron.core.exception.P2pException.TypeEnum;
@@ -21,113 +30,224 @@ import org.tron.core.net.message.TronMessage;
 import org.tron.core.net.peer.Item;
 import org.tron.core.net.peer.PeerConnection;
 import org.tron.core.net.service.AdvService;
+import org.tron.core.net.service.CompactRelayService;
 import org.tron.protos.Protocol.Inventory.InventoryType;
 import org.tron.protos.Protocol.ReasonCode;
-import org.tron.protos.Protocol.Transaction;
 import org.tron.protos.Protocol.Transaction.Contract.ContractType;
 
+/**
+ * Transactions are admitted in two stages: the handle pool drops known transactions and
+ * verifies signatures in parallel, then a single admit thread pushes the verified ones
+ * into pending in batches, taking the manager lock once per batch.
+ */
 @Slf4j(topic = "net")
 @Component
 public class TransactionsMsgHandler implements TronMsgHandler {
 
   private static int MAX_TRX_SIZE = 50_000;
   private static int MAX_SMART_CONTRACT_SUBMIT_SIZE = 100;
+  private static int MAX_ADMIT_BATCH_SIZE = 100;
   @Autowired
   private TronNetDelegate tronNetDelegate;
   @Autowired
   private AdvService advService;
+  @Autowired
+  private CompactRelayService compactRelayService;
 
   private BlockingQueue<TrxEvent> smartContractQueue = new LinkedBlockingQueue(MAX_TRX_SIZE);
 
   private BlockingQueue<Runnable> queue = new LinkedBlockingQueue();
 
+  private BlockingQueue<TrxEvent> admitQueue = new LinkedBlockingQueue<>();
+
   private int threadNum = Args.getInstance().getValidateSignThreadNum();
   private ExecutorService trxHandlePool = new ThreadPoolExecutor(threadNum, threadNum, 0L,
       TimeUnit.MILLISECONDS, queue);
 
-  private ScheduledExecutorService smartContractExecutor = Executors
-      .newSingleThreadScheduledExecutor();
+  private ExecutorService admitExecutor = Executors
+      .newSingleThreadExecutor(r -> new Thread(r, "trx-admit"));
+
+  private volatile boolean isRunning;
 
   public void init() {
-    handleSmartContract();
+    isRunning = true;
+    admitExecutor.submit(this::admit);
   }
 
   public void close() {
-    smartContractExecutor.shutdown();
+    isRunning = false;
+    admitExecutor.shutdownNow();
   }
 
   public boolean isBusy() {
-    return queue.size() + smartContractQueue.size() > MAX_TRX_SIZE;
+    return queue.size() + smartContractQueue.size() + admitQueue.size() > MAX_TRX_SIZE;
   }
 
   @Override
   public void processMessage(PeerConnection peer, TronMessage msg) throws P2pException {
     TransactionsMessage transactionsMessage = (TransactionsMessage) msg;
     check(peer, transactionsMessage);
-    for (Transaction trx : transactionsMessage.getTransactions().getTransactionsList()) {
-      int type = trx.getRawData().getContract(0).getType().getNumber();
+    for (TransactionMessage trx : transactionsMessage.getTransactionMessages()) {
+      int type = trx.getContractType();
       if (type == ContractType.TriggerSmartContract_VALUE
           || type == ContractType.CreateSmartContract_VALUE) {
-        if (!smartContractQueue.offer(new TrxEvent(peer, new TransactionMessage(trx)))) {
+        if (!smartContractQueue.offer(new TrxEvent(peer, trx))) {
           logger.warn("Add smart contract failed, queueSize {}:{}", smartContractQueue.size(),
               queue.size());
         }
       } else {
-        trxHandlePool.submit(() -> handleTransaction(peer, new TransactionMessage(trx)));
+        TrxEvent event = new TrxEvent(peer, trx);
+        trxHandlePool.submit(() -> verify(event));
       }
     }
+    submitSmartContract();
+    Metrics.gaugeSet(MetricKeys.Gauge.TRX_HANDLER_QUEUE, queue.size(),
+        MetricLabels.Gauge.TRX_QUEUE_VERIFY);
+    Metrics.gaugeSet(MetricKeys.Gauge.TRX_HANDLER_QUEUE, smartContractQueue.size(),
+        MetricLabels.Gauge.TRX_QUEUE_SMART_CONTRACT);
   }
 
   private void check(PeerConnection peer, TransactionsMessage msg) throws P2pException {
-    for (Transaction trx : msg.getTransactions().getTransactionsList()) {
-      Item item = new Item(new TransactionMessage(trx).getMessageId(), InventoryType.TRX);
-      if (!peer.getAdvInvRequest().containsKey(item)) {
+    for (TransactionMessage trx : msg.getTransactionMessages()) {
+      Item item = new Item(trx.getMessageId(), InventoryType.TRX);
+      if (!isRequested(peer, item)) {
+        // the id hashed from the bytes as sent differs for a raw_data not encoded canonically
+        trx.parse();
+        item = new Item(trx.getMessageId(), InventoryType.TRX);
+      }
+      if (!isRequested(peer, item)) {
         throw new P2pException(TypeEnum.BAD_MESSAGE,
             "trx: " + msg.getMessageId() + " without request.");
       }
-      peer.getAdvInvRequest().remove(item);
+      if (peer.getAdvInvRequest().remove(item) == null) {
+        // requested by its short id, so other announcements of it are not fetched again
+        peer.getAdvShortIdRequest().remove(compactRelayService.localShortId(item.getHash()));
+        compactRelayService.addKnown(item.getHash());
+        advService.addInvToCache(item);
+      }
+    }
+  }
+
+  private boolean isRequested(PeerConnection peer, Item item) {
+    return peer.getAdvInvRequest().containsKey(item)
+        || !peer.getAdvShortIdRequest().isEmpty() && peer.getAdvShortIdRequest()
+        .containsKey(compactRelayService.localShortId(item.getHash()));
+  }
+
+  /**
+   * smart contract transactions are only handed to the pool while it is nearly idle, so
+   * they can not crowd out the others. Called whenever the pool may have drained.
+   */
+  private void submitSmartContract() {
+    while (queue.size() < MAX_SMART_CONTRACT_SUBMIT_SIZE) {
+      TrxEvent event = smartContractQueue.poll();
+      if (event == null) {
+        return;
+      }
+      trxHandlePool.submit(() -> verify(event));
+    }
+  }
+
+  private void verify(TrxEvent event) {
+    PeerConnection peer = event.getPeer();
+    TransactionMessage trx = event.getMsg();
+    Histogram.Timer timer = Metrics.histogramStartTimer(
+        MetricKeys.Histogram.TRX_HANDLER_LATENCY, MetricLabels.Histogram.TRX_STAGE_VERIFY);
+    try {
+      if (peer.isDisconnect()) {
+        logger.warn("Drop trx {} from {}, peer is disconnect.", trx.getMessageId(),
+            peer.getInetAddress());
+        return;
+      }
+      if (isKnown(trx.getMessageId())) {
+        return;
+      }
+      Sha256Hash id = trx.getMessageId();
+      trx.parse();
+      if (!id.equals(trx.getMessageId()) && isKnown(trx.getMessageId())) {
+        return;
+      }
+      tronNetDelegate.validSignature(trx.getTransactionCapsule());
+      admitQueue.offer(event);
+    } catch (P2pException e) {
+      processException(peer, trx, e);
+    } catch (Exception e) {
+      logger.error("Trx {} from peer {} process failed.", trx.getMessageId(), peer.getInetAddress(),
+          e);
+    } finally {
+      Metrics.histogramObserve(timer);
+      submitSmartContract();
     }
   }
 
-  private void handleSmartContract() {
-    smartContractExecutor.scheduleWithFixedDelay(() -> {
+  private boolean isKnown(Sha256Hash id) {
+    return advService.getMessage(new Item(id, InventoryType.TRX)) != null
+        || tronNetDelegate.containTransaction(id);
+  }
+
+  private void admit() {
+    List<TrxEvent> events = new ArrayList<>(MAX_ADMIT_BATCH_SIZE);
+    while (isRunning) {
       try {
-        while (queue.size() < MAX_SMART_CONTRACT_SUBMIT_SIZE) {
-          TrxEvent event = smartContractQueue.take();
-          trxHandlePool.submit(() -> handleTransaction(event.getPeer(), event.getMsg()));
-        }
+        events.add(admitQueue.take());
+        admitQueue.drainTo(events, MAX_ADMIT_BATCH_SIZE - 1);
+        Metrics.gaugeSet(MetricKeys.Gauge.TRX_HANDLER_QUEUE, admitQueue.size(),
+            MetricLabels.Gauge.TRX_QUEUE_ADMIT);
+        admit(events);
       } catch (InterruptedException e) {
-        logger.warn("Handle smart server interrupted.");
+        logger.warn("Admit trx server interrupted.");
         Thread.currentThread().interrupt();
+        return;
       } catch (Exception e) {
-        logger.error("Handle smart contract exception.", e);
+        logger.error("Admit trx exception.", e);
+      } finally {
+        events.clear();
       }
-    }, 1000, 20, TimeUnit.MILLISECONDS);
+    }
   }
 
-  private void handleTransaction(PeerConnection peer, TransactionMessage trx) {
-    if (peer.isDisconnect()) {
-      logger.warn("Drop trx {} from {}, peer is disconnect.", trx.getMessageId(),
-          peer.getInetAddress());
-      return;
+  private void admit(List<TrxEvent> events) {
+    List<TrxEvent> batch = new ArrayList<>(events.size());
+    List<TransactionCapsule> trxs = new ArrayList<>(events.size());
+    Set<Item> items = new HashSet<>();
+    for (TrxEvent event : events) {
+      // the same transaction may pass verification from several peers at once
+      Item item = new Item(event.getMsg().getMessageId(), InventoryType.TRX);
+      if (items.add(item) && advService.getMessage(item) == null) {
+        batch.add(event);
+        trxs.add(event.getMsg().getTransactionCapsule());
+      }
     }
-
-    if (advService.getMessage(new Item(trx.getMessageId(), InventoryType.TRX)) != null) {
+    if (batch.isEmpty()) {
       return;
     }
-
-    try {
-      tronNetDelegate.pushTransaction(trx.getTransactionCapsule());
-      advService.broadcast(trx);
-    } catch (P2pException e) {
-      logger.warn("Trx {} from peer {} process failed. type: {}, reason: {}",
-          trx.getMessageId(), peer.getInetAddress(), e.getType(), e.getMessage());
-      if (e.getType().equals(TypeEnum.BAD_TRX)) {
-        peer.disconnect(ReasonCode.BAD_TX);
+    Histogram.Timer timer = Metrics.histogramStartTimer(
+        MetricKeys.Histogram.TRX_HANDLER_LATENCY, MetricLabels.Histogram.TRX_STAGE_ADMIT);
+    List<P2pException> results = tronNetDelegate.pushTransactions(trxs);
+    Metrics.histogramObserve(timer);
+    for (int i = 0; i < batch.size(); i++) {
+      TrxEvent event = batch.get(i);
+      if (results.get(i) == null) {
+        advService.broadcast(event.getMsg());
+      } else {
+        processException(event.getPeer(), event.getMsg(), results.get(i));
       }
-    } catch (Exception e) {
+    }
+  }
+
+  private void processException(PeerConnection peer, TransactionMessage trx, P2pException e) {
+    if (e.getType().equals(TypeEnum.DEFAULT)) {
       logger.error("Trx {} from peer {} process failed.", trx.getMessageId(), peer.getInetAddress(),
-          e);
+          e.getCause());
+      return;
+    }
+    logger.warn("Trx {} from peer {} process failed. type: {}, reason: {}",
+        trx.getMessageId(), peer.getInetAddress(), e.getType(), e.getMessage());
+    if (e.getType().equals(TypeEnum.BAD_TRX)) {
+      peer.disconnect(ReasonCode.BAD_TX);
+    } else if (e.getType().equals(TypeEnum.PARSE_MESSAGE_FAILED)
+        || e.getType().equals(TypeEnum.PROTOBUF_ERROR)) {
+      peer.disconnect(ReasonCode.BAD_PROTOCOL);
     }
   }
 
@@ -24,8 +24,11 @@ import org.tron.core.Constant;
 import org.tron.core.capsule.BlockCapsule.BlockId;
 import org.tron.core.config.Parameter.NetConstants;
 import org.tron.core.net.TronNetDelegate;
+import org.tron.core.net.message.CompactBlockMessage;
 import org.tron.core.net.service.AdvService;
+import org.tron.core.net.service.CompactRelayService;
 import org.tron.core.net.service.SyncService;
+import org.tron.protos.Protocol.Transaction;
 
 @Slf4j(topic = "net")
 @Component
@@ -41,6 +44,9 @@ public class PeerConnection extends Channel {
   @Autowired
   private AdvService advService;
 
+  @Autowired
+  private CompactRelayService compactRelayService;
+
   @Setter
   @Getter
   private HelloMessage helloMessageReceive;
@@ -65,6 +71,20 @@ public class PeerConnection extends Channel {
   @Getter
   private Map<Item, Long> advInvRequest = new ConcurrentHashMap<>();
 
+  // short ids announced to the peer under its key, see CompactRelayService
+  @Getter
+  private Cache<Long, Sha256Hash> advShortIdSpread = CacheBuilder.newBuilder()
+      .maximumSize(invCacheSize).expireAfterWrite(1, TimeUnit.HOURS).recordStats().build();
+
+  // short ids under the local key requested from the peer
+  @Getter
+  private Map<Long, Long> advShortIdRequest = new ConcurrentHashMap<>();
+
+  // compact blocks from the peer waiting for the transactions requested for them
+  @Getter
+  private Map<BlockId, Pair<CompactBlockMessage, Transaction[]>> compactBlockPending =
+      new ConcurrentHashMap<>();
+
   @Setter
   private BlockId fastForwardBlock;
 
@@ -90,6 +110,10 @@ public class PeerConnection extends Channel {
   @Setter
   @Getter
   private Pair<Deque<BlockId>, Long> syncChainRequested = null;
+  // how many sync blocks may be requested from the peer at once, see SyncService
+  @Setter
+  @Getter
+  private volatile int syncFetchWindow = NetConstants.MAX_BLOCK_FETCH_PER_PEER;
   @Setter
   @Getter
   private Set<BlockId> syncBlockInProcess = new HashSet<>();
@@ -136,9 +160,13 @@ public class PeerConnection extends Channel {
   public void onDisconnect() {
     syncService.onDisconnect(this);
     advService.onDisconnect(this);
+    compactRelayService.onDisconnect(this);
     advInvReceive.cleanUp();
     advInvSpread.cleanUp();
     advInvRequest.clear();
+    advShortIdSpread.cleanUp();
+    advShortIdRequest.clear();
+    compactBlockPending.clear();
     syncBlockIdCache.cleanUp();
     syncBlockToFetch.clear();
     syncBlockRequested.clear();
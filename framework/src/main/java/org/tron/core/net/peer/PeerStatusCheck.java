@@ -55,6 +55,11 @@ public class PeerStatusCheck {
             .anyMatch(time -> time < now - NetConstants.ADV_TIME_OUT);
       }
 
+      if (!isDisconnected) {
+        isDisconnected = peer.getAdvShortIdRequest().values().stream()
+            .anyMatch(time -> time < now - NetConstants.ADV_TIME_OUT);
+      }
+
       if (!isDisconnected) {
         isDisconnected = peer.getSyncBlockRequested().values().stream()
             .anyMatch(time -> time < now - NetConstants.SYNC_TIME_OUT);
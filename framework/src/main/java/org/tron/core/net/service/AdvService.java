@@ -53,6 +53,9 @@ public class AdvService {
   @Autowired
   private FetchBlockService fetchBlockService;
 
+  @Autowired
+  private CompactRelayService compactRelayService;
+
   private ConcurrentHashMap<Item, Long> invToFetch = new ConcurrentHashMap<>();
 
   private ConcurrentHashMap<Item, Long> invToSpread = new ConcurrentHashMap<>();
@@ -114,6 +117,10 @@ public class AdvService {
       return false;
     }
 
+    if (item.getType().equals(InventoryType.TRX)) {
+      compactRelayService.addKnown(item.getHash());
+    }
+
     if (item.getType().equals(InventoryType.TRX) && trxCache.getIfPresent(item) != null) {
       return false;
     }
@@ -158,10 +165,10 @@ public class AdvService {
     Item item = new Item(msg.getMessageId(), InventoryType.TRX);
     trxCount.add();
     trxCache.put(item, new TransactionMessage(msg.getTransactionCapsule().getInstance()));
+    compactRelayService.addKnown(item.getHash());
 
     List<Sha256Hash> list = new ArrayList<>();
     list.add(msg.getMessageId());
-    InventoryMessage inventoryMessage = new InventoryMessage(list, InventoryType.TRX);
 
     int peersCount = 0;
     for (PeerConnection peer: peers) {
@@ -169,7 +176,7 @@ public class AdvService {
               && peer.getAdvInvSpread().getIfPresent(item) == null) {
         peersCount++;
         peer.getAdvInvSpread().put(item, Time.getCurrentMillis());
-        peer.fastSend(inventoryMessage);
+        peer.fastSend(compactRelayService.trxInventory(peer, list));
       }
     }
     if (peersCount == 0) {
@@ -199,6 +206,7 @@ public class AdvService {
         invToSpread.remove(tid);
         trxCache.put(new Item(tid, InventoryType.TRX),
             new TransactionMessage(transactionCapsule.getInstance()));
+        compactRelayService.addKnown(tid);
       });
       blockCache.put(item, msg);
     } else if (msg instanceof TransactionMessage) {
@@ -206,6 +214,7 @@ public class AdvService {
       item = new Item(trxMsg.getMessageId(), InventoryType.TRX);
       trxCount.add();
       trxCache.put(item, new TransactionMessage(trxMsg.getTransactionCapsule().getInstance()));
+      compactRelayService.addKnown(item.getHash());
     } else {
       logger.error("Adv item is neither block nor trx, type: {}", msg.getType());
       return;
@@ -366,7 +375,7 @@ public class AdvService {
           value.sort(Comparator.comparingLong(value1 -> new BlockId(value1).getNum()));
           peer.fastSend(new InventoryMessage(value, key));
         } else {
-          peer.sendMessage(new InventoryMessage(value, key));
+          peer.sendMessage(compactRelayService.trxInventory(peer, value));
         }
       }));
     }
@@ -0,0 +1,138 @@
+package org.tron.core.net.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.ByteString;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.config.Parameter.NetConstants;
+import org.tron.core.config.args.Args;
+import org.tron.core.net.message.CompactBlockMessage;
+import org.tron.core.net.message.CompactInventoryMessage;
+import org.tron.core.net.message.InventoryMessage;
+import org.tron.core.net.message.TronMessage;
+import org.tron.core.net.peer.PeerConnection;
+import org.tron.protos.Protocol.Inventory.InventoryType;
+import org.tron.protos.Protocol.Transaction.Result;
+
+/**
+ * Compact relay announces transactions to a peer by 8 byte short ids instead of their 32 byte
+ * ids, and answers the fetch of an announced block with its header, the short ids of its
+ * transactions and their results, and the peer looks the transactions up among those it
+ * already has.
+ *
+ * <p>A node that enables it sends a random key in its hello message, and the short ids sent
+ * to it are the SipHash of the transaction id under that key. Every short id a node receives
+ * is computed under its own key, so one index of the transactions it knows resolves them
+ * all. The key is sent to every peer, which can therefore make transactions whose short ids
+ * collide; a block rebuilt from a wrong transaction fails its merkle root and all its
+ * transactions are fetched instead. Compact messages are only sent when both sides sent a
+ * key.
+ */
+@Slf4j(topic = "net")
+@Component
+public class CompactRelayService {
+
+  private static final int KEY_LENGTH = 16;
+  private static final int MAX_KNOWN_TRX_SIZE = 200_000;
+  private static final byte[] LOCAL_KEY = newKey();
+
+  private final boolean enabled = Args.getInstance().isCompactRelay();
+
+  // the transactions this node has seen, by their short id under the local key
+  private Cache<Long, Sha256Hash> knownTrxs = CacheBuilder.newBuilder()
+      .maximumSize(MAX_KNOWN_TRX_SIZE).expireAfterWrite(1, TimeUnit.HOURS)
+      .recordStats().build();
+
+  // the short ids requested from any peer, a transaction is only requested once
+  private Cache<Long, Long> requestedTrxs = CacheBuilder.newBuilder()
+      .maximumSize(MAX_KNOWN_TRX_SIZE)
+      .expireAfterWrite(NetConstants.ADV_TIME_OUT, TimeUnit.MILLISECONDS).build();
+
+  public static byte[] getLocalKey() {
+    return LOCAL_KEY.clone();
+  }
+
+  private static byte[] newKey() {
+    byte[] key = new byte[KEY_LENGTH];
+    new SecureRandom().nextBytes(key);
+    return key;
+  }
+
+  public static long shortId(ByteBuffer key, Sha256Hash id) {
+    return Hashing.sipHash24(key.getLong(0), key.getLong(8)).hashBytes(id.getBytes()).asLong();
+  }
+
+  public long localShortId(Sha256Hash id) {
+    return shortId(ByteBuffer.wrap(LOCAL_KEY), id);
+  }
+
+  public long remoteShortId(PeerConnection peer, Sha256Hash id) {
+    return shortId(remoteKey(peer).asReadOnlyByteBuffer(), id);
+  }
+
+  private ByteString remoteKey(PeerConnection peer) {
+    return peer.getHelloMessageReceive().getInstance().getCompactRelayKey();
+  }
+
+  public boolean isCompact(PeerConnection peer) {
+    return enabled && peer.getHelloMessageReceive() != null
+        && remoteKey(peer).size() == KEY_LENGTH;
+  }
+
+  public void addKnown(Sha256Hash id) {
+    if (enabled) {
+      knownTrxs.put(localShortId(id), id);
+    }
+  }
+
+  public Sha256Hash getKnown(long shortId) {
+    return knownTrxs.getIfPresent(shortId);
+  }
+
+  /**
+   * marks the short id as requested, false if it is requested already.
+   */
+  public boolean request(long shortId) {
+    return requestedTrxs.asMap().putIfAbsent(shortId, System.currentTimeMillis()) == null;
+  }
+
+  /**
+   * the inventory of the transactions for the peer, compact if the peer takes it.
+   */
+  public TronMessage trxInventory(PeerConnection peer, List<Sha256Hash> ids) {
+    if (!isCompact(peer)) {
+      return new InventoryMessage(ids, InventoryType.TRX);
+    }
+    List<Long> shortIds = new ArrayList<>(ids.size());
+    for (Sha256Hash id : ids) {
+      long shortId = remoteShortId(peer, id);
+      peer.getAdvShortIdSpread().put(shortId, id);
+      shortIds.add(shortId);
+    }
+    return new CompactInventoryMessage(shortIds);
+  }
+
+  public CompactBlockMessage compactBlock(PeerConnection peer, BlockCapsule block) {
+    List<Long> shortIds = new ArrayList<>(block.getTransactions().size());
+    List<List<Result>> rets = new ArrayList<>(block.getTransactions().size());
+    for (TransactionCapsule trx : block.getTransactions()) {
+      shortIds.add(remoteShortId(peer, trx.getTransactionId()));
+      rets.add(trx.getInstance().getRetList());
+    }
+    return new CompactBlockMessage(block.getInstance().getBlockHeader(), shortIds, rets);
+  }
+
+  public void onDisconnect(PeerConnection peer) {
+    requestedTrxs.invalidateAll(peer.getAdvShortIdRequest().keySet());
+  }
+}
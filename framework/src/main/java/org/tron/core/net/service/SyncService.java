@@ -11,7 +11,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import lombok.Setter;
@@ -22,6 +25,7 @@ import org.tron.common.overlay.server.Channel.TronState;
 import org.tron.common.utils.Pair;
 import org.tron.core.capsule.BlockCapsule;
 import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.config.Parameter.NetConstants;
 import org.tron.core.config.args.Args;
 import org.tron.core.exception.P2pException;
@@ -35,6 +39,13 @@ import org.tron.core.net.peer.PeerConnection;
 import org.tron.protos.Protocol.Inventory.InventoryType;
 import org.tron.protos.Protocol.ReasonCode;
 
+/**
+ * Sync blocks are requested from every peer that has them, each peer keeping as many requests
+ * in flight as its window allows. The window grows while the peer answers within the target
+ * latency and shrinks when it does not. Received blocks are prepared on a worker pool, which
+ * recovers the witness and transaction signers and hashes the transactions for the merkle root,
+ * so applying them in order only runs the checks that depend on state and the execution.
+ */
 @Slf4j(topic = "net")
 @Component
 public class SyncService {
@@ -49,6 +60,8 @@ public class SyncService {
 
   private Map<BlockMessage, PeerConnection> blockJustReceived = new ConcurrentHashMap<>();
 
+  private Map<BlockMessage, Future<?>> blockPrepared = new ConcurrentHashMap<>();
+
   private long blockCacheTimeout = Args.getInstance().getBlockCacheTimeout();
   private Cache<BlockId, Long> requestBlockIds = CacheBuilder.newBuilder().maximumSize(10_000)
       .expireAfterWrite(blockCacheTimeout, TimeUnit.MINUTES).initialCapacity(10_000)
@@ -59,6 +72,9 @@ public class SyncService {
   private ScheduledExecutorService blockHandleExecutor = Executors
       .newSingleThreadScheduledExecutor();
 
+  private ExecutorService blockPrepareExecutor = Executors
+      .newFixedThreadPool(Args.getInstance().getValidateSignThreadNum());
+
   private volatile boolean handleFlag = false;
 
   @Setter
@@ -91,6 +107,7 @@ public class SyncService {
   public void close() {
     fetchExecutor.shutdown();
     blockHandleExecutor.shutdown();
+    blockPrepareExecutor.shutdown();
   }
 
   public void startSync(PeerConnection peer) {
@@ -122,11 +139,17 @@ public class SyncService {
   }
 
   public void processBlock(PeerConnection peer, BlockMessage blockMessage) {
+    Long requestTime = requestBlockIds.getIfPresent(blockMessage.getBlockId());
+    if (requestTime != null) {
+      adjustFetchWindow(peer, System.currentTimeMillis() - requestTime);
+    }
+    BlockCapsule block = blockMessage.getBlockCapsule();
+    blockPrepared.put(blockMessage, blockPrepareExecutor.submit(() -> prepare(block)));
     synchronized (blockJustReceived) {
       blockJustReceived.put(blockMessage, peer);
     }
     handleFlag = true;
-    if (peer.isIdle()) {
+    if (peer.getSyncChainRequested() == null) {
       if (peer.getRemainNum() > 0
           && peer.getSyncBlockToFetch().size() <= NetConstants.SYNC_FETCH_BATCH_NUM) {
         syncNext(peer);
@@ -136,6 +159,33 @@ public class SyncService {
     }
   }
 
+  private void adjustFetchWindow(PeerConnection peer, long latency) {
+    int window = peer.getSyncFetchWindow();
+    if (latency <= NetConstants.SYNC_FETCH_TARGET_LATENCY) {
+      window = Math.min(window + 1, NetConstants.MAX_SYNC_FETCH_WINDOW);
+    } else {
+      window = Math.max(window - Math.max(window / 16, 1), NetConstants.MIN_SYNC_FETCH_WINDOW);
+    }
+    peer.setSyncFetchWindow(window);
+  }
+
+  /**
+   * the state independent part of the block validation, its results are kept by the capsules.
+   * Failures are left to the validation when the block is applied.
+   */
+  private void prepare(BlockCapsule block) {
+    try {
+      block.recoverWitnessSignature();
+      for (TransactionCapsule trx : block.getTransactions()) {
+        trx.recoverSigners();
+      }
+      block.calcMerkleRoot();
+    } catch (Exception e) {
+      logger.debug("Prepare sync block {} failed, reason: {}", block.getBlockId().getString(),
+          e.getMessage());
+    }
+  }
+
   public void onDisconnect(PeerConnection peer) {
     if (!peer.getSyncBlockRequested().isEmpty()) {
       peer.getSyncBlockRequested().keySet().forEach(blockId -> invalid(blockId));
@@ -203,26 +253,30 @@ public class SyncService {
     HashMap<PeerConnection, List<BlockId>> send = new HashMap<>();
 
     tronNetDelegate.getActivePeer().stream()
-        .filter(peer -> peer.isNeedSyncFromPeer() && peer.isIdle())
+        .filter(peer -> peer.isNeedSyncFromPeer() && peer.getAdvInvRequest().isEmpty()
+            && peer.getSyncChainRequested() == null)
         .forEach(peer -> {
           if (!send.containsKey(peer)) {
             send.put(peer, new LinkedList<>());
           }
+          int room = peer.getSyncFetchWindow() - peer.getSyncBlockRequested().size();
           for (BlockId blockId : peer.getSyncBlockToFetch()) {
+            if (send.get(peer).size() >= room) {
+              break;
+            }
             if (requestBlockIds.getIfPresent(blockId) == null) {
               requestBlockIds.put(blockId, System.currentTimeMillis());
               peer.getSyncBlockRequested().put(blockId, System.currentTimeMillis());
               send.get(peer).add(blockId);
-              if (send.get(peer).size() >= MAX_BLOCK_FETCH_PER_PEER) {
-                break;
-              }
             }
           }
         });
 
     send.forEach((peer, blockIds) -> {
-      if (!blockIds.isEmpty()) {
-        peer.sendMessage(new FetchInvDataMessage(new LinkedList<>(blockIds), InventoryType.BLOCK));
+      for (int i = 0; i < blockIds.size(); i += MAX_BLOCK_FETCH_PER_PEER) {
+        List<BlockId> batch = blockIds.subList(i,
+            Math.min(i + MAX_BLOCK_FETCH_PER_PEER, blockIds.size()));
+        peer.sendMessage(new FetchInvDataMessage(new LinkedList<>(batch), InventoryType.BLOCK));
       }
     });
   }
@@ -244,6 +298,7 @@ public class SyncService {
         synchronized (tronNetDelegate.getBlockLock()) {
           if (peerConnection.isDisconnect()) {
             blockWaitToProcess.remove(msg);
+            blockPrepared.remove(msg);
             invalid(msg.getBlockId());
             return;
           }
@@ -258,6 +313,7 @@ public class SyncService {
           if (isFound[0]) {
             blockWaitToProcess.remove(msg);
             isProcessed[0] = true;
+            awaitPrepared(msg);
             processSyncBlock(msg.getBlockCapsule());
           }
         }
@@ -265,6 +321,20 @@ public class SyncService {
     }
   }
 
+  private void awaitPrepared(BlockMessage msg) {
+    Future<?> future = blockPrepared.remove(msg);
+    if (future == null) {
+      return;
+    }
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      logger.warn("Prepare sync block {} failed.", msg.getBlockId().getString(), e);
+    }
+  }
+
   private void processSyncBlock(BlockCapsule block) {
     boolean flag = true;
     BlockId blockId = block.getBlockId();
@@ -14,10 +14,8 @@ import com.alibaba.fastjson.JSON;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.GeneratedMessageV3;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -60,9 +58,12 @@ import org.tron.core.services.NodeInfoService;
 import org.tron.core.services.http.JsonFormat;
 import org.tron.core.services.http.Util;
 import org.tron.core.services.jsonrpc.filters.BlockFilterAndResult;
+import org.tron.core.services.jsonrpc.filters.FilterExpireWheel;
+import org.tron.core.services.jsonrpc.filters.FilterResult;
 import org.tron.core.services.jsonrpc.filters.LogBlockQuery;
 import org.tron.core.services.jsonrpc.filters.LogFilter;
 import org.tron.core.services.jsonrpc.filters.LogFilterAndResult;
+import org.tron.core.services.jsonrpc.filters.LogFilterIndex;
 import org.tron.core.services.jsonrpc.filters.LogFilterWrapper;
 import org.tron.core.services.jsonrpc.filters.LogMatch;
 import org.tron.core.services.jsonrpc.types.BlockResult;
@@ -122,6 +123,22 @@ public class TronJsonRpcImpl implements TronJsonRpc {
   @Getter
   private static final Map<String, BlockFilterAndResult> blockFilter2ResultSolidity =
       new ConcurrentHashMap<>();
+  /**
+   * index of the log filters in Full Json-RPC
+   */
+  private static final LogFilterIndex logFilterIndexFull = new LogFilterIndex();
+  /**
+   * index of the log filters in solidity Json-RPC
+   */
+  private static final LogFilterIndex logFilterIndexSolidity = new LogFilterIndex();
+  /**
+   * expire time of the filters in Full Json-RPC
+   */
+  private static final FilterExpireWheel expireWheelFull = new FilterExpireWheel();
+  /**
+   * expire time of the filters in solidity Json-RPC
+   */
+  private static final FilterExpireWheel expireWheelSolidity = new FilterExpireWheel();
 
   public static final String HASH_REGEX = "(0x)?[a-zA-Z0-9]{64}$";
 
@@ -140,6 +157,10 @@ public class TronJsonRpcImpl implements TronJsonRpc {
    * thread pool of query section bloom store
    */
   private final ExecutorService sectionExecutor;
+  /**
+   * thread pool of matching the logs of possible blocks
+   */
+  private final ExecutorService logMatchExecutor;
   private final NodeInfoService nodeInfoService;
   private final Wallet wallet;
   private final Manager manager;
@@ -149,44 +170,48 @@ public class TronJsonRpcImpl implements TronJsonRpc {
     this.wallet = wallet;
     this.manager = manager;
     this.sectionExecutor = Executors.newFixedThreadPool(5);
+    this.logMatchExecutor = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors());
   }
 
   public static void handleBLockFilter(BlockFilterCapsule blockFilterCapsule) {
-    Iterator<Entry<String, BlockFilterAndResult>> it;
+    Map<String, BlockFilterAndResult> blockFilter2Result;
 
     if (blockFilterCapsule.isSolidified()) {
-      it = getBlockFilter2ResultSolidity().entrySet().iterator();
+      blockFilter2Result = getBlockFilter2ResultSolidity();
     } else {
-      it = getBlockFilter2ResultFull().entrySet().iterator();
+      blockFilter2Result = getBlockFilter2ResultFull();
     }
+    expireFilters(blockFilterCapsule.isSolidified());
 
-    while (it.hasNext()) {
-      Entry<String, BlockFilterAndResult> entry = it.next();
-      if (entry.getValue().isExpire()) {
-        it.remove();
-        continue;
-      }
-      entry.getValue().getResult().add(ByteArray.toJsonHex(blockFilterCapsule.getBlockHash()));
+    for (BlockFilterAndResult blockFilterAndResult : blockFilter2Result.values()) {
+      blockFilterAndResult.getResult()
+          .add(ByteArray.toJsonHex(blockFilterCapsule.getBlockHash()));
     }
   }
 
   public static void handleLogsFilter(LogsFilterCapsule logsFilterCapsule) {
-    Iterator<Entry<String, LogFilterAndResult>> it;
+    Map<String, LogFilterAndResult> eventFilter2Result;
+    LogFilterIndex logFilterIndex;
 
     if (logsFilterCapsule.isSolidified()) {
-      it = getEventFilter2ResultSolidity().entrySet().iterator();
+      eventFilter2Result = getEventFilter2ResultSolidity();
+      logFilterIndex = logFilterIndexSolidity;
     } else {
-      it = getEventFilter2ResultFull().entrySet().iterator();
+      eventFilter2Result = getEventFilter2ResultFull();
+      logFilterIndex = logFilterIndexFull;
+    }
+    expireFilters(logsFilterCapsule.isSolidified());
+    if (CollectionUtils.isEmpty(logsFilterCapsule.getTxInfoList())) {
+      return;
     }
 
-    while (it.hasNext()) {
-      Entry<String, LogFilterAndResult> entry = it.next();
-      if (entry.getValue().isExpire()) {
-        it.remove();
+    for (String filterId : logFilterIndex.match(logsFilterCapsule.getTxInfoList())) {
+      LogFilterAndResult logFilterAndResult = eventFilter2Result.get(filterId);
+      if (logFilterAndResult == null) {
         continue;
       }
 
-      LogFilterAndResult logFilterAndResult = entry.getValue();
       long fromBlock = logFilterAndResult.getLogFilterWrapper().getFromBlock();
       long toBlock = logFilterAndResult.getLogFilterWrapper().getToBlock();
       if (!(fromBlock <= logsFilterCapsule.getBlockNumber()
@@ -211,6 +236,44 @@ public class TronJsonRpcImpl implements TronJsonRpc {
     }
   }
 
+  /**
+   * removes the filters expired by now, the ones polled since are put back in the wheel.
+   */
+  private static void expireFilters(boolean solidified) {
+    Map<String, BlockFilterAndResult> blockFilter2Result;
+    Map<String, LogFilterAndResult> eventFilter2Result;
+    LogFilterIndex logFilterIndex;
+    FilterExpireWheel expireWheel;
+    if (solidified) {
+      blockFilter2Result = blockFilter2ResultSolidity;
+      eventFilter2Result = eventFilter2ResultSolidity;
+      logFilterIndex = logFilterIndexSolidity;
+      expireWheel = expireWheelSolidity;
+    } else {
+      blockFilter2Result = blockFilter2ResultFull;
+      eventFilter2Result = eventFilter2ResultFull;
+      logFilterIndex = logFilterIndexFull;
+      expireWheel = expireWheelFull;
+    }
+
+    for (String filterId : expireWheel.advance(System.currentTimeMillis())) {
+      FilterResult<?> filterResult = eventFilter2Result.get(filterId);
+      if (filterResult == null) {
+        filterResult = blockFilter2Result.get(filterId);
+      }
+      if (filterResult == null) {
+        continue;
+      }
+      if (filterResult.isExpire()) {
+        eventFilter2Result.remove(filterId);
+        blockFilter2Result.remove(filterId);
+        logFilterIndex.remove(filterId);
+      } else {
+        expireWheel.add(filterId, filterResult.getExpireTimeStamp());
+      }
+    }
+  }
+
   @Override
   public String web3ClientVersion() {
     Pattern shortVersion = Pattern.compile("(\\d\\.\\d).*");
@@ -1125,16 +1188,24 @@ public class TronJsonRpcImpl implements TronJsonRpc {
     disableInPBFT("eth_newFilter");
 
     Map<String, LogFilterAndResult> eventFilter2Result;
+    LogFilterIndex logFilterIndex;
+    FilterExpireWheel expireWheel;
     if (getSource() == RequestSource.FULLNODE) {
       eventFilter2Result = eventFilter2ResultFull;
+      logFilterIndex = logFilterIndexFull;
+      expireWheel = expireWheelFull;
     } else {
       eventFilter2Result = eventFilter2ResultSolidity;
+      logFilterIndex = logFilterIndexSolidity;
+      expireWheel = expireWheelSolidity;
     }
 
     long currentMaxFullNum = wallet.getNowBlock().getBlockHeader().getRawData().getNumber();
     LogFilterAndResult logFilterAndResult = new LogFilterAndResult(fr, currentMaxFullNum, wallet);
     String filterID = generateFilterId();
     eventFilter2Result.put(filterID, logFilterAndResult);
+    logFilterIndex.add(filterID, logFilterAndResult.getLogFilterWrapper().getLogFilter());
+    expireWheel.add(filterID, logFilterAndResult.getExpireTimeStamp());
     return ByteArray.toJsonHex(filterID);
   }
 
@@ -1143,15 +1214,19 @@ public class TronJsonRpcImpl implements TronJsonRpc {
     disableInPBFT("eth_newBlockFilter");
 
     Map<String, BlockFilterAndResult> blockFilter2Result;
+    FilterExpireWheel expireWheel;
     if (getSource() == RequestSource.FULLNODE) {
       blockFilter2Result = blockFilter2ResultFull;
+      expireWheel = expireWheelFull;
     } else {
       blockFilter2Result = blockFilter2ResultSolidity;
+      expireWheel = expireWheelSolidity;
     }
 
     BlockFilterAndResult filterAndResult = new BlockFilterAndResult();
     String filterID = generateFilterId();
     blockFilter2Result.put(filterID, filterAndResult);
+    expireWheel.add(filterID, filterAndResult.getExpireTimeStamp());
     return ByteArray.toJsonHex(filterID);
   }
 
@@ -1162,17 +1237,21 @@ public class TronJsonRpcImpl implements TronJsonRpc {
 
     Map<String, BlockFilterAndResult> blockFilter2Result;
     Map<String, LogFilterAndResult> eventFilter2Result;
+    LogFilterIndex logFilterIndex;
     if (getSource() == RequestSource.FULLNODE) {
       blockFilter2Result = blockFilter2ResultFull;
       eventFilter2Result = eventFilter2ResultFull;
+      logFilterIndex = logFilterIndexFull;
     } else {
       blockFilter2Result = blockFilter2ResultSolidity;
       eventFilter2Result = eventFilter2ResultSolidity;
+      logFilterIndex = logFilterIndexSolidity;
     }
 
     filterId = ByteArray.fromHex(filterId);
     if (eventFilter2Result.containsKey(filterId)) {
       eventFilter2Result.remove(filterId);
+      logFilterIndex.remove(filterId);
     } else if (blockFilter2Result.containsKey(filterId)) {
       blockFilter2Result.remove(filterId);
     } else {
@@ -1247,9 +1326,9 @@ public class TronJsonRpcImpl implements TronJsonRpc {
         .getSectionBloomStore(), currentMaxBlockNum, sectionExecutor);
     List<Long> possibleBlockList = logBlockQuery.getPossibleBlock();
 
-    //match event from block one by one exactly
+    //match event from block exactly
     LogMatch logMatch =
-        new LogMatch(logFilterWrapper, possibleBlockList, manager);
+        new LogMatch(logFilterWrapper, possibleBlockList, manager, logMatchExecutor);
     return logMatch.matchBlockOneByOne();
   }
 
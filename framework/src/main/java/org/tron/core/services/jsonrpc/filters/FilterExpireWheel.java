@@ -0,0 +1,50 @@
+package org.tron.core.services.jsonrpc.filters;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.tron.core.services.jsonrpc.TronJsonRpcImpl;
+
+/**
+ * timer wheel of the expire time of the installed filters, one slot per second over the
+ * expire period. A filter whose slot comes round is checked again, as its expire time moves
+ * each time its changes are polled, and put back if it has not expired.
+ */
+public class FilterExpireWheel {
+
+  private static final long TICK_MILLIS = 1000;
+  private static final int SLOT_COUNT = TronJsonRpcImpl.EXPIRE_SECONDS + 2;
+
+  private final List<Set<String>> slots = new ArrayList<>(SLOT_COUNT);
+  private long currentTick;
+
+  public FilterExpireWheel() {
+    for (int i = 0; i < SLOT_COUNT; i++) {
+      slots.add(new HashSet<>());
+    }
+    currentTick = System.currentTimeMillis() / TICK_MILLIS;
+  }
+
+  public synchronized void add(String filterId, long expireTimeStamp) {
+    long tick = Math.max(expireTimeStamp / TICK_MILLIS, currentTick + 1);
+    tick = Math.min(tick, currentTick + SLOT_COUNT - 1);
+    slots.get((int) (tick % SLOT_COUNT)).add(filterId);
+  }
+
+  /**
+   * turns the wheel to the time, the filters of the slots passed may have expired.
+   */
+  public synchronized List<String> advance(long now) {
+    List<String> filterIds = new ArrayList<>();
+    long tick = now / TICK_MILLIS;
+    long from = Math.max(currentTick + 1, tick - SLOT_COUNT + 1);
+    for (long t = from; t <= tick; t++) {
+      Set<String> slot = slots.get((int) (t % SLOT_COUNT));
+      filterIds.addAll(slot);
+      slot.clear();
+    }
+    currentTick = Math.max(currentTick, tick);
+    return filterIds;
+  }
+}
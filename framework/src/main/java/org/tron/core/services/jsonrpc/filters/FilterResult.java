@@ -7,6 +7,7 @@ import org.tron.core.services.jsonrpc.TronJsonRpcImpl;
 
 public abstract class FilterResult<T> {
 
+  @Getter
   private long expireTimeStamp;
 
   @Getter
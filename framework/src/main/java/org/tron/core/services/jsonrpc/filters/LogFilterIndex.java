@@ -0,0 +1,95 @@
+package org.tron.core.services.jsonrpc.filters;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.tron.common.runtime.vm.DataWord;
+import org.tron.common.utils.ByteArray;
+import org.tron.protos.Protocol.TransactionInfo;
+import org.tron.protos.Protocol.TransactionInfo.Log;
+
+/**
+ * index of the installed log filters by contract address, or by the first topic if a filter
+ * has no address, so a block is only matched against the filters its logs can match. A filter
+ * with neither is matched against every block.
+ */
+public class LogFilterIndex {
+
+  private final Map<String, Set<String>> byAddress = new HashMap<>();
+  private final Map<String, Set<String>> byTopic = new HashMap<>();
+  private final Set<String> unindexed = new HashSet<>();
+  // the keys a filter is indexed by, to remove it again
+  private final Map<String, List<String>> addressKeys = new HashMap<>();
+  private final Map<String, List<String>> topicKeys = new HashMap<>();
+
+  private static String topicKey(byte[] topic) {
+    return ByteArray.toHexString(new DataWord(topic).getData());
+  }
+
+  public synchronized void add(String filterId, LogFilter logFilter) {
+    byte[][] addresses = logFilter.getContractAddresses();
+    byte[][] firstTopics = logFilter.getTopics().isEmpty() ? null : logFilter.getTopics().get(0);
+    if (addresses.length > 0) {
+      List<String> keys = new ArrayList<>(addresses.length);
+      for (byte[] address : addresses) {
+        String key = ByteArray.toHexString(address);
+        byAddress.computeIfAbsent(key, k -> new HashSet<>()).add(filterId);
+        keys.add(key);
+      }
+      addressKeys.put(filterId, keys);
+    } else if (firstTopics != null && firstTopics.length > 0) {
+      List<String> keys = new ArrayList<>(firstTopics.length);
+      for (byte[] topic : firstTopics) {
+        String key = topicKey(topic);
+        byTopic.computeIfAbsent(key, k -> new HashSet<>()).add(filterId);
+        keys.add(key);
+      }
+      topicKeys.put(filterId, keys);
+    } else {
+      unindexed.add(filterId);
+    }
+  }
+
+  public synchronized void remove(String filterId) {
+    unindexed.remove(filterId);
+    remove(filterId, addressKeys.remove(filterId), byAddress);
+    remove(filterId, topicKeys.remove(filterId), byTopic);
+  }
+
+  private static void remove(String filterId, List<String> keys, Map<String, Set<String>> index) {
+    if (keys == null) {
+      return;
+    }
+    for (String key : keys) {
+      Set<String> filterIds = index.get(key);
+      if (filterIds != null && filterIds.remove(filterId) && filterIds.isEmpty()) {
+        index.remove(key);
+      }
+    }
+  }
+
+  /**
+   * the filters that may match a log of the transactions.
+   */
+  public synchronized Set<String> match(List<TransactionInfo> transactionInfoList) {
+    Set<String> filterIds = new HashSet<>(unindexed);
+    for (TransactionInfo transactionInfo : transactionInfoList) {
+      for (Log log : transactionInfo.getLogList()) {
+        Set<String> ids = byAddress.get(ByteArray.toHexString(log.getAddress().toByteArray()));
+        if (ids != null) {
+          filterIds.addAll(ids);
+        }
+        if (log.getTopicsCount() > 0) {
+          ids = byTopic.get(topicKey(log.getTopics(0).toByteArray()));
+          if (ids != null) {
+            filterIds.addAll(ids);
+          }
+        }
+      }
+    }
+    return filterIds;
+  }
+}
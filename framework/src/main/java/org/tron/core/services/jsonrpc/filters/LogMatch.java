@@ -2,7 +2,11 @@ package org.tron.core.services.jsonrpc.filters;
 
 import com.google.protobuf.ByteString;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.common.utils.ByteArray;
@@ -17,11 +21,16 @@ import org.tron.protos.Protocol.TransactionInfo.Log;
 import org.tron.protos.Protocol.TransactionRet;
 
 /**
- * match events from possible blocks one by one
+ * match events from possible blocks, in parallel and in the order of the blocks
  */
 @Slf4j(topic = "API")
 public class LogMatch {
 
+  /**
+   * the number of blocks matched at a time by one query
+   */
+  public static final int MATCH_WINDOW = 32;
+
   /**
    * query criteria
    */
@@ -31,11 +40,14 @@ public class LogMatch {
    */
   private final List<Long> blockNumList;
   private final Manager manager;
+  private final ExecutorService executor;
 
-  public LogMatch(LogFilterWrapper logFilterWrapper, List<Long> blockNumList, Manager manager) {
+  public LogMatch(LogFilterWrapper logFilterWrapper, List<Long> blockNumList, Manager manager,
+      ExecutorService executor) {
     this.logFilterWrapper = logFilterWrapper;
     this.blockNumList = blockNumList;
     this.manager = manager;
+    this.executor = executor;
   }
 
   public static List<LogFilterElement> matchBlock(LogFilter logFilter, long blockNum,
@@ -78,36 +90,70 @@ public class LogMatch {
     return matchedLog;
   }
 
+  /**
+   * matches the possible blocks in windows of {@link #MATCH_WINDOW} blocks on the executor,
+   * keeping the order of the blocks, and stops once there are too many results.
+   */
   public LogFilterElement[] matchBlockOneByOne()
-      throws BadItemException, ItemNotFoundException, JsonRpcTooManyResultException {
+      throws BadItemException, ItemNotFoundException, JsonRpcTooManyResultException,
+      ExecutionException, InterruptedException {
     List<LogFilterElement> logFilterElementList = new ArrayList<>();
 
-    for (long blockNum : blockNumList) {
-      TransactionRetCapsule transactionRetCapsule =
-          manager.getTransactionRetStore()
-              .getTransactionInfoByBlockNum(ByteArray.fromLong(blockNum));
-      if (transactionRetCapsule == null) {
-        //if query condition (address and topics) is empty, we will traversal every block,
-        //include empty block
-        continue;
-      }
-      TransactionRet transactionRet = transactionRetCapsule.getInstance();
-      List<TransactionInfo> transactionInfoList = transactionRet.getTransactioninfoList();
-
-      String blockHash = manager.getChainBaseManager().getBlockIdByNum(blockNum).toString();
-      List<LogFilterElement> matchedLog = matchBlock(logFilterWrapper.getLogFilter(), blockNum,
-          blockHash, transactionInfoList, false);
-      if (!matchedLog.isEmpty()) {
-        logFilterElementList.addAll(matchedLog);
+    for (int from = 0; from < blockNumList.size(); from += MATCH_WINDOW) {
+      List<Future<List<LogFilterElement>>> futures = new ArrayList<>();
+      for (long blockNum : blockNumList.subList(from,
+          Math.min(from + MATCH_WINDOW, blockNumList.size()))) {
+        futures.add(executor.submit(() -> matchBlock(blockNum)));
       }
 
-      if (logFilterElementList.size() > LogBlockQuery.MAX_RESULT) {
-        throw new JsonRpcTooManyResultException(
-            "query returned more than " + LogBlockQuery.MAX_RESULT + " results");
+      try {
+        for (Future<List<LogFilterElement>> future : futures) {
+          logFilterElementList.addAll(getMatched(future));
+          if (logFilterElementList.size() > LogBlockQuery.MAX_RESULT) {
+            throw new JsonRpcTooManyResultException(
+                "query returned more than " + LogBlockQuery.MAX_RESULT + " results");
+          }
+        }
+      } finally {
+        futures.forEach(future -> future.cancel(true));
       }
     }
 
     return logFilterElementList.toArray(new LogFilterElement[0]);
   }
 
+  private List<LogFilterElement> matchBlock(long blockNum)
+      throws BadItemException, ItemNotFoundException {
+    TransactionRetCapsule transactionRetCapsule =
+        manager.getTransactionRetStore()
+            .getTransactionInfoByBlockNum(ByteArray.fromLong(blockNum));
+    if (transactionRetCapsule == null) {
+      //if query condition (address and topics) is empty, we will traversal every block,
+      //include empty block
+      return Collections.emptyList();
+    }
+    TransactionRet transactionRet = transactionRetCapsule.getInstance();
+    List<TransactionInfo> transactionInfoList = transactionRet.getTransactioninfoList();
+
+    String blockHash = manager.getChainBaseManager().getBlockIdByNum(blockNum).toString();
+    return matchBlock(logFilterWrapper.getLogFilter(), blockNum, blockHash,
+        transactionInfoList, false);
+  }
+
+  private static List<LogFilterElement> getMatched(Future<List<LogFilterElement>> future)
+      throws BadItemException, ItemNotFoundException, ExecutionException,
+      InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof BadItemException) {
+        throw (BadItemException) e.getCause();
+      }
+      if (e.getCause() instanceof ItemNotFoundException) {
+        throw (ItemNotFoundException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
 }
@@ -0,0 +1,70 @@
+package org.tron.common.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.security.SignatureException;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.parameter.CommonParameter;
+
+@Slf4j
+public class SignatureCacheTest {
+
+  @Before
+  public void init() {
+    SignatureCache.clear();
+  }
+
+  @After
+  public void destroy() {
+    SignatureCache.clear();
+  }
+
+  @Test
+  public void testRecoverFromCache() throws SignatureException {
+    ECKey key = new ECKey();
+    byte[] hash = Hash.sha3("signature cache".getBytes());
+    String sig = key.signHash(hash);
+
+    byte[] address = SignUtils.signatureToAddress(hash, sig, true);
+    assertArrayEquals(key.getAddress(), address);
+    assertEquals(1, SignatureCache.size());
+
+    address[0] = 0;
+    assertArrayEquals(key.getAddress(), SignUtils.signatureToAddress(hash, sig, true));
+    assertEquals(1, SignatureCache.size());
+  }
+
+  @Test
+  public void testSameSignatureDifferentHash() throws SignatureException {
+    ECKey key = new ECKey();
+    byte[] hash = Hash.sha3("signature cache".getBytes());
+    byte[] otherHash = Hash.sha3("other message".getBytes());
+    String sig = key.signHash(hash);
+
+    SignUtils.signatureToAddress(hash, sig, true);
+    byte[] other = SignUtils.signatureToAddress(otherHash, sig, true);
+    assertEquals(2, SignatureCache.size());
+    assertFalse(Arrays.equals(key.getAddress(), other));
+  }
+
+  @Test
+  public void testDisabled() throws SignatureException {
+    int size = CommonParameter.getInstance().getSignatureCacheSize();
+    CommonParameter.getInstance().setSignatureCacheSize(0);
+    try {
+      ECKey key = new ECKey();
+      byte[] hash = Hash.sha3("signature cache".getBytes());
+      assertArrayEquals(key.getAddress(),
+          SignUtils.signatureToAddress(hash, key.signHash(hash), true));
+      assertEquals(0, SignatureCache.size());
+    } finally {
+      CommonParameter.getInstance().setSignatureCacheSize(size);
+    }
+  }
+}
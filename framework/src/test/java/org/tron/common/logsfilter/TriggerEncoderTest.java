@@ -0,0 +1,52 @@
+package org.tron.common.logsfilter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.logsfilter.capsule.RawData;
+import org.tron.common.logsfilter.trigger.BlockLogTrigger;
+import org.tron.common.logsfilter.trigger.ContractEventTrigger;
+import org.tron.common.runtime.vm.DataWord;
+import org.tron.protos.EventTriggers;
+
+public class TriggerEncoderTest {
+
+  @Test
+  public void testEncodeBlock() throws Exception {
+    BlockLogTrigger trigger = new BlockLogTrigger();
+    trigger.setBlockNumber(100);
+    trigger.setBlockHash("hash");
+    trigger.setTransactionList(Arrays.asList("trx1", "trx2"));
+
+    Assert.assertTrue(TriggerEncoder.of(TriggerEncoder.JSON).encode(trigger) instanceof String);
+    EventTriggers.BlockTrigger block = EventTriggers.BlockTrigger.parseFrom(
+        (byte[]) TriggerEncoder.of(TriggerEncoder.PROTOBUF).encode(trigger));
+    Assert.assertEquals(100, block.getBlockNumber());
+    Assert.assertEquals("hash", block.getBlockHash());
+    Assert.assertEquals(Arrays.asList("trx1", "trx2"), block.getTransactionListList());
+    Assert.assertEquals(trigger.getTriggerName(), block.getTriggerName());
+  }
+
+  @Test
+  public void testEncodeContractEvent() throws Exception {
+    ContractEventTrigger trigger = new ContractEventTrigger();
+    trigger.setBlockNumber(1L);
+    trigger.setEventName("Transfer");
+    trigger.setTopicMap(Collections.singletonMap("from", "a"));
+    DataWord topic = new DataWord(1);
+    trigger.setRawData(new RawData(new byte[]{0x41, 0x01}, Collections.singletonList(topic),
+        new byte[]{0x02}));
+
+    EventTriggers.ContractTrigger contract = EventTriggers.ContractTrigger.parseFrom(
+        (byte[]) TriggerEncoder.of(TriggerEncoder.PROTOBUF).encode(trigger));
+    Assert.assertEquals(1, contract.getBlockNumber());
+    Assert.assertEquals("Transfer", contract.getEventName());
+    Assert.assertEquals("a", contract.getTopicMapMap().get("from"));
+    Assert.assertEquals("", contract.getTransactionId());
+    Assert.assertEquals("4101", contract.getRawData().getAddress());
+    Assert.assertEquals(Collections.singletonList(topic.toHexString()),
+        contract.getRawData().getTopicsList());
+    Assert.assertEquals("02", contract.getRawData().getData());
+  }
+}
@@ -0,0 +1,204 @@
+package org.tron.common.logsfilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.crypto.Hash;
+import org.tron.common.logsfilter.capsule.ContractTriggerCapsule;
+import org.tron.common.logsfilter.capsule.TriggerCapsule;
+import org.tron.common.logsfilter.trigger.ContractEventTrigger;
+import org.tron.common.logsfilter.trigger.ContractTrigger;
+import org.tron.common.runtime.vm.DataWord;
+import org.tron.common.runtime.vm.LogInfo;
+import org.tron.common.utils.ReflectUtils;
+import org.tron.core.Constant;
+import org.tron.core.config.args.Args;
+import org.tron.protos.contract.SmartContractOuterClass.SmartContract.ABI;
+import org.tron.protos.contract.SmartContractOuterClass.SmartContract.ABI.Entry.EntryType;
+import org.tron.protos.contract.SmartContractOuterClass.SmartContract.ABI.Entry.Param;
+
+public class TriggerPipelineTest {
+
+  private static final long BLOCK_NUM = 1234L;
+
+  private static TriggerCapsule counted(CountDownLatch done) {
+    return new TriggerCapsule() {
+      @Override
+      public void processTrigger() {
+        done.countDown();
+      }
+    };
+  }
+
+  private static ContractTriggerCapsule transferEvent() {
+    ABI abi = ABI.newBuilder().addEntrys(ABI.Entry.newBuilder()
+        .setType(EntryType.Event).setName("Transfer")
+        .addInputs(Param.newBuilder().setIndexed(true).setName("from").setType("address"))
+        .addInputs(Param.newBuilder().setName("value").setType("uint256"))).build();
+    List<DataWord> topics = Arrays.asList(
+        new DataWord(Hash.sha3("Transfer(address,uint256)".getBytes())), new DataWord(1));
+    ContractTrigger trigger = new ContractTrigger();
+    trigger.setLogInfo(new LogInfo(new byte[20], topics, new DataWord(100).getData()));
+    trigger.setAbi(abi);
+    trigger.setBlockNumber(BLOCK_NUM);
+    trigger.setUniqueId("trx_0");
+    trigger.setTransactionId("trx");
+    return new ContractTriggerCapsule(trigger);
+  }
+
+  @Test
+  public void testOrder() throws Exception {
+    int count = 100;
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(count);
+    TriggerPipeline pipeline = new TriggerPipeline(4, 0, TriggerPipeline.POLICY_DROP);
+    pipeline.start();
+    for (int i = 0; i < count; i++) {
+      int index = i;
+      Assert.assertTrue(pipeline.offer(new TriggerCapsule() {
+        @Override
+        public void prepare() {
+          // the earlier triggers take longer to prepare
+          try {
+            Thread.sleep((count - index) % 5);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+
+        @Override
+        public void processTrigger() {
+          delivered.add(index);
+          done.countDown();
+        }
+      }));
+    }
+    Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    pipeline.stop();
+    for (int i = 0; i < count; i++) {
+      Assert.assertEquals(i, (int) delivered.get(i));
+    }
+  }
+
+  @Test
+  public void testDropWhenFull() {
+    TriggerPipeline pipeline = new TriggerPipeline(1, 2, TriggerPipeline.POLICY_DROP);
+    Assert.assertTrue(pipeline.offer(new TriggerCapsule()));
+    Assert.assertTrue(pipeline.offer(new TriggerCapsule()));
+    Assert.assertFalse(pipeline.offer(new TriggerCapsule()));
+    Assert.assertEquals(2, pipeline.size());
+    pipeline.stop();
+  }
+
+  @Test
+  public void testBlockWhenFull() throws Exception {
+    CountDownLatch done = new CountDownLatch(3);
+    TriggerPipeline pipeline = new TriggerPipeline(1, 2, TriggerPipeline.POLICY_BLOCK);
+    Assert.assertTrue(pipeline.offer(counted(done)));
+    Assert.assertTrue(pipeline.offer(counted(done)));
+    AtomicBoolean offered = new AtomicBoolean();
+    Thread poster = new Thread(() -> offered.set(pipeline.offer(counted(done))));
+    poster.start();
+    // nothing is delivered before the pipeline starts, the poster waits for room
+    poster.join(200);
+    Assert.assertTrue(poster.isAlive());
+    Assert.assertEquals(2, pipeline.size());
+
+    pipeline.start();
+    poster.join(10_000);
+    Assert.assertFalse(poster.isAlive());
+    Assert.assertTrue(offered.get());
+    Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    pipeline.stop();
+  }
+
+  @Test
+  public void testStopCancelsUnprepared() throws Exception {
+    TriggerPipeline pipeline = new TriggerPipeline(1, 0, TriggerPipeline.POLICY_DROP);
+    CountDownLatch preparing = new CountDownLatch(1);
+    AtomicBoolean delivered = new AtomicBoolean();
+    pipeline.offer(new TriggerCapsule() {
+      @Override
+      public void prepare() {
+        preparing.countDown();
+        try {
+          new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      @Override
+      public void processTrigger() {
+      }
+    });
+    // queued behind the first on the only worker
+    pipeline.offer(new TriggerCapsule() {
+      @Override
+      public void processTrigger() {
+        delivered.set(true);
+      }
+    });
+    Assert.assertTrue(preparing.await(10, TimeUnit.SECONDS));
+    pipeline.start();
+    // the delivery thread takes both and waits for the first to be prepared
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (pipeline.size() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(0, pipeline.size());
+
+    pipeline.stop();
+    Thread deliverThread = ReflectUtils.getFieldValue(pipeline, "deliverThread");
+    deliverThread.join(10_000);
+    Assert.assertFalse(deliverThread.isAlive());
+    Assert.assertFalse(delivered.get());
+  }
+
+  @Test
+  public void testContractTriggerPreparedOnWorker() throws Exception {
+    Args.setParam(new String[]{}, Constant.TEST_CONF);
+    Args.getInstance().getStorage().setContractParseSwitch(true);
+    ReflectUtils.setFieldValue(EventPluginLoader.getInstance(), "solidityEventTriggerEnable",
+        true);
+    // no filter, every block matches
+    EventPluginLoader.getInstance().setFilterQuery(null);
+    TriggerPipeline pipeline = new TriggerPipeline(2, 0, TriggerPipeline.POLICY_DROP);
+    try {
+      // prepared by the delivery itself
+      transferEvent().processTrigger();
+      pipeline.start();
+      Assert.assertTrue(pipeline.offer(transferEvent()));
+
+      BlockingQueue<ContractEventTrigger> events =
+          Args.getSolidityContractEventTriggerMap().get(BLOCK_NUM);
+      long deadline = System.currentTimeMillis() + 10_000;
+      while (events.size() < 2 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Assert.assertEquals(2, events.size());
+      ContractEventTrigger expected = events.poll();
+      ContractEventTrigger actual = events.poll();
+      Assert.assertEquals("Transfer", expected.getEventName());
+      Assert.assertEquals(expected.getEventSignatureFull(), actual.getEventSignatureFull());
+      Assert.assertEquals(expected.getTopicMap(), actual.getTopicMap());
+      Assert.assertEquals(expected.getDataMap(), actual.getDataMap());
+      Assert.assertEquals(expected.getRawData(), actual.getRawData());
+      Assert.assertEquals(expected.getUniqueId(), actual.getUniqueId());
+      Assert.assertEquals(expected.getTransactionId(), actual.getTransactionId());
+    } finally {
+      pipeline.stop();
+      Args.getSolidityContractEventTriggerMap().remove(BLOCK_NUM);
+      ReflectUtils.setFieldValue(EventPluginLoader.getInstance(), "solidityEventTriggerEnable",
+          false);
+      Args.clearParam();
+    }
+  }
+}
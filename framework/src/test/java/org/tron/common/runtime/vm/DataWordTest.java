@@ -23,6 +23,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.Random;
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.util.encoders.Hex;
 import org.junit.Test;
@@ -580,5 +581,92 @@ public class DataWordTest {
     }
   }
 
+  @Test
+  public void testArithmeticMatchesBigInteger() {
+    BigInteger mod = DataWord._2_256;
+    BigInteger max = DataWord.MAX_VALUE;
+    Random random = new Random(256);
+    for (int i = 0; i < 20000; i++) {
+      BigInteger a = randomValue(random);
+      BigInteger b = randomValue(random);
+      BigInteger c = randomValue(random);
+      String msg = a.toString(16) + " " + b.toString(16) + " " + c.toString(16);
+
+      DataWord w = word(a);
+      w.mul(word(b));
+      assertEquals(msg, a.multiply(b).and(max), w.value());
+
+      w = word(a);
+      w.sub(word(b));
+      assertEquals(msg, a.subtract(b).and(max), w.value());
+
+      w = word(a);
+      w.div(word(b));
+      assertEquals(msg, b.signum() == 0 ? BigInteger.ZERO : a.divide(b), w.value());
+
+      w = word(a);
+      w.mod(word(b));
+      assertEquals(msg, b.signum() == 0 ? BigInteger.ZERO : a.mod(b), w.value());
+
+      w = word(a);
+      w.sDiv(word(b));
+      assertEquals(msg, b.signum() == 0 ? BigInteger.ZERO
+          : word(a).sValue().divide(word(b).sValue()).and(max), w.value());
+
+      w = word(a);
+      w.sMod(word(b));
+      BigInteger sMod = b.signum() == 0 ? BigInteger.ZERO
+          : word(a).sValue().abs().mod(word(b).sValue().abs());
+      if (word(a).sValue().signum() < 0) {
+        sMod = sMod.negate();
+      }
+      assertEquals(msg, sMod.and(max), w.value());
+
+      w = word(a);
+      w.addmod(word(b), word(c));
+      assertEquals(msg, c.signum() == 0 ? BigInteger.ZERO : a.add(b).mod(c), w.value());
+
+      w = word(a);
+      w.mulmod(word(b), word(c));
+      assertEquals(msg, c.signum() == 0 ? BigInteger.ZERO : a.multiply(b).mod(c), w.value());
+
+      w = word(a);
+      w.exp(word(b));
+      assertEquals(msg, a.modPow(b, mod), w.value());
+
+      int shift = random.nextInt(300);
+      DataWord arg = new DataWord(shift);
+      BigInteger expected = shift >= 256 ? BigInteger.ZERO : a.shiftLeft(shift).and(max);
+      assertEquals(msg, expected, word(a).shiftLeft(arg).value());
+      expected = shift >= 256 ? BigInteger.ZERO : a.shiftRight(shift);
+      assertEquals(msg, expected, word(a).shiftRight(arg).value());
+      expected = word(a).sValue().shiftRight(Math.min(shift, 256)).and(max);
+      assertEquals(msg, expected, word(a).shiftRightSigned(arg).value());
+    }
+  }
 
+  private static DataWord word(BigInteger value) {
+    byte[] data = new byte[32];
+    byte[] bytes = value.toByteArray();
+    int len = Math.min(bytes.length, 32);
+    System.arraycopy(bytes, bytes.length - len, data, 32 - len, len);
+    return new DataWord(data);
+  }
+
+  private static BigInteger randomValue(Random random) {
+    switch (random.nextInt(6)) {
+      case 0:
+        return BigInteger.valueOf(random.nextInt(3));
+      case 1:
+        return new BigInteger(64, random);
+      case 2:
+        return DataWord.MAX_VALUE.subtract(BigInteger.valueOf(random.nextInt(3)));
+      case 3:
+        return BigInteger.ONE.shiftLeft(255).add(BigInteger.valueOf(random.nextInt(3)));
+      case 4:
+        return new BigInteger(random.nextInt(256) + 1, random);
+      default:
+        return new BigInteger(256, random);
+    }
+  }
 }
@@ -562,5 +562,41 @@ public class MemoryTest {
     assertTrue(zero == 10);
   }
 
+  @Test
+  public void memoryRelease() {
+    Memory memoryBuffer = new Memory();
+    byte[] data = new byte[3 * CHUNK_SIZE];
+    Arrays.fill(data, (byte) 1);
+    memoryBuffer.write(0, data, data.length, false);
+    Assert.assertEquals(3 * CHUNK_SIZE, memoryBuffer.internalSize());
+
+    memoryBuffer.release();
+    Assert.assertEquals(0, memoryBuffer.size());
+    Assert.assertEquals(0, memoryBuffer.internalSize());
+
+    // pooled chunks must come back zeroed
+    Memory reused = new Memory();
+    reused.extend(0, 4 * CHUNK_SIZE);
+    Assert.assertEquals(4 * CHUNK_SIZE, reused.size());
+    byte[] read = reused.read(0, 4 * CHUNK_SIZE);
+    assertArrayEquals(new byte[4 * CHUNK_SIZE], read);
+  }
 
+  @Test
+  public void memoryManyChunks() {
+    Memory memoryBuffer = new Memory();
+    int chunkNum = 100;
+    for (int i = 0; i < chunkNum; i++) {
+      byte[] data = new byte[CHUNK_SIZE];
+      Arrays.fill(data, (byte) i);
+      memoryBuffer.write(i * CHUNK_SIZE, data, data.length, false);
+    }
+    Assert.assertEquals(chunkNum, memoryBuffer.getChunks().size());
+    for (int i = 0; i < chunkNum; i++) {
+      Assert.assertEquals((byte) i, memoryBuffer.readByte(i * CHUNK_SIZE + CHUNK_SIZE / 2));
+    }
+    byte[] span = memoryBuffer.read(CHUNK_SIZE - 1, 2);
+    Assert.assertEquals(0, span[0]);
+    Assert.assertEquals(1, span[1]);
+  }
 }
@@ -0,0 +1,47 @@
+package org.tron.common.runtime.vm;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.utils.ByteUtil;
+import org.tron.core.vm.program.ProgramPrecompile;
+import org.tron.core.vm.repository.Key;
+
+@Slf4j
+public class ProgramPrecompileTest {
+
+  @Test
+  public void testJumpDest() {
+    // PUSH1 0x5b JUMPDEST PUSH2 0x5b5b JUMPDEST
+    byte[] ops = Hex.decode("605b5b615b5b5b");
+    ProgramPrecompile precompile = ProgramPrecompile.compile(ops);
+    Assert.assertFalse(precompile.hasJumpDest(0));
+    Assert.assertFalse(precompile.hasJumpDest(1));
+    Assert.assertTrue(precompile.hasJumpDest(2));
+    Assert.assertFalse(precompile.hasJumpDest(4));
+    Assert.assertFalse(precompile.hasJumpDest(5));
+    Assert.assertTrue(precompile.hasJumpDest(6));
+    Assert.assertFalse(precompile.hasJumpDest(7));
+    Assert.assertFalse(precompile.hasJumpDest(-1));
+    Assert.assertFalse(precompile.hasJumpDest(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testCacheInvalidate() {
+    byte[] address = Hex.decode("41471fd3ad3e9eeadeec4608b92d16ce6b500704cc");
+    byte[] otherAddress = Hex.decode("41471fd3ad3e9eeadeec4608b92d16ce6b500704cd");
+    byte[] codeHash = Hex.decode("ff");
+    byte[] ops = Hex.decode("5b");
+
+    Key key = Key.create(ByteUtil.merge(address, codeHash));
+    Key otherKey = Key.create(ByteUtil.merge(otherAddress, codeHash));
+    ProgramPrecompile precompile = ProgramPrecompile.getOrCompile(key, ops);
+    ProgramPrecompile other = ProgramPrecompile.getOrCompile(otherKey, ops);
+    Assert.assertSame(precompile, ProgramPrecompile.getOrCompile(key, ops));
+
+    ProgramPrecompile.invalidate(address);
+    Assert.assertNotSame(precompile, ProgramPrecompile.getOrCompile(key, ops));
+    Assert.assertSame(other, ProgramPrecompile.getOrCompile(otherKey, ops));
+  }
+}
@@ -7,6 +7,8 @@ import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.tron.common.crypto.SignUtils;
+import org.tron.common.parameter.CommonParameter;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.FileUtil;
 import org.tron.common.utils.Sha256Hash;
@@ -128,6 +130,53 @@ public class BlockCapsuleTest {
     Assert.assertTrue(blockCapsule0.hasWitnessSignature());
   }
 
+  @Test
+  public void testIncrementalAssembly() {
+    BlockCapsule blockCapsule = new BlockCapsule(2, Sha256Hash.ZERO_HASH, 1234,
+        ByteString.copyFrom("1234567".getBytes()));
+    for (long i = 1; i <= 10; i++) {
+      TransferContract transferContract = TransferContract.newBuilder()
+          .setAmount(i)
+          .setOwnerAddress(ByteString.copyFrom("0x0000000000000000000".getBytes()))
+          .setToAddress(ByteString.copyFrom(ByteArray.fromHexString(
+              (Wallet.getAddressPreFixString() + "A389132D6639FBDA4FBC8B659264E6B7C90DB086"))))
+          .build();
+      blockCapsule.addTransaction(
+          new TransactionCapsule(transferContract, ContractType.TransferContract));
+    }
+    blockCapsule.setAccountStateRoot(Sha256Hash.ZERO_HASH.getBytes());
+    long assembledSize = blockCapsule.getSerializedSize();
+
+    Assert.assertEquals(10, blockCapsule.getInstance().getTransactionsCount());
+    Assert.assertEquals(blockCapsule.getInstance().getSerializedSize(), assembledSize);
+
+    blockCapsule.setMerkleRoot();
+    blockCapsule.sign(ByteArray.fromHexString(Args.getLocalWitnesses().getPrivateKey()));
+    Assert.assertTrue(blockCapsule.hasWitnessSignature());
+    Assert.assertEquals(blockCapsule.calcMerkleRoot(), blockCapsule.getMerkleRoot());
+    Assert.assertEquals(blockCapsule.getInstance().getSerializedSize(),
+        blockCapsule.getSerializedSize());
+  }
+
+  @Test
+  public void testRecoverWitnessSignature() throws Exception {
+    BlockCapsule blockCapsule = new BlockCapsule(3, Sha256Hash.ZERO_HASH, 1234,
+        ByteString.copyFrom("1234567".getBytes()));
+    byte[] key = ByteArray.fromHexString(Args.getLocalWitnesses().getPrivateKey());
+    blockCapsule.sign(key);
+    byte[] address = SignUtils.fromPrivate(key,
+        CommonParameter.getInstance().isECKeyCryptoEngine()).getAddress();
+    Assert.assertArrayEquals(address, blockCapsule.recoverWitnessSignature());
+
+    // a new signature is recovered again
+    byte[] otherKey = ByteArray.fromHexString(
+        "1cd5a70741c6e583d2dd3c5f17231e608eb1e52437210d948c5085e141c2d830");
+    blockCapsule.sign(otherKey);
+    Assert.assertArrayEquals(SignUtils.fromPrivate(otherKey,
+        CommonParameter.getInstance().isECKeyCryptoEngine()).getAddress(),
+        blockCapsule.recoverWitnessSignature());
+  }
+
   @Test
   public void testGetTimeStamp() {
     Assert.assertEquals(1234L, blockCapsule0.getTimeStamp());
@@ -173,4 +173,13 @@ public class MerkleTreeTest {
       pareTree(root, hashList, maxRank, 0, 0);
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testComputeRoot() {
+    for (int hashNum : new int[] {1, 2, 3, 7, 128, 513, 1025}) {
+      List<Sha256Hash> hashList = getHash(hashNum);
+      Assert.assertEquals(MerkleTree.getInstance().createTree(hashList).getRoot().getHash(),
+          MerkleTree.computeRoot(hashList));
+    }
+  }
+}
@@ -23,7 +23,6 @@ import org.tron.common.application.TronApplicationContext;
 import org.tron.common.crypto.ECKey;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.FileUtil;
-import org.tron.common.utils.JsonUtil;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.common.utils.StringUtil;
 import org.tron.common.utils.Utils;
@@ -143,7 +142,7 @@ public class ManagerTest extends BlockGenerate {
     Assert.assertEquals(1, chainManager.getRecentTransactionStore().size());
     byte[] key = ByteArray.subArray(ByteArray.fromLong(1), 6, 8);
     byte[] value = chainManager.getRecentTransactionStore().get(key).getData();
-    RecentTransactionItem item = JsonUtil.json2Obj(new String(value), RecentTransactionItem.class);
+    RecentTransactionItem item = RecentTransactionItem.of(value);
     Assert.assertEquals(1, item.getNum());
     Assert.assertEquals(1, item.getTransactionIds().size());
     Assert.assertEquals(trx.getTransactionId().toString(), item.getTransactionIds().get(0));
@@ -0,0 +1,210 @@
+package org.tron.core.db;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.protobuf.ByteString;
+import io.prometheus.client.CollectorRegistry;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.utils.FileUtil;
+import org.tron.common.utils.Utils;
+import org.tron.core.ChainBaseManager;
+import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.ISession;
+import org.tron.core.exception.ContractValidateException;
+import org.tron.core.store.DynamicPropertiesStore;
+import org.tron.protos.Protocol.Account;
+import org.tron.protos.Protocol.AccountType;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.Protocol.TransactionInfo;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class ParallelBlockExecutorTest {
+
+  private static final long BALANCE = 1_000_000_000L;
+  private static final long FROZEN = 1_000_000_000L;
+  private static final long CREATE_ACCOUNT_FEE = 1_000_000L;
+  private static String dbPath = "output_parallel_block_executor_test";
+
+  private TronApplicationContext context;
+  private Manager dbManager;
+  private ChainBaseManager chainManager;
+  private ECKey witness = new ECKey(Utils.getRandom());
+  private List<byte[]> addresses = new ArrayList<>();
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    Args.getInstance().setMetricsPrometheusEnable(true);
+    context = new TronApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+    chainManager = dbManager.getChainBaseManager();
+    chainManager.getDynamicPropertiesStore().saveAllowBlackHoleOptimization(1);
+    chainManager.getDynamicPropertiesStore()
+        .saveCreateNewAccountFeeInSystemContract(CREATE_ACCOUNT_FEE);
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  private ECKey createAccount() {
+    ECKey key = new ECKey(Utils.getRandom());
+    AccountCapsule account = new AccountCapsule(ByteString.EMPTY,
+        ByteString.copyFrom(key.getAddress()), AccountType.Normal, BALANCE);
+    // frozen bandwidth keeps the transfers off the public net, which they would all share
+    account.setFrozenForBandwidth(FROZEN, Long.MAX_VALUE);
+    chainManager.getAccountStore().put(key.getAddress(), account);
+    chainManager.getDynamicPropertiesStore().saveTotalNetWeight(
+        chainManager.getDynamicPropertiesStore().getTotalNetWeight() + FROZEN / 1_000_000L);
+    addresses.add(key.getAddress());
+    return key;
+  }
+
+  private byte[] newAddress() {
+    byte[] address = new ECKey(Utils.getRandom()).getAddress();
+    addresses.add(address);
+    return address;
+  }
+
+  private Transaction transfer(ECKey owner, byte[] to, long amount) {
+    TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(owner.getAddress()))
+        .setToAddress(ByteString.copyFrom(to))
+        .setAmount(amount).build(), ContractType.TransferContract);
+    chainManager.setBlockReference(trx);
+    trx.setExpiration(chainManager.getHeadBlockTimeStamp() + 60_000);
+    trx.sign(owner.getPrivKeyBytes());
+    return trx.getInstance();
+  }
+
+  private BlockCapsule block(List<Transaction> trxs) {
+    BlockCapsule block = new BlockCapsule(1, chainManager.getGenesisBlockId(),
+        chainManager.getHeadBlockTimeStamp() + 3000,
+        ByteString.copyFrom(witness.getAddress()));
+    trxs.forEach(trx -> block.addTransaction(new TransactionCapsule(trx)));
+    block.setMerkleRoot();
+    block.sign(witness.getPrivKeyBytes());
+    return block;
+  }
+
+  private List<Object> state() {
+    List<Object> state = new ArrayList<>();
+    for (byte[] address : addresses) {
+      AccountCapsule account = chainManager.getAccountStore().get(address);
+      state.add(account == null ? null : account.getInstance());
+    }
+    state.add(chainManager.getDynamicPropertiesStore().getBurnTrxAmount());
+    return state;
+  }
+
+  private static double count(String type) {
+    Double value = CollectorRegistry.defaultRegistry.getSampleValue(
+        "tron:parallel_execution_total", new String[]{"type"}, new String[]{type});
+    return value == null ? 0 : value;
+  }
+
+  @Test
+  public void testParallelMatchesSequential() throws Exception {
+    ECKey a = createAccount();
+    ECKey b = createAccount();
+    ECKey c = createAccount();
+    byte[] receiver = createAccount().getAddress();
+    List<Transaction> trxs = new ArrayList<>();
+    trxs.add(transfer(a, receiver, 100));
+    // both create an account and burn its fee, the burnt amount is merged by delta
+    trxs.add(transfer(b, newAddress(), 200));
+    trxs.add(transfer(c, newAddress(), 300));
+    // reads the owner written by the first transfer, it has to run again
+    trxs.add(transfer(a, newAddress(), 400));
+    long burnt = chainManager.getDynamicPropertiesStore().getBurnTrxAmount();
+
+    ParallelBlockExecutor executor = new ParallelBlockExecutor(dbManager, chainManager, 4,
+        false);
+    BlockCapsule parallelBlock = block(trxs);
+    Assert.assertTrue(executor.isEnabled(parallelBlock));
+    double committed = count(MetricLabels.Counter.PARALLEL_COMMITTED);
+    double reexecuted = count(MetricLabels.Counter.PARALLEL_REEXECUTED);
+    List<TransactionInfo> parallelInfos;
+    List<Object> parallelState;
+    try (ISession session = dbManager.getRevokingStore().buildSession()) {
+      parallelInfos = executor.execute(parallelBlock);
+      parallelState = state();
+    }
+    Assert.assertEquals(3, count(MetricLabels.Counter.PARALLEL_COMMITTED) - committed, 0);
+    Assert.assertEquals(1, count(MetricLabels.Counter.PARALLEL_REEXECUTED) - reexecuted, 0);
+
+    BlockCapsule sequentialBlock = block(trxs);
+    List<TransactionInfo> sequentialInfos = new ArrayList<>();
+    List<Object> sequentialState;
+    try (ISession session = dbManager.getRevokingStore().buildSession()) {
+      for (TransactionCapsule trx : sequentialBlock.getTransactions()) {
+        sequentialInfos.add(dbManager.processTransaction(trx, sequentialBlock));
+      }
+      sequentialState = state();
+    }
+
+    Assert.assertEquals(sequentialInfos, parallelInfos);
+    Assert.assertEquals(sequentialState, parallelState);
+    Assert.assertEquals(burnt + 3 * CREATE_ACCOUNT_FEE,
+        (long) parallelState.get(parallelState.size() - 1));
+    Account owner = (Account) parallelState.get(0);
+    Assert.assertEquals(BALANCE - 100 - 400 - CREATE_ACCOUNT_FEE, owner.getBalance());
+  }
+
+  @Test
+  public void testFailedBlockWaitsForSpeculations() throws Exception {
+    Manager manager = mock(Manager.class);
+    ChainBaseManager chainBaseManager = mock(ChainBaseManager.class);
+    when(chainBaseManager.getDynamicPropertiesStore())
+        .thenReturn(mock(DynamicPropertiesStore.class));
+    BlockCapsule block = block(Arrays.asList(transfer(createAccount(), newAddress(), 100),
+        transfer(createAccount(), newAddress(), 200)));
+    TransactionCapsule invalid = block.getTransactions().get(0);
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean finished = new AtomicBoolean();
+    when(manager.processTransaction(any(), any())).thenAnswer(invocation -> {
+      if (invocation.getArgument(0) == invalid) {
+        // fails the block while the second speculation is still running
+        started.await();
+        throw new ContractValidateException("invalid");
+      }
+      started.countDown();
+      Thread.sleep(200);
+      finished.set(true);
+      return null;
+    });
+
+    ParallelBlockExecutor executor = new ParallelBlockExecutor(manager, chainBaseManager, 2,
+        false);
+    try {
+      executor.execute(block);
+      Assert.fail("the first transaction is invalid");
+    } catch (ContractValidateException e) {
+      Assert.assertEquals("invalid", e.getMessage());
+    }
+    Assert.assertTrue(finished.get());
+  }
+}
@@ -0,0 +1,141 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import io.prometheus.client.CollectorRegistry;
+import java.io.File;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.FileUtil;
+import org.tron.common.utils.Utils;
+import org.tron.core.ChainBaseManager;
+import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.consensus.ConsensusService;
+import org.tron.core.exception.DupTransactionException;
+import org.tron.protos.Protocol.AccountType;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class PendingTransactionEvictionTest {
+
+  private static final long BALANCE = 1_000_000_000L;
+  private static String dbPath = "output_pending_eviction_test";
+
+  private TronApplicationContext context;
+  private Manager dbManager;
+  private ChainBaseManager chainManager;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", dbPath, "-w"}, Constant.TEST_CONF);
+    Args.getInstance().setMaxTransactionPendingSize(2);
+    Args.getInstance().setOpenTransactionSort(true);
+    Args.getInstance().setMetricsPrometheusEnable(true);
+    context = new TronApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+    dbManager.stopRePushThread();
+    context.getBean(ConsensusService.class).start();
+    chainManager = dbManager.getChainBaseManager();
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  private ECKey createAccount() {
+    ECKey key = new ECKey(Utils.getRandom());
+    chainManager.getAccountStore().put(key.getAddress(), new AccountCapsule(
+        ByteString.EMPTY, ByteString.copyFrom(key.getAddress()), AccountType.Normal, BALANCE));
+    return key;
+  }
+
+  private TransactionCapsule transfer(ECKey owner, byte[] to, long amount) {
+    TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(owner.getAddress()))
+        .setToAddress(ByteString.copyFrom(to))
+        .setAmount(amount).build(), ContractType.TransferContract);
+    chainManager.setBlockReference(trx);
+    trx.setExpiration(chainManager.getHeadBlockTimeStamp() + 60_000);
+    trx.sign(owner.getPrivKeyBytes());
+    return trx;
+  }
+
+  private long balance(byte[] address) {
+    return chainManager.getAccountStore().get(address).getBalance();
+  }
+
+  private static double processed() {
+    Double value = CollectorRegistry.defaultRegistry.getSampleValue(
+        MetricKeys.Histogram.PROCESS_TRANSACTION_LATENCY + "_count",
+        new String[]{"type", "contract"},
+        new String[]{MetricLabels.TRX, ContractType.TransferContract.name()});
+    return value == null ? 0 : value;
+  }
+
+  private void pushBlock() throws Exception {
+    byte[] privateKey = ByteArray.fromHexString(Args.getLocalWitnesses().getPrivateKey());
+    BlockCapsule block = new BlockCapsule(1, chainManager.getGenesisBlockId(), 1,
+        ByteString.copyFrom(ECKey.fromPrivate(privateKey).getAddress()));
+    block.setMerkleRoot();
+    block.sign(privateKey);
+    dbManager.pushBlock(block);
+    Assert.assertEquals(1, chainManager.getHeadBlockNum());
+  }
+
+  @Test
+  public void testEvictionLeavesPoolUntilNextBlock() throws Exception {
+    ECKey a = createAccount();
+    ECKey b = createAccount();
+    ECKey c = createAccount();
+    byte[] receiver = createAccount().getAddress();
+    byte[] newAccount = new ECKey(Utils.getRandom()).getAddress();
+
+    TransactionCapsule a1 = transfer(a, receiver, 100);
+    TransactionCapsule b1 = transfer(b, receiver, 200);
+    Assert.assertTrue(dbManager.pushTransaction(a1));
+    Assert.assertTrue(dbManager.pushTransaction(b1));
+
+    // creating an account pays a fee, so it ranks above the free transfers of a full pool
+    TransactionCapsule c1 = transfer(c, newAccount, 1_000_000);
+    double processed = processed();
+    Assert.assertTrue(dbManager.pushTransaction(c1));
+
+    // only the admitted transaction is executed, the pool left is not run again
+    Assert.assertEquals(1, processed() - processed, 0);
+    Assert.assertEquals(2, dbManager.getPendingTransactions().size());
+    Assert.assertNotNull(dbManager.getPendingTransaction(a1.getTransactionId()));
+    Assert.assertNotNull(dbManager.getPendingTransaction(c1.getTransactionId()));
+    Assert.assertNull(dbManager.getPendingTransaction(b1.getTransactionId()));
+    Assert.assertTrue(dbManager.getEvictedTransactions().contains(b1));
+    Assert.assertFalse(dbManager.getRePushTransactions().contains(b1));
+    Assert.assertEquals(1_000_000, balance(newAccount));
+
+    // the next block resets the pending state the evicted transaction was applied to
+    pushBlock();
+
+    Assert.assertTrue(dbManager.getEvictedTransactions().isEmpty());
+    Assert.assertTrue(dbManager.getRePushTransactions().contains(b1));
+    Assert.assertEquals(BALANCE, balance(b.getAddress()));
+    Assert.assertFalse(chainManager.getTransactionStore().has(b1.getTransactionId().getBytes()));
+    try {
+      dbManager.pushTransaction(a1);
+      Assert.fail("a pending transaction is a duplicate");
+    } catch (DupTransactionException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+public class PendingTransactionIndexTest {
+
+  private static final byte[] A = "a".getBytes();
+  private static final byte[] B = "b".getBytes();
+  private static final byte[] C = "c".getBytes();
+  private static final byte[] D = "d".getBytes();
+
+  private static TransactionCapsule transfer(byte[] from, byte[] to, long amount) {
+    return new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(from))
+        .setToAddress(ByteString.copyFrom(to))
+        .setAmount(amount).build(), ContractType.TransferContract);
+  }
+
+  @Test
+  public void testDependencies() {
+    TransactionCapsule trx = transfer(A, B, 1);
+    Assert.assertEquals(2, PendingTransactionIndex.getDependencies(trx).size());
+    Assert.assertTrue(PendingTransactionIndex.getDependencies(trx)
+        .contains(WrappedByteArray.of(B)));
+
+    TransactionCapsule call = new TransactionCapsule(TriggerSmartContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(A))
+        .setContractAddress(ByteString.copyFrom(C)).build(),
+        ContractType.TriggerSmartContract);
+    Assert.assertNull(PendingTransactionIndex.getDependencies(call));
+    Assert.assertTrue(PendingTransactionIndex.getAccounts(call)
+        .contains(WrappedByteArray.of(C)));
+  }
+
+  @Test
+  public void testTake() {
+    PendingTransactionIndex index = new PendingTransactionIndex();
+    TransactionCapsule ab = transfer(A, B, 1);
+    TransactionCapsule cb = transfer(C, B, 2);
+    TransactionCapsule cd = transfer(C, D, 3);
+    index.defer(ab, PendingTransactionIndex.getDependencies(ab));
+    index.defer(cb, PendingTransactionIndex.getDependencies(cb));
+    index.defer(cd, PendingTransactionIndex.getDependencies(cd));
+    Assert.assertEquals(3, index.size());
+    Assert.assertTrue(index.contains(cb));
+
+    Assert.assertTrue(index.take(Collections.singleton(WrappedByteArray.of("x".getBytes())))
+        .isEmpty());
+
+    List<TransactionCapsule> taken = index.take(
+        Collections.singleton(WrappedByteArray.of(B)));
+    Assert.assertEquals(2, taken.size());
+    Assert.assertSame(ab, taken.get(0));
+    Assert.assertSame(cb, taken.get(1));
+    Assert.assertFalse(index.contains(ab));
+    Assert.assertEquals(1, index.size());
+
+    taken = index.take(Collections.singleton(WrappedByteArray.of(C)));
+    Assert.assertEquals(1, taken.size());
+    Assert.assertSame(cd, taken.get(0));
+    Assert.assertEquals(0, index.size());
+
+    index.defer(ab, PendingTransactionIndex.getDependencies(ab));
+    index.clear();
+    Assert.assertFalse(index.contains(ab));
+  }
+}
@@ -0,0 +1,144 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.FileUtil;
+import org.tron.common.utils.Utils;
+import org.tron.core.ChainBaseManager;
+import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.consensus.ConsensusService;
+import org.tron.protos.Protocol.AccountType;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class PendingTransactionKeepTest {
+
+  private static final long BALANCE = 1_000_000_000L;
+  private static String dbPath = "output_pending_keep_test";
+
+  private TronApplicationContext context;
+  private Manager dbManager;
+  private ChainBaseManager chainManager;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", dbPath, "-w"}, Constant.TEST_CONF);
+    context = new TronApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+    dbManager.stopRePushThread();
+    context.getBean(ConsensusService.class).start();
+    chainManager = dbManager.getChainBaseManager();
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  private ECKey createAccount() {
+    ECKey key = new ECKey(Utils.getRandom());
+    chainManager.getAccountStore().put(key.getAddress(), new AccountCapsule(
+        ByteString.EMPTY, ByteString.copyFrom(key.getAddress()), AccountType.Normal, BALANCE));
+    return key;
+  }
+
+  private TransactionCapsule transfer(ECKey owner, byte[] to, long amount) {
+    TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(owner.getAddress()))
+        .setToAddress(ByteString.copyFrom(to))
+        .setAmount(amount).build(), ContractType.TransferContract);
+    chainManager.setBlockReference(trx);
+    trx.setExpiration(chainManager.getHeadBlockTimeStamp() + 60_000);
+    trx.sign(owner.getPrivKeyBytes());
+    return trx;
+  }
+
+  private void pushBlock(TransactionCapsule... trxs) throws Exception {
+    byte[] privateKey = ByteArray.fromHexString(Args.getLocalWitnesses().getPrivateKey());
+    BlockCapsule block = new BlockCapsule(1, chainManager.getGenesisBlockId(), 1,
+        ByteString.copyFrom(ECKey.fromPrivate(privateKey).getAddress()));
+    for (TransactionCapsule trx : trxs) {
+      block.addTransaction(trx);
+    }
+    block.setMerkleRoot();
+    block.sign(privateKey);
+    dbManager.pushBlock(block);
+    Assert.assertEquals(1, chainManager.getHeadBlockNum());
+  }
+
+  @Test
+  public void testKeptAcrossBlock() throws Exception {
+    ECKey a = createAccount();
+    TransactionCapsule pending = transfer(a, createAccount().getAddress(), 100);
+    Assert.assertTrue(dbManager.pushTransaction(pending));
+
+    pushBlock();
+
+    Assert.assertTrue(dbManager.getPendingTransactionIndex().contains(pending));
+    Assert.assertNotNull(dbManager.getPendingTransaction(pending.getTransactionId()));
+    Assert.assertTrue(dbManager.getRePushTransactions().isEmpty());
+  }
+
+  @Test
+  public void testKeptAfterBlockSpendsPublicNet() throws Exception {
+    ECKey a = createAccount();
+    ECKey c = createAccount();
+    TransactionCapsule pending = transfer(a, createAccount().getAddress(), 100);
+    TransactionCapsule included = transfer(c, createAccount().getAddress(), 100);
+    long publicNetUsage = chainManager.getDynamicPropertiesStore().getPublicNetUsage();
+    Assert.assertTrue(dbManager.pushTransaction(pending));
+
+    // the block shares no account with the pending transfer, but its transfer uses free
+    // bandwidth and so the public net the pending transfer is charged to as well
+    pushBlock(included);
+
+    Assert.assertTrue(
+        chainManager.getDynamicPropertiesStore().getPublicNetUsage() > publicNetUsage);
+    Assert.assertTrue(dbManager.getPendingTransactionIndex().contains(pending));
+    Assert.assertNotNull(dbManager.getPendingTransaction(pending.getTransactionId()));
+    Assert.assertTrue(dbManager.getRePushTransactions().isEmpty());
+  }
+
+  @Test
+  public void testReExecutedWhenPublicNetRunsOut() throws Exception {
+    ECKey a = createAccount();
+    ECKey b = createAccount();
+    AccountCapsule staked = chainManager.getAccountStore().get(b.getAddress());
+    staked.setFrozenForBandwidth(BALANCE / 2, Long.MAX_VALUE);
+    chainManager.getAccountStore().put(b.getAddress(), staked);
+    chainManager.getDynamicPropertiesStore().saveTotalNetWeight(
+        chainManager.getDynamicPropertiesStore().getTotalNetWeight() + BALANCE / 2 / 1_000_000L);
+    ECKey c = createAccount();
+    TransactionCapsule free = transfer(a, createAccount().getAddress(), 100);
+    TransactionCapsule paid = transfer(b, createAccount().getAddress(), 100);
+    TransactionCapsule included = transfer(c, createAccount().getAddress(), 100);
+    // room for one free transfer only, the one the block includes
+    long bytes = new BandwidthProcessor(chainManager).getBytesSize(included);
+    chainManager.getDynamicPropertiesStore().savePublicNetLimit(bytes * 3 / 2);
+    Assert.assertTrue(dbManager.pushTransaction(free));
+    Assert.assertTrue(dbManager.pushTransaction(paid));
+
+    pushBlock(included);
+
+    // the free transfer no longer fits in the public net, the staked one does not need it
+    Assert.assertFalse(dbManager.getPendingTransactionIndex().contains(free));
+    Assert.assertNull(dbManager.getPendingTransaction(free.getTransactionId()));
+    Assert.assertTrue(dbManager.getRePushTransactions().contains(free));
+    Assert.assertTrue(dbManager.getPendingTransactionIndex().contains(paid));
+    Assert.assertNotNull(dbManager.getPendingTransaction(paid.getTransactionId()));
+  }
+}
@@ -0,0 +1,80 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class TransactionPoolTest {
+
+  private static TransactionCapsule transfer(String owner, long amount, long fee) {
+    TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(owner.getBytes()))
+        .setToAddress(ByteString.copyFrom("to".getBytes()))
+        .setAmount(amount).build(), ContractType.TransferContract);
+    trx.setOrder(fee);
+    return trx;
+  }
+
+  @Test
+  public void testArrivalOrder() {
+    TransactionPool pool = new TransactionPool(false, 10, null);
+    TransactionCapsule a1 = transfer("a", 1, 10);
+    TransactionCapsule b1 = transfer("b", 1, 30);
+    TransactionCapsule a2 = transfer("a", 2, 20);
+    pool.add(a1);
+    pool.add(b1);
+    pool.add(a2);
+    pool.add(a1);
+    Assert.assertEquals(3, pool.size());
+    Assert.assertSame(a2, pool.get(a2.getTransactionId()));
+    Assert.assertSame(a1, pool.poll());
+    Assert.assertSame(b1, pool.poll());
+    Assert.assertSame(a2, pool.poll());
+    Assert.assertNull(pool.poll());
+  }
+
+  @Test
+  public void testFeeOrder() {
+    TransactionPool pool = new TransactionPool(true, 10, null);
+    TransactionCapsule a1 = transfer("a", 1, 10);
+    TransactionCapsule a2 = transfer("a", 2, 50);
+    TransactionCapsule b1 = transfer("b", 1, 30);
+    pool.add(a1);
+    pool.add(a2);
+    pool.add(b1);
+    // a2 pays more but waits for a1 of the same owner
+    Assert.assertSame(b1, pool.peek());
+    Assert.assertTrue(pool.remove(b1));
+    Assert.assertSame(a1, pool.poll());
+    Assert.assertSame(a2, pool.poll());
+    Assert.assertTrue(pool.isEmpty());
+  }
+
+  @Test
+  public void testEviction() {
+    List<TransactionCapsule> evicted = new ArrayList<>();
+    TransactionPool pool = new TransactionPool(true, 2, evicted::add);
+    TransactionCapsule a1 = transfer("a", 1, 10);
+    TransactionCapsule b1 = transfer("b", 1, 20);
+    pool.add(a1);
+    pool.add(b1);
+
+    Assert.assertFalse(pool.offer(transfer("c", 1, 5)));
+    Assert.assertTrue(evicted.isEmpty());
+
+    TransactionCapsule c2 = transfer("c", 2, 15);
+    Assert.assertTrue(pool.offer(c2));
+    Assert.assertEquals(1, evicted.size());
+    Assert.assertSame(a1, evicted.get(0));
+    Assert.assertNull(pool.get(a1.getTransactionId()));
+    Assert.assertEquals(2, pool.size());
+    Assert.assertEquals(2, pool.getIds().size());
+    Assert.assertSame(b1, pool.poll());
+    Assert.assertSame(c2, pool.poll());
+  }
+}
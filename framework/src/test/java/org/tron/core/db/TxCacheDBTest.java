@@ -1,6 +1,7 @@
 package org.tron.core.db;
 
 import java.io.File;
+import java.util.Arrays;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -10,6 +11,7 @@ import org.tron.common.application.ApplicationFactory;
 import org.tron.common.application.TronApplicationContext;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.FileUtil;
+import org.tron.common.utils.JsonUtil;
 import org.tron.core.Constant;
 import org.tron.core.capsule.BytesCapsule;
 import org.tron.core.config.DefaultConfig;
@@ -71,4 +73,20 @@ public class TxCacheDBTest {
       }
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void recentTransactionItemTest() {
+    RecentTransactionItem item = new RecentTransactionItem(100L, Arrays.asList(
+        ByteArray.toHexString(Wallet.generateRandomBytes(32)),
+        ByteArray.toHexString(Wallet.generateRandomBytes(32))));
+
+    RecentTransactionItem decoded = RecentTransactionItem.of(item.toBytes());
+    Assert.assertEquals(item.getNum(), decoded.getNum());
+    Assert.assertEquals(item.getTransactionIds(), decoded.getTransactionIds());
+
+    // entries written before the binary encoding are json
+    decoded = RecentTransactionItem.of(JsonUtil.obj2Json(item).getBytes());
+    Assert.assertEquals(item.getNum(), decoded.getNum());
+    Assert.assertEquals(item.getTransactionIds(), decoded.getTransactionIds());
+  }
+}
@@ -1,6 +1,7 @@
 package org.tron.core.db2;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
@@ -17,9 +18,12 @@ import org.tron.core.Constant;
 import org.tron.core.config.args.Args;
 import org.tron.core.db.common.DbSourceInter;
 import org.tron.core.db2.common.LevelDB;
+import org.tron.core.db2.common.WrappedByteArray;
 import org.tron.core.db2.core.Chainbase;
 import org.tron.core.db2.core.Snapshot;
+import org.tron.core.db2.core.SnapshotImpl;
 import org.tron.core.db2.core.SnapshotRoot;
+import org.tron.core.db2.core.Speculation;
 
 @Slf4j
 public class ChainbaseTest {
@@ -100,6 +104,90 @@ public class ChainbaseTest {
     chainbase.close();
   }
 
+  @Test
+  public void testLayerIndex() {
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "testLayerIndex");
+    dataSource.initDB();
+    SnapshotRoot root = new SnapshotRoot(new LevelDB(dataSource));
+    root.put(key1, valueRoot7);
+    Snapshot first = root.advance();
+    first.put(key1, value1);
+    Snapshot second = first.advance();
+    second.put(key1, value2);
+    Assert.assertArrayEquals(value2, second.get(key1));
+    // the newest layer is above the reader, the chain is walked
+    Assert.assertArrayEquals(value1, first.get(key1));
+
+    // revoke, the older layer becomes the newest again
+    Assert.assertSame(first, second.retreat());
+    Assert.assertArrayEquals(value1, first.get(key1));
+    Snapshot third = first.advance();
+    Assert.assertArrayEquals(value1, third.get(key1));
+
+    // merge, the key moves down with the layer
+    third.remove(key1);
+    first.merge(third);
+    third.retreat();
+    Assert.assertNull(first.get(key1));
+
+    // flush, the root answers once no layer holds the key
+    root.merge(first);
+    Snapshot fourth = root.advance();
+    Assert.assertNull(fourth.get(key1));
+    Assert.assertNull(fourth.get(key2));
+    dataSource.closeDB();
+  }
+
+  @Test
+  public void testSpeculation() {
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "testSpeculation");
+    dataSource.initDB();
+    Chainbase db = new Chainbase(new SnapshotRoot(new LevelDB(dataSource)).advance());
+    db.put(key1, value1);
+    db.put(key2, value2);
+
+    Speculation speculation = Speculation.start(false);
+    try {
+      Assert.assertArrayEquals(value1, db.getUnchecked(key1));
+      db.put(key1, value3);
+      db.delete(key2);
+      db.put(key3, value3);
+      Assert.assertArrayEquals(value3, db.getUnchecked(key1));
+      Assert.assertNull(db.getUnchecked(key2));
+      Assert.assertFalse(speculation.isAborted());
+      try {
+        db.prefixQuery(prefix);
+        Assert.fail();
+      } catch (Speculation.AbortedException e) {
+        Assert.assertTrue(speculation.isAborted());
+      }
+    } finally {
+      speculation.stop();
+    }
+    // the head is untouched, reads and writes are recorded
+    Assert.assertArrayEquals(value1, db.getUnchecked(key1));
+    Assert.assertArrayEquals(value2, db.getUnchecked(key2));
+    Assert.assertNull(db.getUnchecked(key3));
+    Assert.assertEquals(1, speculation.getReads().get(db).size());
+    Assert.assertArrayEquals(value1,
+        speculation.getReads().get(db).get(WrappedByteArray.of(key1)).getBytes());
+    Assert.assertEquals(3, speculation.getWrites().get(db).size());
+    Assert.assertNull(speculation.getWrites().get(db).get(WrappedByteArray.of(key2)).getBytes());
+
+    Speculation sequential = Speculation.start(true);
+    try {
+      db.put(key4, value4);
+      Assert.assertEquals(3, db.prefixQuery(prefix).size());
+    } finally {
+      sequential.stop();
+    }
+    Assert.assertArrayEquals(value4, db.getUnchecked(key4));
+    Assert.assertEquals(1, sequential.getWrites().get(db).size());
+    dataSource.closeDB();
+  }
+
 
   private void testRoot(DbSourceInter<byte[]> dbSource) {
     Map<String,String> result = new HashMap<>();
@@ -114,6 +202,14 @@ public class ChainbaseTest {
     Assert.assertEquals(expect, result);
     Assert.assertTrue(dbSource.prefixQuery(prefix2).isEmpty());
     Assert.assertTrue(dbSource.prefixQuery(prefix3).isEmpty());
+
+    Map<String,String> batch = new HashMap<>();
+    dbSource.getData(Arrays.asList(key2, key7, prefix2)).forEach((k, v) ->
+        batch.put(ByteArray.toStr(k.getBytes()), ByteArray.toStr(v)));
+    expect.clear();
+    expect.put(ByteArray.toStr(key2),ByteArray.toStr(value2));
+    expect.put(ByteArray.toStr(key7),ByteArray.toStr(valueRoot7));
+    Assert.assertEquals(expect, batch);
   }
 
   private void testDb(Chainbase chainbase) {
@@ -166,6 +262,22 @@ public class ChainbaseTest {
     Assert.assertEquals(expect, result);
     Assert.assertTrue(chainbase.prefixQuery(prefix2).isEmpty());
     Assert.assertTrue(chainbase.prefixQuery(prefix3).isEmpty());
+
+    // batched get, resolved through every layer down to the root
+    Map<String,String> batch = new HashMap<>();
+    ((SnapshotImpl) head).get(Arrays.asList(key0, key1, key2, key3, key4, key5, key6, key7,
+        key8, key9, prefix2)).forEach((k, v) ->
+        batch.put(ByteArray.toStr(k.getBytes()), ByteArray.toStr(v)));
+    expect.put(ByteArray.toStr(key0),ByteArray.toStr(value0));
+    Assert.assertEquals(expect, batch);
+
+    batch.clear();
+    chainbase.getUnchecked(Arrays.asList(key2, key7, key8)).forEach((k, v) ->
+        batch.put(ByteArray.toStr(k.getBytes()), ByteArray.toStr(v)));
+    expect.clear();
+    expect.put(ByteArray.toStr(key2),ByteArray.toStr(value2));
+    expect.put(ByteArray.toStr(key8),ByteArray.toStr(value8));
+    Assert.assertEquals(expect, batch);
   }
 
 }
\ No newline at end of file
@@ -14,13 +14,16 @@ import org.junit.Test;
 import org.tron.common.application.Application;
 import org.tron.common.application.ApplicationFactory;
 import org.tron.common.application.TronApplicationContext;
+import org.tron.common.storage.leveldb.LevelDbDataSourceImpl;
 import org.tron.common.utils.FileUtil;
+import org.tron.common.utils.Property;
 import org.tron.common.utils.SessionOptional;
 import org.tron.core.Constant;
 import org.tron.core.capsule.ProtoCapsule;
 import org.tron.core.config.DefaultConfig;
 import org.tron.core.config.args.Args;
 import org.tron.core.db2.RevokingDbWithCacheNewValueTest.TestRevokingTronStore;
+import org.tron.core.db2.common.LevelDB;
 import org.tron.core.db2.core.Snapshot;
 import org.tron.core.db2.core.SnapshotManager;
 import org.tron.core.db2.core.SnapshotRoot;
@@ -113,6 +116,71 @@ public class SnapshotRootTest {
     tronDatabase.close();
   }
 
+  @Test
+  public synchronized void testPrefetch() {
+    tronDatabase = new TestRevokingTronStore("testSnapshotRoot-testPrefetch");
+    byte[] key = "prefetch".getBytes();
+    byte[] absent = "absent".getBytes();
+    tronDatabase.put(key, new ProtoCapsuleTest(key));
+    SnapshotRoot root = tronDatabase.getSnapshotRoot();
+
+    root.startPrefetch();
+    root.prefetch(Arrays.asList(key, absent));
+    Assert.assertArrayEquals(key, root.get(key));
+    Assert.assertNull(root.get(absent));
+    Assert.assertEquals(2, root.getPrefetchReads());
+    Assert.assertEquals(1, root.getPrefetchHits());
+
+    // a write to the root drops what was read ahead
+    root.put(key, absent);
+    Assert.assertArrayEquals(absent, root.get(key));
+    Assert.assertEquals(1, root.getPrefetchHits());
+
+    root.stopPrefetch();
+    Assert.assertArrayEquals(absent, root.get(key));
+    Assert.assertEquals(3, root.getPrefetchReads());
+    tronDatabase.close();
+  }
+
+  @Test
+  public synchronized void testReadCache() {
+    String dbName = "testSnapshotRoot-testReadCache";
+    Property property = new Property();
+    property.setName(dbName);
+    property.setDbOptions(Args.getInstance().getStorage().newDefaultDbOptions(dbName));
+    property.setReadCacheSize(16);
+    Args.getInstance().getStorage().getPropertyMap().put(dbName, property);
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), dbName);
+    dataSource.initDB();
+    SnapshotRoot root = new SnapshotRoot(new LevelDB(dataSource));
+
+    byte[] key = "cache".getBytes();
+    byte[] v1 = "v1".getBytes();
+    byte[] v2 = "v2".getBytes();
+    root.put(key, v1);
+    Assert.assertArrayEquals(v1, root.get(key));
+    // served from the cache, a write that bypasses the root is not seen
+    dataSource.putData(key, v2);
+    byte[] cached = root.get(key);
+    Assert.assertArrayEquals(v1, cached);
+    cached[0] = 0;
+    Assert.assertArrayEquals(v1, root.get(key));
+
+    // a flush writes through to the cache
+    Snapshot snapshot = root.advance();
+    snapshot.put(key, v2);
+    root.merge(snapshot);
+    dataSource.putData(key, v1);
+    Assert.assertArrayEquals(v2, root.get(key));
+    Assert.assertArrayEquals(v2, root.get(Arrays.asList(key)).values().iterator().next());
+
+    root.remove(key);
+    Assert.assertNull(root.get(key));
+    Args.getInstance().getStorage().getPropertyMap().remove(dbName);
+    root.close();
+  }
+
   @NoArgsConstructor
   @AllArgsConstructor
   @EqualsAndHashCode
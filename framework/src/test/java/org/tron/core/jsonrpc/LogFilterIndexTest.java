@@ -0,0 +1,62 @@
+package org.tron.core.jsonrpc;
+
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.utils.ByteArray;
+import org.tron.core.services.jsonrpc.TronJsonRpc.FilterRequest;
+import org.tron.core.services.jsonrpc.filters.FilterExpireWheel;
+import org.tron.core.services.jsonrpc.filters.LogFilter;
+import org.tron.core.services.jsonrpc.filters.LogFilterIndex;
+import org.tron.protos.Protocol.TransactionInfo;
+import org.tron.protos.Protocol.TransactionInfo.Log;
+
+public class LogFilterIndexTest {
+
+  private static final String ADDRESS = "0x1111111111111111111111111111111111111111";
+  private static final String TOPIC =
+      "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef";
+
+  private static List<TransactionInfo> logs(String address, String topic) {
+    return Collections.singletonList(TransactionInfo.newBuilder().addLog(Log.newBuilder()
+        .setAddress(ByteString.copyFrom(ByteArray.fromHexString(address)))
+        .addTopics(ByteString.copyFrom(ByteArray.fromHexString(topic)))).build());
+  }
+
+  @Test
+  public void testMatch() throws Exception {
+    LogFilterIndex index = new LogFilterIndex();
+    index.add("address", new LogFilter(new FilterRequest(null, null, ADDRESS, null, null)));
+    index.add("topic", new LogFilter(new FilterRequest(null, null, null,
+        new String[] {TOPIC}, null)));
+    index.add("any", new LogFilter(new FilterRequest(null, null, null, null, null)));
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList("address", "topic", "any")),
+        index.match(logs(ADDRESS, TOPIC)));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("address", "any")),
+        index.match(logs(ADDRESS, "0x01")));
+    Assert.assertEquals(Collections.singleton("any"),
+        index.match(logs("0x2222222222222222222222222222222222222222", "0x01")));
+
+    index.remove("address");
+    index.remove("any");
+    Assert.assertEquals(Collections.singleton("topic"), index.match(logs(ADDRESS, TOPIC)));
+  }
+
+  @Test
+  public void testExpireWheel() {
+    FilterExpireWheel wheel = new FilterExpireWheel();
+    long now = System.currentTimeMillis();
+    wheel.add("a", now + 5_000);
+    wheel.add("b", now + 60_000);
+
+    Assert.assertTrue(wheel.advance(now).isEmpty());
+    Assert.assertEquals(Collections.singletonList("a"), wheel.advance(now + 6_000));
+    Assert.assertEquals(Collections.singletonList("b"), wheel.advance(now + 3_600_000));
+    Assert.assertTrue(wheel.advance(now + 7_200_000).isEmpty());
+  }
+}
@@ -0,0 +1,188 @@
+package org.tron.core.jsonrpc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.utils.ByteArray;
+import org.tron.core.ChainBaseManager;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionRetCapsule;
+import org.tron.core.db.Manager;
+import org.tron.core.exception.BadItemException;
+import org.tron.core.exception.ItemNotFoundException;
+import org.tron.core.exception.JsonRpcTooManyResultException;
+import org.tron.core.services.jsonrpc.TronJsonRpc.FilterRequest;
+import org.tron.core.services.jsonrpc.TronJsonRpc.LogFilterElement;
+import org.tron.core.services.jsonrpc.filters.LogBlockQuery;
+import org.tron.core.services.jsonrpc.filters.LogFilterWrapper;
+import org.tron.core.services.jsonrpc.filters.LogMatch;
+import org.tron.core.store.TransactionRetStore;
+import org.tron.protos.Protocol.TransactionInfo;
+import org.tron.protos.Protocol.TransactionInfo.Log;
+import org.tron.protos.Protocol.TransactionRet;
+
+public class LogMatchTest {
+
+  private static final int BLOCK_COUNT = LogMatch.MATCH_WINDOW * 3 + 5;
+
+  private Manager manager;
+  private TransactionRetStore transactionRetStore;
+  private ChainBaseManager chainBaseManager;
+  private ExecutorService executor;
+
+  @Before
+  public void init() throws Exception {
+    manager = mock(Manager.class);
+    transactionRetStore = mock(TransactionRetStore.class);
+    chainBaseManager = mock(ChainBaseManager.class);
+    when(manager.getTransactionRetStore()).thenReturn(transactionRetStore);
+    when(manager.getChainBaseManager()).thenReturn(chainBaseManager);
+    when(chainBaseManager.getBlockIdByNum(anyLong())).thenAnswer(
+        invocation -> new BlockId(new byte[32], (long) invocation.getArgument(0)));
+  }
+
+  @After
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private static TransactionRetCapsule blockRet(long blockNum, int logCount)
+      throws BadItemException {
+    TransactionInfo.Builder info = TransactionInfo.newBuilder()
+        .setId(ByteString.copyFrom(ByteArray.fromLong(blockNum)));
+    for (int i = 0; i < logCount; i++) {
+      info.addLog(Log.newBuilder()
+          .setAddress(ByteString.copyFrom(new byte[20]))
+          .setData(ByteString.copyFrom(ByteArray.fromLong(blockNum))));
+    }
+    return new TransactionRetCapsule(
+        TransactionRet.newBuilder().addTransactioninfo(info).build().toByteArray());
+  }
+
+  private static List<Long> blockNums(int count) {
+    List<Long> blockNums = new ArrayList<>();
+    for (long i = 1; i <= count; i++) {
+      blockNums.add(i);
+    }
+    return blockNums;
+  }
+
+  private LogMatch logMatch(List<Long> blockNums) throws Exception {
+    LogFilterWrapper wrapper = new LogFilterWrapper(
+        new FilterRequest("0x1", ByteArray.toJsonHex((long) blockNums.size()), null, null,
+            null), blockNums.size(), null);
+    return new LogMatch(wrapper, blockNums, manager, executor);
+  }
+
+  @Test
+  public void testBlockOrderAcrossWindows() throws Exception {
+    executor = Executors.newFixedThreadPool(4);
+    when(transactionRetStore.getTransactionInfoByBlockNum(any())).thenAnswer(invocation -> {
+      long blockNum = ByteArray.toLong(invocation.getArgument(0));
+      // later blocks of a window finish first
+      Thread.sleep((LogMatch.MATCH_WINDOW - blockNum % LogMatch.MATCH_WINDOW) % 4);
+      // blocks without transaction info match nothing
+      return blockNum % 7 == 0 ? null : blockRet(blockNum, 2);
+    });
+
+    LogFilterElement[] elements = logMatch(blockNums(BLOCK_COUNT)).matchBlockOneByOne();
+
+    List<String> expected = new ArrayList<>();
+    for (long blockNum = 1; blockNum <= BLOCK_COUNT; blockNum++) {
+      if (blockNum % 7 != 0) {
+        expected.add(ByteArray.toJsonHex(blockNum));
+        expected.add(ByteArray.toJsonHex(blockNum));
+      }
+    }
+    List<String> actual = new ArrayList<>();
+    for (LogFilterElement element : elements) {
+      actual.add(element.getBlockNumber());
+    }
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testTooManyResults() throws Exception {
+    executor = Executors.newSingleThreadExecutor();
+    int logCount = 400;
+    // the results of this block are the first to be more than the limit
+    int lastBlock = LogBlockQuery.MAX_RESULT / logCount + 1;
+    AtomicInteger started = new AtomicInteger();
+    AtomicInteger interrupted = new AtomicInteger();
+    CountDownLatch never = new CountDownLatch(1);
+    when(transactionRetStore.getTransactionInfoByBlockNum(any())).thenAnswer(invocation -> {
+      long blockNum = ByteArray.toLong(invocation.getArgument(0));
+      started.incrementAndGet();
+      if (blockNum > lastBlock) {
+        try {
+          never.await();
+        } catch (InterruptedException e) {
+          interrupted.incrementAndGet();
+        }
+        return null;
+      }
+      return blockRet(blockNum, logCount);
+    });
+
+    try {
+      logMatch(blockNums(BLOCK_COUNT)).matchBlockOneByOne();
+      Assert.fail("the query has too many results");
+    } catch (JsonRpcTooManyResultException e) {
+      // expected
+    }
+
+    // runs after every task left of the window, the cancelled ones are skipped
+    executor.submit(() -> { }).get();
+    Assert.assertTrue(started.get() <= lastBlock + 1);
+    Assert.assertEquals(started.get() - lastBlock, interrupted.get());
+  }
+
+  @Test
+  public void testUnwrapBadItem() throws Exception {
+    executor = Executors.newFixedThreadPool(4);
+    when(transactionRetStore.getTransactionInfoByBlockNum(any())).thenAnswer(invocation -> {
+      long blockNum = ByteArray.toLong(invocation.getArgument(0));
+      if (blockNum == LogMatch.MATCH_WINDOW + 3) {
+        throw new BadItemException("bad transaction ret");
+      }
+      return blockRet(blockNum, 1);
+    });
+
+    try {
+      logMatch(blockNums(BLOCK_COUNT)).matchBlockOneByOne();
+      Assert.fail("a block can not be read");
+    } catch (BadItemException e) {
+      Assert.assertEquals("bad transaction ret", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testUnwrapItemNotFound() throws Exception {
+    executor = Executors.newFixedThreadPool(4);
+    when(transactionRetStore.getTransactionInfoByBlockNum(any())).thenAnswer(
+        invocation -> blockRet(ByteArray.toLong(invocation.getArgument(0)), 1));
+    when(chainBaseManager.getBlockIdByNum(5L)).thenThrow(new ItemNotFoundException("no block"));
+
+    try {
+      logMatch(blockNums(BLOCK_COUNT)).matchBlockOneByOne();
+      Assert.fail("a block id can not be found");
+    } catch (ItemNotFoundException e) {
+      Assert.assertEquals("no block", e.getMessage());
+    }
+  }
+}
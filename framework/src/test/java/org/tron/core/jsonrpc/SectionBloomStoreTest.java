@@ -11,6 +11,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.testng.Assert;
 import org.tron.common.application.TronApplicationContext;
+import org.tron.common.bloom.Bloom;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.common.runtime.vm.LogInfo;
 import org.tron.common.utils.ByteArray;
@@ -101,6 +102,32 @@ public class SectionBloomStoreTest {
     return builder.build();
   }
 
+  @Test
+  public void testWriteAndRevoke() throws EventBloomException {
+    TransactionRetCapsule capsule = new TransactionRetCapsule();
+    capsule.addTransactionInfo(createTransactionInfo(bytesToAddress(new byte[] {0x66}),
+        ByteArray.fromHexString(
+            "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef")));
+    int bitIndex = BitSet.valueOf(Bloom.createBloom(capsule).getData()).nextSetBit(0);
+    long blockNum = 200L * SectionBloomStore.BLOCK_PER_SECTION + 5;
+
+    sectionBloomStore.initBlockSection(capsule);
+    sectionBloomStore.write(blockNum);
+    Assert.assertTrue(sectionBloomStore.get(200, bitIndex).get(5));
+
+    // the block is revoked and another block of its number is applied
+    sectionBloomStore.initBlockSection(new TransactionRetCapsule());
+    sectionBloomStore.write(blockNum);
+    BitSet bitSet = sectionBloomStore.get(200, bitIndex);
+    Assert.assertTrue(bitSet == null || !bitSet.get(5));
+
+    sectionBloomStore.initBlockSection(capsule);
+    sectionBloomStore.write(blockNum);
+    sectionBloomStore.initBlockSection(new TransactionRetCapsule());
+    sectionBloomStore.write(201L * SectionBloomStore.BLOCK_PER_SECTION);
+    Assert.assertTrue(sectionBloomStore.get(200, bitIndex).get(5));
+  }
+
   @Test
   public void testWriteAndQuery() {
 
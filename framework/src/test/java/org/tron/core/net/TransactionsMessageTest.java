@@ -0,0 +1,51 @@
+package org.tron.core.net;
+
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.tron.common.overlay.message.Message;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.net.message.TransactionMessage;
+import org.tron.core.net.message.TransactionsMessage;
+import org.tron.core.store.DynamicPropertiesStore;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+public class TransactionsMessageTest {
+
+  @Test
+  public void testLazyParse() throws Exception {
+    Message.setDynamicPropertiesStore(Mockito.mock(DynamicPropertiesStore.class));
+    Transaction transfer = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom("a".getBytes()))
+        .setToAddress(ByteString.copyFrom("b".getBytes()))
+        .setAmount(1).build(), ContractType.TransferContract).getInstance();
+    Transaction trigger = new TransactionCapsule(TriggerSmartContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom("a".getBytes()))
+        .setContractAddress(ByteString.copyFrom("c".getBytes())).build(),
+        ContractType.TriggerSmartContract).getInstance();
+
+    TransactionsMessage message = new TransactionsMessage(
+        new TransactionsMessage(Arrays.asList(transfer, trigger)).getData());
+    Assert.assertEquals(2, message.getTransactionCount());
+
+    TransactionMessage first = message.getTransactionMessages().get(0);
+    TransactionMessage second = message.getTransactionMessages().get(1);
+    Assert.assertEquals(new TransactionCapsule(transfer).getTransactionId(),
+        first.getMessageId());
+    Assert.assertEquals(ContractType.TransferContract_VALUE, first.getContractType());
+    Assert.assertEquals(ContractType.TriggerSmartContract_VALUE, second.getContractType());
+    Assert.assertArrayEquals(trigger.toByteArray(), second.getData());
+
+    first.parse();
+    Assert.assertEquals(new TransactionCapsule(transfer).getTransactionId(),
+        first.getMessageId());
+    Assert.assertEquals(transfer, first.getTransactionCapsule().getInstance());
+    Assert.assertEquals(Arrays.asList(transfer, trigger),
+        message.getTransactions().getTransactionsList());
+  }
+}
@@ -0,0 +1,188 @@
+package org.tron.core.net.messagehandler;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.tron.common.overlay.message.Message;
+import org.tron.common.utils.Pair;
+import org.tron.common.utils.ReflectUtils;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.P2pException;
+import org.tron.core.exception.P2pException.TypeEnum;
+import org.tron.core.net.TronNetDelegate;
+import org.tron.core.net.message.BlockMessage;
+import org.tron.core.net.message.BlockTrxsMessage;
+import org.tron.core.net.message.CompactBlockMessage;
+import org.tron.core.net.message.FetchBlockTrxsMessage;
+import org.tron.core.net.message.TransactionMessage;
+import org.tron.core.net.message.TronMessage;
+import org.tron.core.net.peer.Item;
+import org.tron.core.net.peer.PeerConnection;
+import org.tron.core.net.service.AdvService;
+import org.tron.core.net.service.CompactRelayService;
+import org.tron.core.store.DynamicPropertiesStore;
+import org.tron.protos.Protocol.Inventory.InventoryType;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.Protocol.Transaction.Result;
+import org.tron.protos.Protocol.Transaction.Result.contractResult;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class CompactRelayMsgHandlerTest {
+
+  private CompactRelayMsgHandler handler = new CompactRelayMsgHandler();
+  private TronNetDelegate tronNetDelegate = mock(TronNetDelegate.class);
+  private AdvService advService = mock(AdvService.class);
+  private CompactRelayService compactRelayService = mock(CompactRelayService.class);
+  private BlockMsgHandler blockMsgHandler = mock(BlockMsgHandler.class);
+  private PeerConnection peer = mock(PeerConnection.class);
+  private Map<BlockId, Pair<CompactBlockMessage, Transaction[]>> compactBlockPending =
+      new ConcurrentHashMap<>();
+
+  private List<Transaction> trxs = new ArrayList<>();
+  private BlockCapsule block;
+  private CompactBlockMessage compact;
+
+  @Before
+  public void init() {
+    Message.setDynamicPropertiesStore(mock(DynamicPropertiesStore.class));
+    ReflectUtils.setFieldValue(handler, "tronNetDelegate", tronNetDelegate);
+    ReflectUtils.setFieldValue(handler, "advService", advService);
+    ReflectUtils.setFieldValue(handler, "compactRelayService", compactRelayService);
+    ReflectUtils.setFieldValue(handler, "blockMsgHandler", blockMsgHandler);
+    when(compactRelayService.isCompact(peer)).thenReturn(true);
+    when(peer.getCompactBlockPending()).thenReturn(compactBlockPending);
+
+    block = new BlockCapsule(1, Sha256Hash.ZERO_HASH, 1234,
+        ByteString.copyFrom("witness".getBytes()));
+    List<Long> shortIds = new ArrayList<>();
+    List<List<Result>> rets = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Transaction trx = new TransactionCapsule(TransferContract.newBuilder()
+          .setOwnerAddress(ByteString.copyFrom("owner".getBytes()))
+          .setToAddress(ByteString.copyFrom("to".getBytes()))
+          .setAmount(i + 1).build(), ContractType.TransferContract).getInstance().toBuilder()
+          .addRet(Result.newBuilder().setContractRet(contractResult.SUCCESS)).build();
+      trxs.add(trx);
+      block.addTransaction(new TransactionCapsule(trx));
+      shortIds.add((long) i);
+      rets.add(trx.getRetList());
+    }
+    block.setMerkleRoot();
+    compact = new CompactBlockMessage(block.getInstance().getBlockHeader(), shortIds, rets);
+    Map<Item, Long> advInvRequest = new ConcurrentHashMap<>();
+    advInvRequest.put(new Item(block.getBlockId(), InventoryType.BLOCK), 0L);
+    when(peer.getAdvInvRequest()).thenReturn(advInvRequest);
+  }
+
+  /**
+   * the transaction as this node has it, with the result of its own execution.
+   */
+  private static Transaction localCopy(Transaction trx) {
+    return trx.toBuilder().clearRet()
+        .addRet(Result.newBuilder().setContractRet(contractResult.DEFAULT)).build();
+  }
+
+  private void know(long shortId, Transaction trx) {
+    Sha256Hash id = new TransactionCapsule(trx).getTransactionId();
+    when(compactRelayService.getKnown(shortId)).thenReturn(id);
+    when(tronNetDelegate.getPendingTransaction(id))
+        .thenReturn(new TransactionCapsule(localCopy(trx)));
+  }
+
+  private BlockCapsule handled() throws Exception {
+    ArgumentCaptor<TronMessage> captor = ArgumentCaptor.forClass(TronMessage.class);
+    verify(blockMsgHandler).processMessage(any(), captor.capture());
+    return ((BlockMessage) captor.getValue()).getBlockCapsule();
+  }
+
+  private List<Integer> requested() {
+    ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+    verify(peer).fastSend(captor.capture());
+    FetchBlockTrxsMessage fetch = (FetchBlockTrxsMessage) captor.getValue();
+    Assert.assertEquals(block.getBlockId(), fetch.getBlockId());
+    return fetch.getIndexes();
+  }
+
+  @Test
+  public void testRebuildFromKnownTransactions() throws Exception {
+    know(0, trxs.get(0));
+    know(1, trxs.get(1));
+    // one found in the relay cache instead of the pending pool
+    Sha256Hash id = new TransactionCapsule(trxs.get(2)).getTransactionId();
+    when(compactRelayService.getKnown(2)).thenReturn(id);
+    when(advService.getMessage(new Item(id, InventoryType.TRX)))
+        .thenReturn(new TransactionMessage(localCopy(trxs.get(2))));
+
+    handler.processMessage(peer, compact);
+
+    verify(peer, never()).fastSend(any());
+    Assert.assertEquals(block.getInstance(), handled().getInstance());
+  }
+
+  @Test
+  public void testFetchMissingIndexes() throws Exception {
+    know(0, trxs.get(0));
+    know(2, trxs.get(2));
+
+    handler.processMessage(peer, compact);
+
+    Assert.assertEquals(Arrays.asList(1), requested());
+    verify(blockMsgHandler, never()).processMessage(any(), any());
+
+    handler.processMessage(peer, new BlockTrxsMessage(block.getBlockId(),
+        Arrays.asList(trxs.get(1))));
+
+    Assert.assertEquals(block.getInstance(), handled().getInstance());
+    Assert.assertTrue(compactBlockPending.isEmpty());
+  }
+
+  @Test
+  public void testMerkleMismatchFetchesAll() throws Exception {
+    know(0, trxs.get(0));
+    // a short id colliding with another transaction this node has
+    know(1, trxs.get(2));
+    know(2, trxs.get(2));
+
+    handler.processMessage(peer, compact);
+
+    Assert.assertEquals(Arrays.asList(0, 1, 2), requested());
+    verify(blockMsgHandler, never()).processMessage(any(), any());
+
+    handler.processMessage(peer, new BlockTrxsMessage(block.getBlockId(), trxs));
+
+    Assert.assertEquals(block.getInstance(), handled().getInstance());
+  }
+
+  @Test
+  public void testBadBlockWhenAllFetched() throws Exception {
+    handler.processMessage(peer, compact);
+
+    Assert.assertEquals(Arrays.asList(0, 1, 2), requested());
+
+    try {
+      handler.processMessage(peer, new BlockTrxsMessage(block.getBlockId(),
+          Arrays.asList(trxs.get(0), trxs.get(2), trxs.get(1))));
+      Assert.fail("the transactions do not match the merkle root");
+    } catch (P2pException e) {
+      Assert.assertEquals(TypeEnum.BAD_BLOCK, e.getType());
+    }
+    verify(blockMsgHandler, never()).processMessage(any(), any());
+  }
+}
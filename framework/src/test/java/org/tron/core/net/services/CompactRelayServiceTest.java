@@ -0,0 +1,65 @@
+package org.tron.core.net.services;
+
+import com.google.protobuf.ByteString;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.tron.common.overlay.message.Message;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.net.message.BlockTrxsMessage;
+import org.tron.core.net.message.CompactBlockMessage;
+import org.tron.core.net.service.CompactRelayService;
+import org.tron.core.store.DynamicPropertiesStore;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.Protocol.Transaction.Result;
+import org.tron.protos.Protocol.Transaction.Result.contractResult;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class CompactRelayServiceTest {
+
+  @Test
+  public void testShortId() {
+    Sha256Hash id = Sha256Hash.of(true, "trx".getBytes());
+    byte[] key = CompactRelayService.getLocalKey();
+    long shortId = CompactRelayService.shortId(ByteBuffer.wrap(key), id);
+    Assert.assertEquals(shortId, new CompactRelayService().localShortId(id));
+
+    key[0] ^= 1;
+    Assert.assertNotEquals(shortId, CompactRelayService.shortId(ByteBuffer.wrap(key), id));
+  }
+
+  @Test
+  public void testCompactBlock() throws Exception {
+    Message.setDynamicPropertiesStore(Mockito.mock(DynamicPropertiesStore.class));
+    BlockCapsule block = new BlockCapsule(1, Sha256Hash.ZERO_HASH, 1234,
+        ByteString.copyFrom("witness".getBytes()));
+    Transaction trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom("a".getBytes()))
+        .setToAddress(ByteString.copyFrom("b".getBytes()))
+        .setAmount(1).build(), ContractType.TransferContract).getInstance();
+
+    List<Result> ret = Collections.singletonList(
+        Result.newBuilder().setContractRet(contractResult.REVERT).build());
+    CompactBlockMessage compact = new CompactBlockMessage(
+        new CompactBlockMessage(block.getInstance().getBlockHeader(), Arrays.asList(1L, -2L),
+            Arrays.asList(Collections.emptyList(), ret)).getData());
+    Assert.assertEquals(block.getBlockId(), compact.getBlockId());
+    Assert.assertEquals(Arrays.asList(1L, -2L), compact.getTransactionIds());
+    Assert.assertEquals(2, compact.getTransactionRetsCount());
+    Assert.assertEquals(Collections.emptyList(), compact.getTransactionRet(0));
+    Assert.assertEquals(ret, compact.getTransactionRet(1));
+
+    BlockTrxsMessage trxs = new BlockTrxsMessage(
+        new BlockTrxsMessage(block.getBlockId(), Collections.singletonList(trx)).getData());
+    Assert.assertEquals(block.getBlockId(), trxs.getBlockId());
+    Assert.assertEquals(block.getNum(), trxs.getBlockId().getNum());
+    Assert.assertEquals(Collections.singletonList(trx), trxs.getTransactions());
+  }
+}